@@ -25,6 +25,12 @@ public class DatabaseConfig {
     @Value("${mysql.driver}")
     private String mysqlDriver;
 
+    @Value("${mysql.pool.max-size:10}")
+    private int mysqlPoolMaxSize;
+
+    @Value("${mysql.pool.min-idle:5}")
+    private int mysqlPoolMinIdle;
+
     @Value("${mongodb.uri}")
     private String mongodbUri;
 
@@ -38,8 +44,9 @@ public class DatabaseConfig {
         dataSource.setUsername(mysqlUsername);
         dataSource.setPassword(mysqlPassword);
         dataSource.setDriverClassName(mysqlDriver);
-        dataSource.setMaximumPoolSize(10);
-        dataSource.setMinimumIdle(5);
+        // ReactiveInferenceRequestRepository sizes its scheduler from the same property
+        dataSource.setMaximumPoolSize(mysqlPoolMaxSize);
+        dataSource.setMinimumIdle(Math.min(mysqlPoolMinIdle, mysqlPoolMaxSize));
         return dataSource;
     }
 
@@ -52,4 +59,15 @@ public class DatabaseConfig {
     public MongoDatabase mongoDatabase(MongoClient mongoClient) {
         return mongoClient.getDatabase(mongodbDatabase);
     }
+
+    @Bean
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+        return com.mongodb.reactivestreams.client.MongoClients.create(mongodbUri);
+    }
+
+    @Bean
+    public com.mongodb.reactivestreams.client.MongoDatabase reactiveMongoDatabase(
+            com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient) {
+        return reactiveMongoClient.getDatabase(mongodbDatabase);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.neuralsynthmodeler.backend.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.model.InferenceRequestFilter;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Listing of inference requests for operators, filtered by status, model and synth, newest first.
+ *
+ * {@code /admin/requests} returns one page and an opaque {@code next_cursor} for the following one;
+ * pages are read by keyset on (created_at, id), so every page costs the same however deep it is.
+ * {@code /admin/requests/export} streams every match as newline-delimited JSON, read from MySQL as the
+ * client consumes it.
+ */
+@RestController
+@RequestMapping("/v1/admin")
+public class AdminController {
+
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final int maxPageSize;
+
+    @Autowired
+    public AdminController(ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                           @Value("${admin.page.max-size:500}") int maxPageSize) {
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping("/requests")
+    public Mono<Map<String, Object>> listRequests(@RequestParam(value = "status", required = false) String status,
+                                                  @RequestParam(value = "model", required = false) String model,
+                                                  @RequestParam(value = "synth", required = false) String synth,
+                                                  @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + maxPageSize));
+        }
+        Instant afterCreatedAt = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedAt = Instant.ofEpochMilli(Long.parseLong(position[0]));
+            afterId = position[1];
+        }
+        return reactiveInferenceRequestRepository.findPage(filter(status, model, synth), afterCreatedAt, afterId, limit)
+            .map(entities -> {
+                Map<String, Object> page = new HashMap<>();
+                page.put("items", entities.stream().map(AdminController::toMap).toList());
+                // A short page is the last one
+                page.put("next_cursor", entities.size() == limit ? encodeCursor(entities.get(entities.size() - 1)) : null);
+                return page;
+            });
+    }
+
+    @GetMapping(value = "/requests/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> exportRequests(@RequestParam(value = "status", required = false) String status,
+                                                    @RequestParam(value = "model", required = false) String model,
+                                                    @RequestParam(value = "synth", required = false) String synth) {
+        return reactiveInferenceRequestRepository.stream(filter(status, model, synth))
+            .map(AdminController::toMap);
+    }
+
+    private static InferenceRequestFilter filter(String status, String model, String synth) {
+        return InferenceRequestFilter.builder()
+            .status(status)
+            .model(model)
+            .synth(synth)
+            .build();
+    }
+
+    private static String encodeCursor(InferenceRequestEntity last) {
+        String position = last.getCreatedAt().toEpochMilli() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":", 2);
+            Long.parseLong(parts[0]);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Missing request id");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static Map<String, Object> toMap(InferenceRequestEntity entity) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("request_id", entity.getId());
+        item.put("model", entity.getModel());
+        item.put("synth", entity.getSynth());
+        item.put("status", entity.getStatus());
+        item.put("created_at", entity.getCreatedAt());
+        item.put("updated_at", entity.getUpdatedAt());
+        item.put("audio_size_gzipped", entity.getAudioSizeGzipped());
+        item.put("audio_size_uncompressed", entity.getAudioSizeUncompressed());
+        item.put("audio_duration_ms", entity.getAudioDurationMs());
+        item.put("audio_sample_rate", entity.getAudioSampleRate());
+        item.put("audio_channels", entity.getAudioChannels());
+        item.put("result_ref", entity.getResultRef());
+        item.put("error", entity.getError());
+        item.put("attempts", entity.getAttempts());
+        return item;
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.buffer.DataBuffer;
 import java.io.IOException;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
@@ -13,12 +15,13 @@ import org.springframework.web.server.ResponseStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.neuralsynthmodeler.backend.service.InferenceService;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.beans.factory.annotation.Value;
+import com.neuralsynthmodeler.backend.service.InferenceRejectedException;
+import com.neuralsynthmodeler.backend.service.ModelServerClient;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import com.neuralsynthmodeler.backend.util.CircuitBreaker;
 import org.springframework.http.codec.ServerSentEvent;
 import javax.sql.DataSource;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.MongoException;
+import com.mongodb.reactivestreams.client.MongoDatabase;
 
 
 @RestController
@@ -26,26 +29,24 @@ import com.mongodb.MongoException;
 public class InferenceController {
 
     private final InferenceService inferenceService;
-    private final WebClient webClient;
-    private final String pythonServiceUrl;
     private static final String SUPPORTED_MODEL = "vital";
     private static final Logger logger = LoggerFactory.getLogger(InferenceController.class);
     private final DataSource dataSource;
-    private final MongoDatabase mongoDatabase;
+    private final MongoDatabase reactiveMongoDatabase;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final ModelServerClient modelServerClient;
 
     @Autowired
     public InferenceController(InferenceService inferenceService, 
-                              WebClient.Builder webClientBuilder,
-                              @Value("${model.server.url}") String pythonServiceUrl,
                               DataSource dataSource,
-                              MongoDatabase mongoDatabase) {
+                              MongoDatabase reactiveMongoDatabase,
+                              ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                              ModelServerClient modelServerClient) {
         this.inferenceService = inferenceService;
-        this.pythonServiceUrl = pythonServiceUrl;
-        this.webClient = webClientBuilder
-            .baseUrl(pythonServiceUrl)
-            .build();
         this.dataSource = dataSource;
-        this.mongoDatabase = mongoDatabase;
+        this.reactiveMongoDatabase = reactiveMongoDatabase;
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.modelServerClient = modelServerClient;
     }
 
     @GetMapping("")
@@ -62,43 +63,44 @@ public class InferenceController {
     @GetMapping("/health/ready")
     public Mono<ResponseEntity<Map<String, Object>>> healthReady() {
         Map<String, Object> status = new HashMap<>();
-        // Check MySQL
+        // Check MySQL on the JDBC scheduler, connection checkout blocks
+        Mono<String> mysqlCheck = Mono.fromCallable(this::checkMysql)
+            .subscribeOn(reactiveInferenceRequestRepository.scheduler());
+        // Check MongoDB
+        Mono<String> mongoCheck = Mono.from(reactiveMongoDatabase.runCommand(new org.bson.Document("ping", 1)))
+            .map(resp -> "ok")
+            .onErrorResume(e -> Mono.just("MongoDB unreachable: " + e.getMessage()))
+            .defaultIfEmpty("ok");
+        return Mono.zip(mysqlCheck, mongoCheck).map(checks -> {
+            status.put("mysql", checks.getT1());
+            status.put("mongo", checks.getT2());
+            // Check BentoML; the endpoint pool health-checks every replica in the background
+            if (modelServerClient.hasHealthyEndpoint()) {
+                status.put("bentoml", "ok");
+            } else {
+                status.put("bentoml", "BentoML unreachable: no healthy model server endpoint");
+            }
+            // Not ready while the breaker holds calls back, so traffic goes to replicas that can serve it
+            CircuitBreaker.State circuit = modelServerClient.getCircuitState();
+            status.put("model_circuit", circuit == CircuitBreaker.State.CLOSED ? "ok" : "Circuit " + circuit);
+            boolean allOk = status.values().stream().allMatch(v -> "ok".equals(v));
+            Map<String, Object> result = new HashMap<>();
+            result.put("ready", allOk);
+            if (!allOk) result.put("details", status);
+            boolean modelServerOk = "ok".equals(status.get("bentoml")) && "ok".equals(status.get("model_circuit"));
+            return modelServerOk ? ResponseEntity.ok(result) : ResponseEntity.status(503).body(result);
+        });
+    }
+
+    private String checkMysql() {
         try (java.sql.Connection conn = dataSource.getConnection()) {
             if (!conn.isValid(2)) {
-                status.put("mysql", "MySQL unreachable: Connection is not valid");
-            } else {
-                status.put("mysql", "ok");
+                return "MySQL unreachable: Connection is not valid";
             }
+            return "ok";
         } catch (Exception e) {
-            status.put("mysql", "MySQL unreachable: " + e.getMessage());
-        }
-        // Check MongoDB
-        try {
-            mongoDatabase.runCommand(new org.bson.Document("ping", 1));
-            status.put("mongo", "ok");
-        } catch (Exception e) {
-            status.put("mongo", "MongoDB unreachable: " + e.getMessage());
+            return "MySQL unreachable: " + e.getMessage();
         }
-        // Check BentoML
-        return webClient.get()
-            .uri("/healthz")
-            .retrieve()
-            .bodyToMono(String.class)
-            .map(resp -> {
-                status.put("bentoml", "ok");
-                boolean allOk = status.values().stream().allMatch(v -> "ok".equals(v));
-                Map<String, Object> result = new HashMap<>();
-                result.put("ready", allOk);
-                if (!allOk) result.put("details", status);
-                return ResponseEntity.ok(result);
-            })
-            .onErrorResume(e -> {
-                status.put("bentoml", "BentoML unreachable: " + e.getMessage());
-                Map<String, Object> result = new HashMap<>();
-                result.put("ready", false);
-                result.put("details", status);
-                return Mono.just(ResponseEntity.status(503).body(result));
-            });
     }
 
     @GetMapping("/models/{modelName}")
@@ -130,129 +132,128 @@ public class InferenceController {
     }
 
     @PostMapping(value = "/models/{modelName}/infer", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<Map<String, Object>> infer(@PathVariable String modelName, @RequestBody byte[] audioData) {
+    public Mono<Map<String, Object>> infer(@PathVariable String modelName,
+                                           @RequestBody Flux<DataBuffer> audioData,
+                                           @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
         if (!SUPPORTED_MODEL.equalsIgnoreCase(modelName)) {
             logger.warn("Infer request for unsupported model: {}", modelName);
             return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Model not supported"));
         }
-        logger.info("Received infer request for model '{}', audio data size: {} bytes", modelName, audioData.length);
+        logger.info("Received infer request for model '{}', declared content length: {} bytes", modelName, contentLength);
         return inferenceService.handleInference(audioData)
             .doOnSubscribe(sub -> logger.info("Started inference flow for request"))
             .doOnSuccess(resp -> logger.info("Inference flow completed for request, response: {}", resp))
             .doOnError(e -> logger.error("Error in inference flow: {}", e.getMessage(), e));
     }
 
+    @ExceptionHandler(InferenceRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleRejected(InferenceRejectedException e) {
+        logger.warn("Rejecting infer request with status {}: {}", e.getStatus().value(), e.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", "REJECTED");
+        body.put("error", e.getMessage());
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     @GetMapping("/infer-audio/status/{id}")
     public Mono<Map<String, Object>> getStatus(@PathVariable("id") String requestId) {
-        return Mono.fromSupplier(() -> {
-            InferenceService.RequestStatus status = inferenceService.getStatus(requestId);
-            Map<String, Object> resp = new HashMap<>();
-            resp.put("request_id", requestId);
-            resp.put("status", status != null ? status.name() : "NOT_FOUND");
-            return resp;
-        });
+        return inferenceService.getStatus(requestId)
+            .map(InferenceService.RequestStatus::name)
+            .defaultIfEmpty("NOT_FOUND")
+            .map(status -> {
+                Map<String, Object> resp = new HashMap<>();
+                resp.put("request_id", requestId);
+                resp.put("status", status);
+                return resp;
+            });
     }
 
     @GetMapping(value = "/infer-audio/stream-status/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<Map<String, Object>>> streamStatus(@PathVariable("id") String requestId) {
         logger.info("Starting SSE stream for request ID: {}", requestId);
         return inferenceService.getStatusStream(requestId)
-            .map(status -> {
+            .concatMap(status -> {
                 Map<String, Object> data = new HashMap<>();
                 data.put("status", status.name());
                 data.put("timestamp", System.currentTimeMillis());
-                if (status == InferenceService.RequestStatus.ERROR) {
-                    // Fetch error message from the inference request entity
-                    String errorMsg = null;
-                    try {
-                        var entityOpt = inferenceService.getRequestEntity(requestId);
-                        if (entityOpt.isPresent()) {
-                            errorMsg = entityOpt.get().getError();
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Could not fetch error message for request ID {}: {}", requestId, e.getMessage());
-                    }
-                    if (errorMsg != null) {
-                        data.put("error", errorMsg);
-                    }
+                if (status != InferenceService.RequestStatus.ERROR) {
+                    return Mono.just(statusEvent(requestId, data));
                 }
-                return ServerSentEvent.<Map<String, Object>>builder()
-                    .data(data)
-                    .id(requestId)
-                    .event("status_update")
-                    .build();
+                // Fetch error message from the inference request entity
+                return inferenceService.getRequestEntity(requestId)
+                    .mapNotNull(entity -> entity.getError())
+                    .doOnNext(errorMsg -> data.put("error", errorMsg))
+                    .onErrorResume(e -> {
+                        logger.warn("Could not fetch error message for request ID {}: {}", requestId, e.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(Mono.fromSupplier(() -> statusEvent(requestId, data)));
             })
             .doOnComplete(() -> logger.info("SSE stream completed for request ID: {}", requestId))
             .doOnError(error -> logger.error("SSE stream error for request ID: {}", requestId, error));
     }
 
+    private static ServerSentEvent<Map<String, Object>> statusEvent(String requestId, Map<String, Object> data) {
+        return ServerSentEvent.<Map<String, Object>>builder()
+            .data(data)
+            .id(requestId)
+            .event("status_update")
+            .build();
+    }
+
     @GetMapping("/preset/{id}")
     public Mono<ResponseEntity<byte[]>> getPreset(@PathVariable("id") String requestId) {
-        return Mono.fromSupplier(() -> {
-            InferenceService.RequestStatus status = inferenceService.getStatus(requestId);
-            
-            if (status == null) {
+        return inferenceService.getStatus(requestId)
+            .flatMap(status -> {
+                if (status != InferenceService.RequestStatus.DONE) {
+                    logger.warn("Preset request for incomplete inference: {} (status: {})", requestId, status);
+                    return Mono.just(ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .body(("Inference not complete. Status: " + status.name()).getBytes()));
+                }
+                return serveResult(requestId);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
                 logger.warn("Preset request for unknown request ID: {}", requestId);
                 return ResponseEntity.notFound().build();
-            }
-            
-            if (status != InferenceService.RequestStatus.DONE) {
-                logger.warn("Preset request for incomplete inference: {} (status: {})", requestId, status);
-                return ResponseEntity.status(HttpStatus.ACCEPTED)
-                        .body(("Inference not complete. Status: " + status.name()).getBytes());
-            }
-            
-            byte[] presetData = inferenceService.getResult(requestId);
-            if (presetData == null) {
+            }));
+    }
+
+    private Mono<ResponseEntity<byte[]>> serveResult(String requestId) {
+        return inferenceService.getResultAsync(requestId)
+            .map(presetData -> {
+                logger.info("Serving preset file for request ID: {}, size: {} bytes", requestId, presetData.length);
+                
+                // Clean up the result after serving
+                inferenceService.clearResult(requestId);
+                
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header("Content-Disposition", "attachment; filename=\"preset_" + requestId + ".vital\"")
+                        .body(presetData);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
                 logger.warn("No preset data found for request ID: {}", requestId);
                 return ResponseEntity.notFound().build();
-            }
-            
-            logger.info("Serving preset file for request ID: {}, size: {} bytes", requestId, presetData.length);
-            
-            // Clean up the result after serving
-            inferenceService.clearResult(requestId);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header("Content-Disposition", "attachment; filename=\"preset_" + requestId + ".vital\"")
-                    .body(presetData);
-        });
+            }));
     }
 
     @GetMapping("/infer-audio/download/{id}")
     public Mono<ResponseEntity<byte[]>> downloadPreset(@PathVariable("id") String requestId) {
-        return Mono.fromSupplier(() -> {
-            InferenceService.RequestStatus status = inferenceService.getStatus(requestId);
-            
-            if (status == null) {
+        return inferenceService.getStatus(requestId)
+            .flatMap(status -> {
+                if (status != InferenceService.RequestStatus.DONE) {
+                    logger.warn("Preset download request for incomplete inference: {} (status: {})", requestId, status);
+                    return Mono.just(ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .body(("Inference not complete. Status: " + status.name()).getBytes()));
+                }
+                return serveResult(requestId);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
                 logger.warn("Preset download request for unknown request ID: {}", requestId);
                 return ResponseEntity.notFound().build();
-            }
-            
-            if (status != InferenceService.RequestStatus.DONE) {
-                logger.warn("Preset download request for incomplete inference: {} (status: {})", requestId, status);
-                return ResponseEntity.status(HttpStatus.ACCEPTED)
-                        .body(("Inference not complete. Status: " + status.name()).getBytes());
-            }
-            
-            byte[] presetData = inferenceService.getResult(requestId);
-            if (presetData == null) {
-                logger.warn("No preset data found for request ID: {}", requestId);
-                return ResponseEntity.notFound().build();
-            }
-            
-            logger.info("Serving preset file for download request ID: {}, size: {} bytes", requestId, presetData.length);
-            
-            // Clean up the result after serving
-            inferenceService.clearResult(requestId);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header("Content-Disposition", "attachment; filename=\"preset_" + requestId + ".vital\"")
-                    .body(presetData);
-        });
+            }));
     }
 
-
 }
@@ -0,0 +1,101 @@
+package com.neuralsynthmodeler.backend.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import com.neuralsynthmodeler.backend.service.ContentAddressedResultCache;
+import com.neuralsynthmodeler.backend.service.DurableInferenceQueue;
+import com.neuralsynthmodeler.backend.service.InferenceBatcher;
+import com.neuralsynthmodeler.backend.service.InferenceJobQueue;
+import com.neuralsynthmodeler.backend.service.InferenceRecoveryService;
+import com.neuralsynthmodeler.backend.service.InferenceResultService;
+import com.neuralsynthmodeler.backend.service.InferenceStatusWriter;
+import com.neuralsynthmodeler.backend.service.ModelInputConverter;
+import com.neuralsynthmodeler.backend.service.ModelServerClient;
+import com.neuralsynthmodeler.backend.service.PartitionMaintenanceService;
+import com.neuralsynthmodeler.backend.service.RequestStatusStore;
+import com.neuralsynthmodeler.backend.service.RetentionService;
+import com.neuralsynthmodeler.backend.service.StatusStreamService;
+
+/**
+ * Runtime metrics of the inference pipeline, for capacity planning and dashboards.
+ */
+@RestController
+@RequestMapping("/v1")
+public class MetricsController {
+
+    private final InferenceJobQueue inferenceJobQueue;
+    private final InferenceBatcher inferenceBatcher;
+    private final ContentAddressedResultCache contentAddressedResultCache;
+    private final InferenceResultService inferenceResultService;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final InferenceStatusWriter inferenceStatusWriter;
+    private final StatusStreamService statusStreamService;
+    private final RequestStatusStore requestStatusStore;
+    private final ModelServerClient modelServerClient;
+    private final ModelInputConverter modelInputConverter;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final RetentionService retentionService;
+    private final ObjectProvider<DurableInferenceQueue> durableInferenceQueue;
+    private final ObjectProvider<InferenceRecoveryService> inferenceRecoveryService;
+
+    @Autowired
+    public MetricsController(InferenceJobQueue inferenceJobQueue,
+                             InferenceBatcher inferenceBatcher,
+                             ContentAddressedResultCache contentAddressedResultCache,
+                             InferenceResultService inferenceResultService,
+                             ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                             InferenceStatusWriter inferenceStatusWriter,
+                             StatusStreamService statusStreamService,
+                             RequestStatusStore requestStatusStore,
+                             ModelServerClient modelServerClient,
+                             ModelInputConverter modelInputConverter,
+                             PartitionMaintenanceService partitionMaintenanceService,
+                             RetentionService retentionService,
+                             ObjectProvider<DurableInferenceQueue> durableInferenceQueue,
+                             ObjectProvider<InferenceRecoveryService> inferenceRecoveryService) {
+        this.inferenceJobQueue = inferenceJobQueue;
+        this.inferenceBatcher = inferenceBatcher;
+        this.contentAddressedResultCache = contentAddressedResultCache;
+        this.inferenceResultService = inferenceResultService;
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.inferenceStatusWriter = inferenceStatusWriter;
+        this.statusStreamService = statusStreamService;
+        this.requestStatusStore = requestStatusStore;
+        this.modelServerClient = modelServerClient;
+        this.modelInputConverter = modelInputConverter;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.retentionService = retentionService;
+        this.durableInferenceQueue = durableInferenceQueue;
+        this.inferenceRecoveryService = inferenceRecoveryService;
+    }
+
+    @GetMapping("/metrics")
+    public Mono<Map<String, Object>> metrics() {
+        return Mono.fromSupplier(() -> {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("inference_queue", inferenceJobQueue.getStats());
+            metrics.put("model_batching", inferenceBatcher.getStats());
+            metrics.put("result_dedup", contentAddressedResultCache.getStats());
+            metrics.put("result_cache", inferenceResultService.getCacheStats());
+            metrics.put("jdbc", reactiveInferenceRequestRepository.getStats());
+            metrics.put("status_write_behind", inferenceStatusWriter.getStats());
+            metrics.put("status_streams", statusStreamService.getStats());
+            metrics.put("status_store", requestStatusStore.getStats());
+            metrics.put("model_server", modelServerClient.getStats());
+            metrics.put("model_input", modelInputConverter.getStats());
+            metrics.put("partitions", partitionMaintenanceService.getStats());
+            metrics.put("retention", retentionService.getStats());
+            // Only one of them exists, depending on inference.queue.mode
+            durableInferenceQueue.ifAvailable(queue -> metrics.put("durable_queue", queue.getStats()));
+            inferenceRecoveryService.ifAvailable(recovery -> metrics.put("recovery", recovery.getStats()));
+            return metrics;
+        });
+    }
+}
@@ -12,9 +12,13 @@ public class InferenceRequestEntity {
     private String audioRef;
     private int audioSizeGzipped;
     private int audioSizeUncompressed;
+    private Integer audioDurationMs;
+    private Integer audioSampleRate;
+    private Integer audioChannels;
     private String resultRef;
     private String error;
     private String meta;
+    private int attempts;
 
     // Default constructor
     public InferenceRequestEntity() {}
@@ -30,9 +34,13 @@ public class InferenceRequestEntity {
         this.audioRef = builder.audioRef;
         this.audioSizeGzipped = builder.audioSizeGzipped;
         this.audioSizeUncompressed = builder.audioSizeUncompressed;
+        this.audioDurationMs = builder.audioDurationMs;
+        this.audioSampleRate = builder.audioSampleRate;
+        this.audioChannels = builder.audioChannels;
         this.resultRef = builder.resultRef;
         this.error = builder.error;
         this.meta = builder.meta;
+        this.attempts = builder.attempts;
     }
 
     // Getters
@@ -45,9 +53,14 @@ public class InferenceRequestEntity {
     public String getAudioRef() { return audioRef; }
     public int getAudioSizeGzipped() { return audioSizeGzipped; }
     public int getAudioSizeUncompressed() { return audioSizeUncompressed; }
+    /** Duration, sample rate and channels of the uploaded WAV; null for requests from before they were recorded */
+    public Integer getAudioDurationMs() { return audioDurationMs; }
+    public Integer getAudioSampleRate() { return audioSampleRate; }
+    public Integer getAudioChannels() { return audioChannels; }
     public String getResultRef() { return resultRef; }
     public String getError() { return error; }
     public String getMeta() { return meta; }
+    public int getAttempts() { return attempts; }
 
     // Setters
     public void setId(String id) { this.id = id; }
@@ -59,9 +72,13 @@ public class InferenceRequestEntity {
     public void setAudioRef(String audioRef) { this.audioRef = audioRef; }
     public void setAudioSizeGzipped(int audioSizeGzipped) { this.audioSizeGzipped = audioSizeGzipped; }
     public void setAudioSizeUncompressed(int audioSizeUncompressed) { this.audioSizeUncompressed = audioSizeUncompressed; }
+    public void setAudioDurationMs(Integer audioDurationMs) { this.audioDurationMs = audioDurationMs; }
+    public void setAudioSampleRate(Integer audioSampleRate) { this.audioSampleRate = audioSampleRate; }
+    public void setAudioChannels(Integer audioChannels) { this.audioChannels = audioChannels; }
     public void setResultRef(String resultRef) { this.resultRef = resultRef; }
     public void setError(String error) { this.error = error; }
     public void setMeta(String meta) { this.meta = meta; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
 
     // Builder
     public static Builder builder() {
@@ -78,9 +95,13 @@ public class InferenceRequestEntity {
         private String audioRef;
         private int audioSizeGzipped;
         private int audioSizeUncompressed;
+        private Integer audioDurationMs;
+        private Integer audioSampleRate;
+        private Integer audioChannels;
         private String resultRef;
         private String error;
         private String meta;
+    private int attempts;
 
         public Builder id(String id) { this.id = id; return this; }
         public Builder model(String model) { this.model = model; return this; }
@@ -91,9 +112,13 @@ public class InferenceRequestEntity {
         public Builder audioRef(String audioRef) { this.audioRef = audioRef; return this; }
         public Builder audioSizeGzipped(int audioSizeGzipped) { this.audioSizeGzipped = audioSizeGzipped; return this; }
         public Builder audioSizeUncompressed(int audioSizeUncompressed) { this.audioSizeUncompressed = audioSizeUncompressed; return this; }
+        public Builder audioDurationMs(Integer audioDurationMs) { this.audioDurationMs = audioDurationMs; return this; }
+        public Builder audioSampleRate(Integer audioSampleRate) { this.audioSampleRate = audioSampleRate; return this; }
+        public Builder audioChannels(Integer audioChannels) { this.audioChannels = audioChannels; return this; }
         public Builder resultRef(String resultRef) { this.resultRef = resultRef; return this; }
         public Builder error(String error) { this.error = error; return this; }
         public Builder meta(String meta) { this.meta = meta; return this; }
+        public Builder attempts(int attempts) { this.attempts = attempts; return this; }
 
         public InferenceRequestEntity build() {
             return new InferenceRequestEntity(this);
@@ -0,0 +1,41 @@
+package com.neuralsynthmodeler.backend.model;
+
+/**
+ * Optional equality filters for listing inference requests. Null fields match every row.
+ */
+public class InferenceRequestFilter {
+    private final String status;
+    private final String model;
+    private final String synth;
+
+    // Builder constructor
+    private InferenceRequestFilter(Builder builder) {
+        this.status = builder.status;
+        this.model = builder.model;
+        this.synth = builder.synth;
+    }
+
+    // Getters
+    public String getStatus() { return status; }
+    public String getModel() { return model; }
+    public String getSynth() { return synth; }
+
+    // Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String status;
+        private String model;
+        private String synth;
+
+        public Builder status(String status) { this.status = status; return this; }
+        public Builder model(String model) { this.model = model; return this; }
+        public Builder synth(String synth) { this.synth = synth; return this; }
+
+        public InferenceRequestFilter build() {
+            return new InferenceRequestFilter(this);
+        }
+    }
+}
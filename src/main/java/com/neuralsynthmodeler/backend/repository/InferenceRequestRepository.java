@@ -1,20 +1,36 @@
 package com.neuralsynthmodeler.backend.repository;
 
 import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.model.InferenceRequestFilter;
 import com.neuralsynthmodeler.backend.model.SynthType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Repository
+@DependsOn("schemaMigrator")
 public class InferenceRequestRepository {
 
+    // Catch-all partition after the monthly ones, see migration V5
+    public static final String MAX_PARTITION = "p_max";
+    // Partition migration V5 puts every row created before it into, until it is split by month
+    public static final String HISTORY_PARTITION = "p_history";
+
     private final DataSource dataSource;
 
     @Autowired
@@ -25,8 +41,9 @@ public class InferenceRequestRepository {
     public InferenceRequestEntity save(InferenceRequestEntity entity) {
         String sql = """
             INSERT INTO INFERENCE_REQUEST 
-            (id, model, synth, status, created_at, updated_at, audio_ref, audio_size_gzipped, audio_size_uncompressed, result_ref, error, meta)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            (id, model, synth, status, created_at, updated_at, audio_ref, audio_size_gzipped, audio_size_uncompressed,
+             audio_duration_ms, audio_sample_rate, audio_channels, result_ref, error, meta)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             ON DUPLICATE KEY UPDATE
             status = VALUES(status),
             updated_at = VALUES(updated_at),
@@ -48,9 +65,12 @@ public class InferenceRequestRepository {
             stmt.setString(7, entity.getAudioRef());
             stmt.setInt(8, entity.getAudioSizeGzipped());
             stmt.setInt(9, entity.getAudioSizeUncompressed());
-            stmt.setString(10, entity.getResultRef());
-            stmt.setString(11, entity.getError());
-            stmt.setString(12, entity.getMeta());
+            stmt.setObject(10, entity.getAudioDurationMs(), Types.INTEGER);
+            stmt.setObject(11, entity.getAudioSampleRate(), Types.INTEGER);
+            stmt.setObject(12, entity.getAudioChannels(), Types.INTEGER);
+            stmt.setString(13, entity.getResultRef());
+            stmt.setString(14, entity.getError());
+            stmt.setString(15, entity.getMeta());
             
             stmt.executeUpdate();
             return entity;
@@ -77,6 +97,9 @@ public class InferenceRequestRepository {
         }
     }
 
+    /**
+     * Loads every row; use {@link #findPage} or {@link #openCursor} on large tables.
+     */
     public List<InferenceRequestEntity> findAll() {
         String sql = "SELECT * FROM INFERENCE_REQUEST ORDER BY created_at DESC";
         List<InferenceRequestEntity> entities = new ArrayList<>();
@@ -107,6 +130,9 @@ public class InferenceRequestRepository {
         }
     }
     
+    /**
+     * Loads every matching row; use {@link #findPage} or {@link #openCursor} on large tables.
+     */
     public List<InferenceRequestEntity> findByStatus(String status) {
         String sql = "SELECT * FROM INFERENCE_REQUEST WHERE status = ? ORDER BY created_at DESC";
         List<InferenceRequestEntity> entities = new ArrayList<>();
@@ -164,6 +190,313 @@ public class InferenceRequestRepository {
         }
     }
     
+    /**
+     * One page of requests matching {@code filter}, newest first, ordered by (created_at, id). Pass the
+     * created_at and id of the last row of the previous page to get the next one, or nulls for the
+     * first page. Keyset pagination reads only the rows returned, however deep the page.
+     */
+    public List<InferenceRequestEntity> findPage(InferenceRequestFilter filter, Instant afterCreatedAt,
+                                                 String afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM INFERENCE_REQUEST");
+        List<String> conditions = filterConditions(filter, params);
+        if (afterCreatedAt != null && afterId != null) {
+            conditions.add("(created_at < ? OR (created_at = ? AND id < ?))");
+            params.add(Timestamp.from(afterCreatedAt));
+            params.add(Timestamp.from(afterCreatedAt));
+            params.add(afterId);
+        }
+        appendWhere(sql, conditions);
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        params.add(limit);
+        List<InferenceRequestEntity> entities = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            setParams(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                entities.add(mapResultSetToEntity(rs));
+            }
+            return entities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding page of inference requests", e);
+        }
+    }
+
+    /**
+     * Rows of an open streaming query. Holds a pooled connection until closed.
+     */
+    public class EntityCursor implements AutoCloseable {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+
+        private EntityCursor(Connection conn, PreparedStatement stmt, ResultSet rs) {
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+        }
+
+        /**
+         * The next row, or null after the last one.
+         */
+        public InferenceRequestEntity next() {
+            try {
+                return rs.next() ? mapResultSetToEntity(rs) : null;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error reading inference request stream", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try (conn; stmt; rs) {
+                // Closing releases the connection back to the pool
+            } catch (SQLException e) {
+                throw new RuntimeException("Error closing inference request stream", e);
+            }
+        }
+    }
+
+    /**
+     * Stream every request matching {@code filter}, newest first, without loading them all. The driver
+     * reads rows from the server as they are consumed, so memory stays constant; the connection is held
+     * until the cursor is closed.
+     */
+    public EntityCursor openCursor(InferenceRequestFilter filter) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM INFERENCE_REQUEST");
+        appendWhere(sql, filterConditions(filter, params));
+        sql.append(" ORDER BY created_at DESC, id DESC");
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            setParams(stmt, params);
+            return new EntityCursor(conn, stmt, stmt.executeQuery());
+        } catch (SQLException e) {
+            try {
+                if (stmt != null) {
+                    stmt.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw new RuntimeException("Error streaming inference requests", e);
+        }
+    }
+
+    private static List<String> filterConditions(InferenceRequestFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            conditions.add("status = ?");
+            params.add(filter.getStatus());
+        }
+        if (filter.getModel() != null) {
+            conditions.add("model = ?");
+            params.add(filter.getModel());
+        }
+        if (filter.getSynth() != null) {
+            conditions.add("synth = ?");
+            params.add(filter.getSynth());
+        }
+        return conditions;
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    private static void setParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Requests whose {@code (updated_at, id)} comes after {@code (since, afterId)}, in that order, at most
+     * {@code limit} rows. Paging on the key rather than the timestamp alone gets past more than
+     * {@code limit} rows with the same {@code updated_at}.
+     */
+    public List<InferenceRequestEntity> findUpdatedSince(Instant since, String afterId, int limit) {
+        String sql = "SELECT * FROM INFERENCE_REQUEST WHERE (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?";
+        List<InferenceRequestEntity> entities = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.from(since));
+            stmt.setString(2, afterId);
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                entities.add(mapResultSetToEntity(rs));
+            }
+            return entities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding recently updated inference requests", e);
+        }
+    }
+    
+    /**
+     * Requests in one of {@code statuses} not updated since {@code updatedBefore}, least recently
+     * updated first, at most {@code limit} rows.
+     */
+    public List<InferenceRequestEntity> findStale(Collection<String> statuses, Instant updatedBefore, int limit) {
+        if (statuses.isEmpty()) {
+            return List.of();
+        }
+        // An IN list, unlike FIND_IN_SET, can range scan idx_inference_request_status_updated
+        String sql = "SELECT * FROM INFERENCE_REQUEST WHERE status IN (" + placeholders(statuses.size())
+                + ") AND updated_at < ? ORDER BY updated_at LIMIT ?";
+        List<InferenceRequestEntity> entities = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (String status : statuses) {
+                stmt.setString(index++, status);
+            }
+            stmt.setTimestamp(index++, Timestamp.from(updatedBefore));
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                entities.add(mapResultSetToEntity(rs));
+            }
+            return entities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding stale inference requests", e);
+        }
+    }
+
+    /**
+     * Requests created before {@code createdBefore}, oldest first, after the position
+     * ({@code afterCreatedAt}, {@code afterId}) of the previous batch or from the start when null.
+     */
+    public List<InferenceRequestEntity> findCreatedBefore(Instant createdBefore, Instant afterCreatedAt,
+                                                          String afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM INFERENCE_REQUEST WHERE created_at < ?");
+        params.add(Timestamp.from(createdBefore));
+        if (afterCreatedAt != null && afterId != null) {
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            params.add(Timestamp.from(afterCreatedAt));
+            params.add(Timestamp.from(afterCreatedAt));
+            params.add(afterId);
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ?");
+        params.add(limit);
+        List<InferenceRequestEntity> entities = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            setParams(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                entities.add(mapResultSetToEntity(rs));
+            }
+            return entities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding expired inference requests", e);
+        }
+    }
+
+    /**
+     * Those of {@code resultRefs} still referenced by a request created at or after {@code createdSince}.
+     * Results are shared between requests with identical audio.
+     */
+    public Set<String> findResultRefsInUse(Collection<String> resultRefs, Instant createdSince) {
+        Set<String> inUse = new HashSet<>();
+        if (resultRefs.isEmpty()) {
+            return inUse;
+        }
+        String sql = "SELECT DISTINCT result_ref FROM INFERENCE_REQUEST WHERE result_ref IN ("
+                + placeholders(resultRefs.size()) + ") AND created_at >= ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (String resultRef : resultRefs) {
+                stmt.setString(index++, resultRef);
+            }
+            stmt.setTimestamp(index, Timestamp.from(createdSince));
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                inUse.add(rs.getString("result_ref"));
+            }
+            return inUse;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding result references in use", e);
+        }
+    }
+
+    /**
+     * Delete the given requests, returns the number of rows deleted.
+     */
+    public int deleteByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM INFERENCE_REQUEST WHERE id IN (" + placeholders(ids.size()) + ")";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (String id : ids) {
+                stmt.setString(index++, id);
+            }
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deleting inference requests", e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    /**
+     * Count one more attempt for a request and touch updated_at, only if the row is unchanged since it
+     * was read with {@code seenUpdatedAt}. Of several instances racing to recover a request, only one
+     * gets true.
+     */
+    public boolean claimForRecovery(String id, String seenStatus, Instant seenUpdatedAt) {
+        String sql = "UPDATE INFERENCE_REQUEST SET attempts = attempts + 1, updated_at = ? "
+                + "WHERE id = ? AND status = ? AND updated_at = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.from(Instant.now()));
+            stmt.setString(2, id);
+            stmt.setString(3, seenStatus);
+            stmt.setTimestamp(4, Timestamp.from(seenUpdatedAt));
+            
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error claiming inference request for recovery", e);
+        }
+    }
+    
     public int updateStatus(String id, String status) {
         String sql = "UPDATE INFERENCE_REQUEST SET status = ?, updated_at = ? WHERE id = ?";
         
@@ -196,6 +529,339 @@ public class InferenceRequestRepository {
         }
     }
 
+    /**
+     * Compare-and-set status transition: set status, result_ref and error only if the request is
+     * currently in one of {@code fromStatuses}. Returns the number of affected rows, 0 if the request
+     * does not exist or is in another state.
+     */
+    public int transitionStatus(String id, Collection<String> fromStatuses, String toStatus, String resultRef, String error) {
+        String sql = "UPDATE INFERENCE_REQUEST SET status = ?, result_ref = ?, error = ?, updated_at = ? "
+                + "WHERE id = ? AND FIND_IN_SET(status, ?) > 0";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, toStatus);
+            stmt.setString(2, resultRef);
+            stmt.setString(3, error);
+            stmt.setTimestamp(4, Timestamp.from(Instant.now()));
+            stmt.setString(5, id);
+            stmt.setString(6, String.join(",", fromStatuses));
+            
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error transitioning inference request status", e);
+        }
+    }
+
+    /**
+     * Batched {@link #transitionStatus}: each entity carries the target status, result_ref, error and
+     * updated_at, and {@code fromStatuses} gives the states it may be applied to. Returns the affected
+     * row count per entity, in order.
+     */
+    public int[] batchTransitionStatus(List<InferenceRequestEntity> entities,
+                                       Function<String, Collection<String>> fromStatuses) {
+        // FIND_IN_SET keeps one statement text for every target status, which JDBC batching needs
+        String sql = "UPDATE INFERENCE_REQUEST SET status = ?, result_ref = ?, error = ?, updated_at = ? "
+                + "WHERE id = ? AND FIND_IN_SET(status, ?) > 0";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            for (InferenceRequestEntity entity : entities) {
+                stmt.setString(1, entity.getStatus());
+                stmt.setString(2, entity.getResultRef());
+                stmt.setString(3, entity.getError());
+                stmt.setTimestamp(4, Timestamp.from(entity.getUpdatedAt()));
+                stmt.setString(5, entity.getId());
+                stmt.setString(6, String.join(",", fromStatuses.apply(entity.getStatus())));
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error batch transitioning inference request status", e);
+        }
+    }
+
+    /**
+     * Claim up to {@code limit} unfinished requests for {@code owner}, oldest first: PENDING or PROCESSING
+     * rows without a lease or whose lease expired, and with fewer than {@code maxAttempts} attempts.
+     * Claimed rows get a lease of {@code leaseSeconds} and one more attempt. Rows locked by another
+     * claimer are skipped, so concurrent claimers never get the same row. Lease times use the database
+     * clock so replicas with skewed clocks agree on expiry.
+     */
+    public List<InferenceRequestEntity> claimPending(String owner, int leaseSeconds, int limit, int maxAttempts) {
+        String select = """
+            SELECT * FROM INFERENCE_REQUEST
+            WHERE status IN ('PENDING', 'PROCESSING')
+            AND (lease_expires_at IS NULL OR lease_expires_at < NOW(3))
+            AND attempts < ?
+            ORDER BY created_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+        String claim = "UPDATE INFERENCE_REQUEST SET lease_owner = ?, "
+                + "lease_expires_at = NOW(3) + INTERVAL ? SECOND, attempts = attempts + 1 WHERE id = ?";
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(select);
+                 PreparedStatement claimStmt = conn.prepareStatement(claim)) {
+
+                selectStmt.setInt(1, maxAttempts);
+                selectStmt.setInt(2, limit);
+                List<InferenceRequestEntity> entities = new ArrayList<>();
+                ResultSet rs = selectStmt.executeQuery();
+                while (rs.next()) {
+                    entities.add(mapResultSetToEntity(rs));
+                }
+                for (InferenceRequestEntity entity : entities) {
+                    claimStmt.setString(1, owner);
+                    claimStmt.setInt(2, leaseSeconds);
+                    claimStmt.setString(3, entity.getId());
+                    claimStmt.addBatch();
+                }
+                if (!entities.isEmpty()) {
+                    claimStmt.executeBatch();
+                }
+                conn.commit();
+                return entities;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error claiming pending inference requests", e);
+        }
+    }
+
+    /**
+     * Extend the leases {@code owner} holds on the given requests. Returns the number of leases still held.
+     */
+    public int renewLeases(String owner, Collection<String> ids, int leaseSeconds) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // id IN (...) keeps this a primary key lookup; lease_owner has no index
+        String sql = "UPDATE INFERENCE_REQUEST SET lease_expires_at = NOW(3) + INTERVAL ? SECOND "
+                + "WHERE id IN (" + placeholders(ids.size()) + ") AND lease_owner = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, leaseSeconds);
+            for (String id : ids) {
+                stmt.setString(index++, id);
+            }
+            stmt.setString(index, owner);
+
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error renewing inference request leases", e);
+        }
+    }
+
+    /**
+     * Give up the leases {@code owner} holds on the given requests without counting the attempt, so
+     * another claimer can take them right away.
+     */
+    public int releaseLeases(String owner, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE INFERENCE_REQUEST SET lease_owner = NULL, lease_expires_at = NULL, "
+                + "attempts = GREATEST(attempts - 1, 0) WHERE id IN (" + placeholders(ids.size()) + ") AND lease_owner = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (String id : ids) {
+                stmt.setString(index++, id);
+            }
+            stmt.setString(index, owner);
+
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error releasing inference request leases", e);
+        }
+    }
+
+    /**
+     * Move unfinished requests whose last lease expired after {@code maxAttempts} attempts to ERROR.
+     * Returns the ids of the failed requests, at most {@code limit}.
+     */
+    public List<String> failExhausted(int maxAttempts, String error, int limit) {
+        String select = """
+            SELECT id FROM INFERENCE_REQUEST
+            WHERE status IN ('PENDING', 'PROCESSING')
+            AND lease_expires_at < NOW(3)
+            AND attempts >= ?
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+        String fail = "UPDATE INFERENCE_REQUEST SET status = 'ERROR', error = ?, updated_at = ?, "
+                + "lease_owner = NULL, lease_expires_at = NULL WHERE id = ?";
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(select);
+                 PreparedStatement failStmt = conn.prepareStatement(fail)) {
+
+                selectStmt.setInt(1, maxAttempts);
+                selectStmt.setInt(2, limit);
+                List<String> ids = new ArrayList<>();
+                ResultSet rs = selectStmt.executeQuery();
+                while (rs.next()) {
+                    ids.add(rs.getString("id"));
+                }
+                Timestamp now = Timestamp.from(Instant.now());
+                for (String id : ids) {
+                    failStmt.setString(1, error);
+                    failStmt.setTimestamp(2, now);
+                    failStmt.setString(3, id);
+                    failStmt.addBatch();
+                }
+                if (!ids.isEmpty()) {
+                    failStmt.executeBatch();
+                }
+                conn.commit();
+                return ids;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error failing exhausted inference requests", e);
+        }
+    }
+
+    /**
+     * Partitions of INFERENCE_REQUEST in order, each with the day its range ends before, or null for
+     * {@link #MAX_PARTITION}. Empty when the table is not partitioned.
+     */
+    public Map<String, LocalDate> findPartitions() {
+        String sql = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'INFERENCE_REQUEST' AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION";
+        Map<String, LocalDate> partitions = new LinkedHashMap<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                // RANGE COLUMNS bounds read like '2026-11-01 00:00:00', or MAXVALUE
+                String bound = rs.getString("PARTITION_DESCRIPTION").replace("'", "");
+                partitions.put(rs.getString("PARTITION_NAME"),
+                    "MAXVALUE".equals(bound) ? null : LocalDate.parse(bound.substring(0, 10)));
+            }
+            return partitions;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding inference request partitions", e);
+        }
+    }
+
+    /**
+     * Split new partitions, each ending before the given day, off the front of {@link #MAX_PARTITION}.
+     * Only rows already in {@link #MAX_PARTITION} are moved, so this is cheap while it is empty.
+     */
+    public void addPartitions(Map<String, LocalDate> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE INFERENCE_REQUEST REORGANIZE PARTITION ")
+                .append(MAX_PARTITION).append(" INTO (");
+        partitions.forEach((name, before) -> sql.append("PARTITION ").append(checkPartitionName(name))
+                .append(" VALUES LESS THAN ('").append(before).append("'), "));
+        sql.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            
+            stmt.execute(sql.toString());
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding inference request partitions", e);
+        }
+    }
+
+    /**
+     * Split partition {@code name} into the given partitions, each ending before the given day; the last
+     * must end where {@code name} does. Every row of {@code name} is copied, so this takes as long as
+     * rebuilding it.
+     */
+    public void splitPartition(String name, Map<String, LocalDate> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE INFERENCE_REQUEST REORGANIZE PARTITION ")
+                .append(checkPartitionName(name)).append(" INTO (");
+        partitions.forEach((part, before) -> sql.append("PARTITION ").append(checkPartitionName(part))
+                .append(" VALUES LESS THAN ('").append(before).append("'), "));
+        sql.setLength(sql.length() - 2);
+        sql.append(")");
+        
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            
+            stmt.execute(sql.toString());
+        } catch (SQLException e) {
+            throw new RuntimeException("Error splitting inference request partition " + name, e);
+        }
+    }
+
+    /**
+     * Day of the oldest request in partition {@code name}, or null when it is empty.
+     */
+    public LocalDate findOldestCreatedDay(String name) {
+        // idx_inference_request_created makes this an index lookup
+        String sql = "SELECT MIN(created_at) FROM INFERENCE_REQUEST PARTITION (" + checkPartitionName(name) + ")";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+            return oldest != null ? oldest.toLocalDateTime().toLocalDate() : null;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding oldest request in partition " + name, e);
+        }
+    }
+
+    /**
+     * Drop whole partitions with every row in them, far cheaper than deleting the rows.
+     */
+    public void dropPartitions(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        List<String> checked = names.stream().map(InferenceRequestRepository::checkPartitionName).toList();
+        String sql = "ALTER TABLE INFERENCE_REQUEST DROP PARTITION " + String.join(", ", checked);
+        
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error dropping inference request partitions", e);
+        }
+    }
+
+    private static String checkPartitionName(String name) {
+        // Partition names cannot be bound as parameters
+        if (!name.matches("p_\\w+") || MAX_PARTITION.equals(name)) {
+            throw new IllegalArgumentException("Invalid partition name: " + name);
+        }
+        return name;
+    }
+
     private InferenceRequestEntity mapResultSetToEntity(ResultSet rs) throws SQLException {
         return InferenceRequestEntity.builder()
                 .id(rs.getString("id"))
@@ -207,9 +873,13 @@ public class InferenceRequestRepository {
                 .audioRef(rs.getString("audio_ref"))
                 .audioSizeGzipped(rs.getInt("audio_size_gzipped"))
                 .audioSizeUncompressed(rs.getInt("audio_size_uncompressed"))
+                .audioDurationMs(rs.getObject("audio_duration_ms", Integer.class))
+                .audioSampleRate(rs.getObject("audio_sample_rate", Integer.class))
+                .audioChannels(rs.getObject("audio_channels", Integer.class))
                 .resultRef(rs.getString("result_ref"))
                 .error(rs.getString("error"))
                 .meta(rs.getString("meta"))
+                .attempts(rs.getInt("attempts"))
                 .build();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.neuralsynthmodeler.backend.repository;
+
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.model.InferenceRequestFilter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking view of {@link InferenceRequestRepository}.
+ *
+ * JDBC calls run on a dedicated scheduler with as many threads as the connection pool has
+ * connections ({@code mysql.pool.max-size}), so a slow MySQL queues work here instead of
+ * stalling event-loop threads, and callers never wait on a pool checkout while holding a thread.
+ */
+@Repository
+public class ReactiveInferenceRequestRepository {
+
+    private final InferenceRequestRepository repository;
+    private final Scheduler jdbcScheduler;
+    private final int maxConcurrency;
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Autowired
+    public ReactiveInferenceRequestRepository(InferenceRequestRepository repository,
+                                              @Value("${mysql.pool.max-size:10}") int poolSize,
+                                              @Value("${mysql.scheduler.max-queued:10000}") int maxQueued) {
+        this.repository = repository;
+        this.maxConcurrency = poolSize;
+        this.jdbcScheduler = Schedulers.newBoundedElastic(poolSize, maxQueued, "jdbc");
+    }
+
+    public Mono<InferenceRequestEntity> save(InferenceRequestEntity entity) {
+        return call(() -> repository.save(entity));
+    }
+
+    /**
+     * Completes empty if there is no request with this id.
+     */
+    public Mono<InferenceRequestEntity> findById(String id) {
+        return call(() -> repository.findById(id).orElse(null));
+    }
+
+    /**
+     * Every request, newest first, streamed without loading them all.
+     */
+    public Flux<InferenceRequestEntity> findAll() {
+        return stream(InferenceRequestFilter.builder().build());
+    }
+
+    /**
+     * Every request in a status, newest first, streamed without loading them all.
+     */
+    public Flux<InferenceRequestEntity> findByStatus(String status) {
+        return stream(InferenceRequestFilter.builder().status(status).build());
+    }
+
+    /**
+     * One keyset page, see {@link InferenceRequestRepository#findPage}.
+     */
+    public Mono<List<InferenceRequestEntity>> findPage(InferenceRequestFilter filter, Instant afterCreatedAt,
+                                                       String afterId, int limit) {
+        return call(() -> repository.findPage(filter, afterCreatedAt, afterId, limit));
+    }
+
+    /**
+     * Stream matching requests, newest first. Rows are read from MySQL only as fast as the subscriber
+     * requests them, always on the JDBC scheduler, and the connection is released when the stream
+     * completes, fails or is cancelled.
+     */
+    public Flux<InferenceRequestEntity> stream(InferenceRequestFilter filter) {
+        return Flux.using(
+                () -> {
+                    active.incrementAndGet();
+                    try {
+                        return repository.openCursor(filter);
+                    } catch (RuntimeException e) {
+                        active.decrementAndGet();
+                        throw e;
+                    }
+                },
+                cursor -> Flux.<InferenceRequestEntity>generate(sink -> {
+                    InferenceRequestEntity entity = cursor.next();
+                    if (entity != null) {
+                        sink.next(entity);
+                    } else {
+                        sink.complete();
+                    }
+                }),
+                cursor -> {
+                    active.decrementAndGet();
+                    cursor.close();
+                })
+            .subscribeOn(jdbcScheduler);
+    }
+
+    public Flux<InferenceRequestEntity> findUpdatedSince(Instant since, String afterId, int limit) {
+        return call(() -> repository.findUpdatedSince(since, afterId, limit)).flatMapIterable(entities -> entities);
+    }
+
+    public Flux<InferenceRequestEntity> findStale(Collection<String> statuses, Instant updatedBefore, int limit) {
+        return call(() -> repository.findStale(statuses, updatedBefore, limit)).flatMapIterable(entities -> entities);
+    }
+
+    public Mono<List<InferenceRequestEntity>> findCreatedBefore(Instant createdBefore, Instant afterCreatedAt,
+                                                                String afterId, int limit) {
+        return call(() -> repository.findCreatedBefore(createdBefore, afterCreatedAt, afterId, limit));
+    }
+
+    public Mono<Set<String>> findResultRefsInUse(Collection<String> resultRefs, Instant createdSince) {
+        return call(() -> repository.findResultRefsInUse(resultRefs, createdSince));
+    }
+
+    public Mono<Integer> deleteByIds(Collection<String> ids) {
+        return call(() -> repository.deleteByIds(ids));
+    }
+
+    public Mono<Boolean> claimForRecovery(String id, String seenStatus, Instant seenUpdatedAt) {
+        return call(() -> repository.claimForRecovery(id, seenStatus, seenUpdatedAt));
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return call(() -> {
+            repository.deleteById(id);
+            return null;
+        }).then();
+    }
+
+    public Mono<Integer> updateStatus(String id, String status) {
+        return call(() -> repository.updateStatus(id, status));
+    }
+
+    public Mono<Integer> updateResultRef(String id, String resultRef) {
+        return call(() -> repository.updateResultRef(id, resultRef));
+    }
+
+    /**
+     * Compare-and-set status transition, emits the number of affected rows.
+     */
+    public Mono<Integer> transitionStatus(String id, Collection<String> fromStatuses, String toStatus,
+                                          String resultRef, String error) {
+        return call(() -> repository.transitionStatus(id, fromStatuses, toStatus, resultRef, error));
+    }
+
+    /**
+     * Scheduler for other blocking JDBC work, such as connection checks.
+     */
+    public Scheduler scheduler() {
+        return jdbcScheduler;
+    }
+
+    /**
+     * Configured concurrency and the number of JDBC calls currently running.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("max_concurrency", maxConcurrency);
+        stats.put("active", active.get());
+        return stats;
+    }
+
+    private <T> Mono<T> call(Callable<T> jdbcCall) {
+        return Mono.fromCallable(() -> {
+            active.incrementAndGet();
+            try {
+                return jdbcCall.call();
+            } finally {
+                active.decrementAndGet();
+            }
+        }).subscribeOn(jdbcScheduler);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jdbcScheduler.dispose();
+    }
+}
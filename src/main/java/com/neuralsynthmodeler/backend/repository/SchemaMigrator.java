@@ -0,0 +1,262 @@
+package com.neuralsynthmodeler.backend.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import javax.sql.DataSource;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Brings the MySQL schema up to date at startup from the scripts in {@code db/mysql/migration}.
+ *
+ * Scripts are named {@code V<version>__<description>.sql} and applied in version order, each once; applied
+ * versions are recorded in {@code schema_version}. Instances starting together serialize on a named lock,
+ * so only one applies a script. Statements end with a semicolon at the end of a line.
+ *
+ * Databases created before the migrations existed have no {@code schema_version} and get every script.
+ * Scripts are therefore written to be re-runnable over such a schema: errors meaning the change is already
+ * there (table, column or index exists, column or index to drop is gone) are logged and skipped.
+ *
+ * Other instances wait up to {@code db.migration.lock-timeout-seconds} for the lock and then fail startup. The
+ * default of 15 minutes covers V5, which rebuilds INFERENCE_REQUEST to partition it; raise it further for
+ * a table with tens of millions of rows, or migrate with a single instance running.
+ *
+ * Runs before {@link InferenceRequestRepository} is created. Disable with {@code db.migration.enabled=false}
+ * when the schema is managed out of band.
+ */
+@Component
+public class SchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    static final String LOCATION = "classpath:db/mysql/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "neural_synth_schema_migration";
+
+    // Table exists, duplicate column, duplicate key name, can't drop column or key that does not exist
+    static final Set<Integer> ALREADY_APPLIED = Set.of(1050, 1060, 1061, 1091);
+
+    private static final String CREATE_VERSION_TABLE = """
+        CREATE TABLE IF NOT EXISTS schema_version (
+            version INT PRIMARY KEY,
+            description VARCHAR(200) NOT NULL,
+            checksum BIGINT NOT NULL,
+            installed_at DATETIME(3) NOT NULL,
+            execution_ms INT NOT NULL
+        )
+        """;
+
+    static class Migration {
+        final int version;
+        final String description;
+        final String script;
+        final long checksum;
+
+        Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int lockTimeoutSeconds;
+
+    @Autowired
+    public SchemaMigrator(DataSource dataSource,
+                          @Value("${db.migration.enabled:true}") boolean enabled,
+                          @Value("${db.migration.lock-timeout-seconds:900}") int lockTimeoutSeconds) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.lockTimeoutSeconds = lockTimeoutSeconds;
+    }
+
+    @PostConstruct
+    public void migrateOnStartup() {
+        if (!enabled) {
+            logger.info("Schema migration disabled");
+            return;
+        }
+        migrate(loadMigrations());
+    }
+
+    /**
+     * Apply every migration not yet recorded in schema_version. Fails on the first statement that fails
+     * for another reason than the change already being there; the versions before it stay recorded.
+     */
+    void migrate(List<Migration> migrations) {
+        try (Connection conn = dataSource.getConnection()) {
+            acquireLock(conn);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_VERSION_TABLE);
+                }
+                Map<Integer, Long> applied = findApplied(conn);
+                int count = 0;
+                for (Migration migration : migrations) {
+                    Long checksum = applied.get(migration.version);
+                    if (checksum != null) {
+                        if (checksum != migration.checksum) {
+                            logger.warn("Migration V{} was changed after it was applied, the change is not applied",
+                                migration.version);
+                        }
+                        continue;
+                    }
+                    apply(conn, migration);
+                    count++;
+                }
+                logger.info("Schema is at version {}, applied {} migrations",
+                    migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version, count);
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error migrating database schema", e);
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        logger.info("Applying migration V{}: {}", migration.version, migration.description);
+        long start = System.nanoTime();
+        for (String sql : parseStatements(migration.script)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            } catch (SQLException e) {
+                if (!ALREADY_APPLIED.contains(e.getErrorCode())) {
+                    throw new SQLException("Migration V" + migration.version + " failed at: " + sql, e.getSQLState(),
+                        e.getErrorCode(), e);
+                }
+                logger.info("Skipping statement of V{} already applied: {}", migration.version, e.getMessage());
+            }
+        }
+        String sql = "INSERT INTO schema_version (version, description, checksum, installed_at, execution_ms) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setLong(3, migration.checksum);
+            stmt.setTimestamp(4, Timestamp.from(Instant.now()));
+            stmt.setInt(5, (int) ((System.nanoTime() - start) / 1_000_000));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Map<Integer, Long> findApplied(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT version, checksum FROM schema_version");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, lockTimeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out after " + lockTimeoutSeconds
+                        + " s waiting for another instance to finish migrating");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            // Released anyway when the connection closes
+            logger.warn("Failed to release schema migration lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The migration scripts on the classpath, in version order.
+     */
+    static List<Migration> loadMigrations() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource resource : resources) {
+                Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Invalid migration file name: " + resource.getFilename());
+                }
+                try (InputStream in = resource.getInputStream()) {
+                    migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+                }
+            }
+            migrations.sort(Comparator.comparingInt(migration -> migration.version));
+            for (int i = 1; i < migrations.size(); i++) {
+                if (migrations.get(i).version == migrations.get(i - 1).version) {
+                    throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version);
+                }
+            }
+            return migrations;
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading schema migrations", e);
+        }
+    }
+
+    /**
+     * Split a script into statements at semicolons ending a line, dropping {@code --} comment lines and
+     * trailing comments.
+     */
+    static List<String> parseStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            int comment = trimmed.indexOf(" --");
+            if (comment >= 0) {
+                trimmed = trimmed.substring(0, comment).strip();
+            }
+            current.append(current.length() > 0 ? "\n" : "").append(trimmed);
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+}
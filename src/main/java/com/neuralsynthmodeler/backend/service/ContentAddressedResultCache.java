@@ -0,0 +1,129 @@
+package com.neuralsynthmodeler.backend.service;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import reactor.core.publisher.Mono;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed index of inference results.
+ *
+ * Results are keyed by the SHA-256 of the model name, model version and the decompressed audio,
+ * so retries, re-uploads and shared samples reuse the preset of an earlier identical request
+ * instead of calling the model again. The index lives in the MongoDB {@code result_index}
+ * collection and survives restarts. Bumping {@code model.version} invalidates all entries.
+ */
+@Service
+public class ContentAddressedResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedResultCache.class);
+
+    private final MongoCollection<Document> indexCollection;
+    private final boolean enabled;
+    private final String modelVersion;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public ContentAddressedResultCache(MongoDatabase reactiveMongoDatabase,
+                                       @Value("${inference.dedup.enabled:true}") boolean enabled,
+                                       @Value("${model.version:1}") String modelVersion) {
+        this.indexCollection = reactiveMongoDatabase.getCollection("result_index");
+        this.enabled = enabled;
+        this.modelVersion = modelVersion;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Compute the content key for a decompressed audio file and model.
+     */
+    public String contentKey(String model, byte[] audioData) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.toLowerCase().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(modelVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(audioData);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up the preset reference stored for a content key. A failed lookup counts as a miss.
+     */
+    public Mono<Optional<String>> lookup(String contentKey) {
+        if (!enabled) {
+            return Mono.just(Optional.empty());
+        }
+        return Mono.defer(() -> Mono.from(indexCollection.find(Filters.eq("_id", contentKey)).first()))
+                .map(entry -> Optional.ofNullable(entry.getString("preset_ref")))
+                .onErrorResume(e -> {
+                    logger.warn("Result index lookup failed for key {}: {}", contentKey, e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Optional.empty())
+                .doOnNext(presetRef -> (presetRef.isPresent() ? hits : misses).increment());
+    }
+
+    /**
+     * Record the preset produced for a content key. Failures are logged, not propagated.
+     */
+    public Mono<Void> record(String contentKey, String model, String presetRef) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            Document entry = new Document()
+                    .append("_id", contentKey)
+                    .append("preset_ref", presetRef)
+                    .append("model", model.toLowerCase())
+                    .append("model_version", modelVersion)
+                    .append("created_at", System.currentTimeMillis());
+            return Mono.from(indexCollection.replaceOne(Filters.eq("_id", contentKey), entry,
+                    new ReplaceOptions().upsert(true)));
+        })
+                .doOnNext(result -> logger.debug("Recorded result index entry {} -> {}", contentKey, presetRef))
+                .onErrorResume(e -> {
+                    logger.warn("Failed to record result index entry {}: {}", contentKey, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Hit and miss counters.
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("model_version", modelVersion);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hit_ratio", hitCount + missCount > 0 ? hitCount / (double) (hitCount + missCount) : 0.0);
+        return stats;
+    }
+}
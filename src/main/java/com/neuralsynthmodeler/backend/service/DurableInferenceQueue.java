@@ -0,0 +1,214 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Work queue kept in INFERENCE_REQUEST itself, shared by every backend instance on the same MySQL.
+ *
+ * Every {@code inference.queue.mysql.poll-interval-ms} this instance claims as many unfinished requests as
+ * it has idle workers in the {@link InferenceJobQueue}, at most {@code inference.queue.mysql.claim-batch},
+ * using {@code SELECT ... FOR UPDATE SKIP LOCKED} so instances never claim the same row. A claim is a
+ * lease of {@code inference.queue.mysql.lease-seconds}, renewed while the job runs; if the instance dies
+ * the lease expires and another instance reclaims the request. Requests claimed
+ * {@code inference.queue.mysql.max-attempts} times without finishing are moved to ERROR. Nothing is
+ * claimed while the model server circuit is open.
+ *
+ * A reclaimed request may already be PROCESSING; the compare-and-set status writes keep a late first
+ * worker and the reclaiming one from moving it backwards or out of a final state.
+ */
+@Service
+@ConditionalOnProperty(name = "inference.queue.mode", havingValue = "mysql")
+public class DurableInferenceQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableInferenceQueue.class);
+
+    private final InferenceRequestRepository inferenceRequestRepository;
+    private final InferenceJobQueue inferenceJobQueue;
+    private final InferenceService inferenceService;
+    private final StatusStreamService statusStreamService;
+    private final ModelServerClient modelServerClient;
+    private final String owner;
+    private final int leaseSeconds;
+    private final int claimBatch;
+    private final int maxAttempts;
+    private final long renewEveryPolls;
+    // Requests this instance holds a lease on
+    private final Set<String> leased = ConcurrentHashMap.newKeySet();
+    private final Object pollLock = new Object();
+    private final Disposable poller;
+    private long polls;
+
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder reclaimed = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder lostLeases = new LongAdder();
+    private final LongAdder failedPolls = new LongAdder();
+
+    @Autowired
+    public DurableInferenceQueue(InferenceRequestRepository inferenceRequestRepository,
+                                 ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                                 InferenceJobQueue inferenceJobQueue,
+                                 InferenceService inferenceService,
+                                 StatusStreamService statusStreamService,
+                                 ModelServerClient modelServerClient,
+                                 @Value("${inference.queue.mysql.instance-id:}") String instanceId,
+                                 @Value("${inference.queue.mysql.poll-interval-ms:200}") long pollIntervalMillis,
+                                 @Value("${inference.queue.mysql.lease-seconds:120}") int leaseSeconds,
+                                 @Value("${inference.queue.mysql.claim-batch:8}") int claimBatch,
+                                 @Value("${inference.queue.mysql.max-attempts:3}") int maxAttempts) {
+        this.inferenceRequestRepository = inferenceRequestRepository;
+        this.inferenceJobQueue = inferenceJobQueue;
+        this.inferenceService = inferenceService;
+        this.statusStreamService = statusStreamService;
+        this.modelServerClient = modelServerClient;
+        this.owner = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.leaseSeconds = leaseSeconds;
+        this.claimBatch = claimBatch;
+        this.maxAttempts = maxAttempts;
+        // Renew about three times per lease so one slow poll does not lose it
+        this.renewEveryPolls = Math.max(1, leaseSeconds * 1000L / 3 / Math.max(1, pollIntervalMillis));
+        // Polls do blocking JDBC calls, so run them on the JDBC scheduler and call the repository directly
+        this.poller = pollIntervalMillis > 0
+            ? Flux.interval(Duration.ofMillis(pollIntervalMillis), reactiveInferenceRequestRepository.scheduler())
+                .onBackpressureDrop()
+                .subscribe(tick -> poll())
+            : null;
+        logger.info("MySQL inference queue started as {}, poll interval: {} ms, lease: {} s, max attempts: {}",
+            owner, pollIntervalMillis, leaseSeconds, maxAttempts);
+    }
+
+    /**
+     * One poll: renew held leases when due, fail exhausted requests, then claim work for idle workers.
+     */
+    void poll() {
+        synchronized (pollLock) {
+            try {
+                if (++polls % renewEveryPolls == 0) {
+                    renewLeases();
+                    failExhausted();
+                }
+                claim();
+            } catch (RuntimeException e) {
+                failedPolls.increment();
+                logger.warn("MySQL inference queue poll failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void claim() {
+        if (modelServerClient.isCircuitOpen()) {
+            // Leave the work in the table until the model server recovers
+            return;
+        }
+        int free = Math.min(inferenceJobQueue.freeSlots(), claimBatch);
+        if (free <= 0) {
+            return;
+        }
+        List<InferenceRequestEntity> entities = inferenceRequestRepository.claimPending(owner, leaseSeconds, free, maxAttempts);
+        for (InferenceRequestEntity entity : entities) {
+            String requestId = entity.getId();
+            claimed.increment();
+            if (!"PENDING".equals(entity.getStatus())) {
+                reclaimed.increment();
+                logger.info("Reclaimed request ID: {} in status {} after its lease expired", requestId, entity.getStatus());
+            }
+            leased.add(requestId);
+            try {
+                inferenceJobQueue.submit(requestId, () -> inferenceService.resumeInference(entity)
+                    .doFinally(signal -> leased.remove(requestId)));
+            } catch (InferenceRejectedException e) {
+                // Shutting down or raced with another submitter; let another instance take it
+                leased.remove(requestId);
+                inferenceRequestRepository.releaseLeases(owner, List.of(requestId));
+            }
+        }
+    }
+
+    private void renewLeases() {
+        List<String> ids = new ArrayList<>(leased);
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed = inferenceRequestRepository.renewLeases(owner, ids, leaseSeconds);
+        if (renewed < ids.size()) {
+            // Finished since the snapshot, or the lease expired and another instance took over
+            lostLeases.add(ids.size() - renewed);
+            logger.debug("Renewed {} of {} inference request leases", renewed, ids.size());
+        }
+    }
+
+    private void failExhausted() {
+        List<String> failed = inferenceRequestRepository.failExhausted(maxAttempts,
+            "Inference did not complete after " + maxAttempts + " attempts", claimBatch);
+        for (String requestId : failed) {
+            exhausted.increment();
+            logger.warn("Request ID: {} failed after {} attempts", requestId, maxAttempts);
+            statusStreamService.updateStatus(requestId, InferenceService.RequestStatus.ERROR);
+        }
+    }
+
+    /**
+     * Claim, reclaim and lease counters plus the number of leases held by this instance.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("owner", owner);
+        stats.put("leased", leased.size());
+        stats.put("claimed", claimed.sum());
+        stats.put("reclaimed", reclaimed.sum());
+        stats.put("exhausted", exhausted.sum());
+        stats.put("lost_leases", lostLeases.sum());
+        stats.put("failed_polls", failedPolls.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (poller != null) {
+            poller.dispose();
+        }
+        List<String> ids = new ArrayList<>(leased);
+        if (ids.isEmpty()) {
+            return;
+        }
+        // Jobs still running are interrupted with the dispatch scheduler; hand them over right away
+        try {
+            int released = inferenceRequestRepository.releaseLeases(owner, ids);
+            logger.info("Released {} inference request leases on shutdown", released);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release inference request leases on shutdown, they expire in {} s", leaseSeconds, e);
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
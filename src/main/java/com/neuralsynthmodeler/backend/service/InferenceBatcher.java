@@ -0,0 +1,169 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Micro-batching stage in front of the model server.
+ *
+ * Pending predictions are collected until {@code model.batch.max-size} are waiting or
+ * {@code model.batch.linger-ms} has passed since the first one, whichever comes first, and are then
+ * sent as one call to the batch endpoint. Each caller gets its own result back, so status updates
+ * and preset storage stay per request. Each job queue worker waits on one prediction at a time, so
+ * the batch size is capped at {@code inference.queue.workers}; larger batches could never fill up.
+ *
+ * Disabled by default ({@code model.batch.enabled}); when disabled every prediction is sent on its own.
+ */
+@Service
+public class InferenceBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceBatcher.class);
+
+    private static class PendingPrediction {
+        private final String requestId;
+        private final String model;
+        private final byte[] wavData;
+        private final Sinks.One<byte[]> result = Sinks.one();
+
+        PendingPrediction(String requestId, String model, byte[] wavData) {
+            this.requestId = requestId;
+            this.model = model.toLowerCase();
+            this.wavData = wavData;
+        }
+    }
+
+    private final ModelServerClient modelServerClient;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration linger;
+    private final Sinks.Many<PendingPrediction> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable batchLoop;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRequests = new LongAdder();
+    private final LongAdder fullBatches = new LongAdder();
+
+    @Autowired
+    public InferenceBatcher(ModelServerClient modelServerClient,
+                            @Value("${model.batch.enabled:false}") boolean enabled,
+                            @Value("${model.batch.max-size:4}") int maxBatchSize,
+                            @Value("${model.batch.linger-ms:20}") long lingerMillis,
+                            @Value("${model.batch.max-concurrent:2}") int maxConcurrentBatches,
+                            @Value("${inference.queue.workers:4}") int queueWorkers) {
+        this.modelServerClient = modelServerClient;
+        this.enabled = enabled;
+        if (enabled && maxBatchSize > queueWorkers) {
+            logger.warn("Model batch size {} exceeds the {} job queue workers, capping it", maxBatchSize, queueWorkers);
+        }
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, queueWorkers));
+        this.linger = Duration.ofMillis(lingerMillis);
+        this.batchLoop = enabled
+            ? pending.asFlux()
+                .groupBy(prediction -> prediction.model)
+                .flatMap(byModel -> byModel.bufferTimeout(this.maxBatchSize, linger))
+                .flatMap(batch -> dispatch(batch).onErrorResume(e -> Mono.empty()), maxConcurrentBatches)
+                .subscribe()
+            : null;
+        if (enabled) {
+            logger.info("Model micro-batching enabled with max size: {}, linger: {} ms", this.maxBatchSize, lingerMillis);
+        }
+    }
+
+    /**
+     * Predict a preset for one WAV file, possibly as part of a larger batch.
+     */
+    public Mono<byte[]> predict(String requestId, String model, byte[] wavData) {
+        if (!enabled) {
+            return modelServerClient.predict(requestId, model, wavData);
+        }
+        return Mono.defer(() -> {
+            PendingPrediction prediction = new PendingPrediction(requestId, model, wavData);
+            pending.emitNext(prediction, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+            return prediction.result.asMono();
+        });
+    }
+
+    private Mono<Void> dispatch(List<PendingPrediction> batch) {
+        batches.increment();
+        batchedRequests.add(batch.size());
+        if (batch.size() == maxBatchSize) {
+            fullBatches.increment();
+        }
+
+        if (batch.size() == 1) {
+            PendingPrediction single = batch.get(0);
+            return modelServerClient.predict(single.requestId, single.model, single.wavData)
+                .doOnSuccess(result -> {
+                    if (result != null) {
+                        single.result.tryEmitValue(result);
+                    } else {
+                        single.result.tryEmitEmpty();
+                    }
+                })
+                .doOnError(error -> single.result.tryEmitError(error))
+                .then();
+        }
+
+        List<String> requestIds = new ArrayList<>(batch.size());
+        List<byte[]> wavData = new ArrayList<>(batch.size());
+        for (PendingPrediction prediction : batch) {
+            requestIds.add(prediction.requestId);
+            wavData.add(prediction.wavData);
+        }
+        return modelServerClient.predictBatch(requestIds, batch.get(0).model, wavData)
+            .flatMap(results -> results.size() == batch.size()
+                ? Mono.just(results)
+                : Mono.error(new IllegalStateException("Model server returned " + results.size()
+                    + " results for a batch of " + batch.size())))
+            .doOnSuccess(results -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (results != null) {
+                        batch.get(i).result.tryEmitValue(results.get(i));
+                    } else {
+                        batch.get(i).result.tryEmitEmpty();
+                    }
+                }
+            })
+            .doOnError(error -> batch.forEach(prediction -> prediction.result.tryEmitError(error)))
+            .then();
+    }
+
+    /**
+     * Batch counts and fill ratio (average batch size relative to the maximum).
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        double averageSize = batchCount > 0 ? batchedRequests.sum() / (double) batchCount : 0.0;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("max_size", maxBatchSize);
+        stats.put("linger_ms", linger.toMillis());
+        stats.put("batches", batchCount);
+        stats.put("requests", batchedRequests.sum());
+        stats.put("full_batches", fullBatches.sum());
+        stats.put("avg_batch_size", averageSize);
+        stats.put("fill_ratio", averageSize / maxBatchSize);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchLoop != null) {
+            pending.tryEmitComplete();
+            batchLoop.dispose();
+        }
+    }
+}
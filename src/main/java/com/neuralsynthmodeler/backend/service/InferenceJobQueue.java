@@ -0,0 +1,194 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-process queue for inference jobs.
+ *
+ * At most {@code inference.queue.workers} jobs run at once; up to {@code inference.queue.capacity}
+ * more wait in FIFO order. Submissions beyond that are rejected with 429 so the backend never
+ * sends more concurrent calls to the model server than it was sized for. Job work runs on a
+ * dedicated scheduler, never on the HTTP event loop.
+ */
+@Service
+public class InferenceJobQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceJobQueue.class);
+
+    private static class Job {
+        private final String requestId;
+        private final Supplier<Mono<Void>> task;
+        private final long enqueuedAtNanos = System.nanoTime();
+
+        Job(String requestId, Supplier<Mono<Void>> task) {
+            this.requestId = requestId;
+            this.task = task;
+        }
+    }
+
+    private final int capacity;
+    private final int workers;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<Job> pending;
+    private final Scheduler dispatchScheduler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Request ids queued or running
+    private final Set<String> activeRequests = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    public InferenceJobQueue(@Value("${inference.queue.capacity:100}") int capacity,
+                             @Value("${inference.queue.workers:4}") int workers,
+                             @Value("${inference.queue.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.capacity = capacity;
+        this.workers = workers;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.pending = new ArrayBlockingQueue<>(capacity);
+        this.dispatchScheduler = Schedulers.newBoundedElastic(workers, capacity, "inference-dispatch");
+        logger.info("Inference job queue started with capacity: {}, workers: {}", capacity, workers);
+    }
+
+    /**
+     * Fail fast if a new job could not be queued. Used before reading an upload.
+     */
+    public void checkCapacity() {
+        if (shuttingDown) {
+            throw new InferenceRejectedException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                "Inference queue is shutting down");
+        }
+        if (pending.remainingCapacity() == 0) {
+            rejected.increment();
+            throw new InferenceRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                "Inference queue is full, retry later");
+        }
+    }
+
+    /**
+     * Queue a job. The task is subscribed on the dispatch scheduler once a worker is free.
+     *
+     * @throws InferenceRejectedException If the queue is full or shutting down
+     */
+    public void submit(String requestId, Supplier<Mono<Void>> task) {
+        checkCapacity();
+        activeRequests.add(requestId);
+        if (!pending.offer(new Job(requestId, task))) {
+            activeRequests.remove(requestId);
+            rejected.increment();
+            throw new InferenceRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                "Inference queue is full, retry later");
+        }
+        submitted.increment();
+        logger.debug("Queued inference job for request ID: {}, queue depth: {}", requestId, pending.size());
+        drain();
+    }
+
+    /**
+     * Whether a job for this request is queued or running here.
+     */
+    public boolean isActive(String requestId) {
+        return activeRequests.contains(requestId);
+    }
+
+    /**
+     * Jobs that could start right away: idle workers not already spoken for by queued jobs.
+     */
+    public int freeSlots() {
+        if (shuttingDown) {
+            return 0;
+        }
+        return Math.max(0, workers - inFlight.get() - pending.size());
+    }
+
+    /**
+     * Scheduler that job work should run on (decompression, storage, result handling).
+     */
+    public Scheduler scheduler() {
+        return dispatchScheduler;
+    }
+
+    private void drain() {
+        while (true) {
+            int running = inFlight.get();
+            if (running >= workers || pending.isEmpty()) {
+                return;
+            }
+            if (!inFlight.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            Job job = pending.poll();
+            if (job == null) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            start(job);
+        }
+    }
+
+    private void start(Job job) {
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - job.enqueuedAtNanos);
+        totalWaitMillis.add(waitMillis);
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        logger.debug("Dispatching request ID: {} after waiting {} ms", job.requestId, waitMillis);
+
+        Mono.defer(job.task)
+            .subscribeOn(dispatchScheduler)
+            .doFinally(signal -> {
+                activeRequests.remove(job.requestId);
+                completed.increment();
+                inFlight.decrementAndGet();
+                drain();
+            })
+            .subscribe(
+                ignored -> { },
+                error -> logger.error("Inference job failed for request ID: {}", job.requestId, error));
+    }
+
+    /**
+     * Current depth, throughput counters and queue wait times.
+     */
+    public Map<String, Object> getStats() {
+        long started = completed.sum() + inFlight.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("capacity", capacity);
+        stats.put("workers", workers);
+        stats.put("depth", pending.size());
+        stats.put("in_flight", inFlight.get());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("completed", completed.sum());
+        stats.put("avg_wait_ms", started > 0 ? totalWaitMillis.sum() / (double) started : 0.0);
+        stats.put("max_wait_ms", maxWaitMillis.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        logger.info("Shutting down inference job queue with {} queued and {} running jobs", pending.size(), inFlight.get());
+        dispatchScheduler.dispose();
+    }
+}
@@ -0,0 +1,196 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Recovers requests left PENDING or PROCESSING by an instance that stopped, for the in-process queue.
+ * With {@code inference.queue.mode=mysql} expired leases do this instead.
+ *
+ * {@code inference.recovery.startup-delay-seconds} after startup, and every
+ * {@code inference.recovery.interval-seconds} afterwards, up to {@code inference.recovery.batch-size}
+ * unfinished requests not updated for {@code inference.recovery.stale-after-seconds} are re-dispatched:
+ * their audio is loaded back from MongoDB and they go through the {@link InferenceJobQueue} like new
+ * uploads. At most {@code inference.recovery.max-per-second} are dispatched, and only while the queue has
+ * idle workers and the model server circuit is closed, so recovery does not crowd out live traffic or
+ * stampede the model server.
+ *
+ * Requests still queued here are skipped. Each re-dispatch is claimed with a compare-and-set on
+ * updated_at, so instances scanning at the same time do not both take a request, and counts an attempt;
+ * requests that reach {@code inference.recovery.max-attempts} are moved to ERROR. The stale threshold
+ * must exceed the longest inference, since another instance's running job looks the same as an orphan;
+ * a single instance can use 0.
+ */
+@Service
+@ConditionalOnProperty(name = "inference.queue.mode", havingValue = "memory", matchIfMissing = true)
+public class InferenceRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceRecoveryService.class);
+
+    private static final List<String> UNFINISHED = List.of(
+        InferenceService.RequestStatus.PENDING.name(), InferenceService.RequestStatus.PROCESSING.name());
+
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final InferenceJobQueue inferenceJobQueue;
+    private final InferenceService inferenceService;
+    private final StatusStreamService statusStreamService;
+    private final ModelServerClient modelServerClient;
+    private final Duration staleAfter;
+    private final int batchSize;
+    private final Duration dispatchInterval;
+    private final int maxAttempts;
+    private final Disposable scans;
+
+    private final LongAdder scanCount = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    @Autowired
+    public InferenceRecoveryService(ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                                    InferenceJobQueue inferenceJobQueue,
+                                    InferenceService inferenceService,
+                                    StatusStreamService statusStreamService,
+                                    ModelServerClient modelServerClient,
+                                    @Value("${inference.recovery.enabled:true}") boolean enabled,
+                                    @Value("${inference.recovery.startup-delay-seconds:10}") long startupDelaySeconds,
+                                    @Value("${inference.recovery.interval-seconds:60}") long intervalSeconds,
+                                    @Value("${inference.recovery.stale-after-seconds:300}") long staleAfterSeconds,
+                                    @Value("${inference.recovery.batch-size:100}") int batchSize,
+                                    @Value("${inference.recovery.max-per-second:2}") double maxPerSecond,
+                                    @Value("${inference.recovery.max-attempts:3}") int maxAttempts) {
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.inferenceJobQueue = inferenceJobQueue;
+        this.inferenceService = inferenceService;
+        this.statusStreamService = statusStreamService;
+        this.modelServerClient = modelServerClient;
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+        this.batchSize = batchSize;
+        this.dispatchInterval = Duration.ofMillis(Math.max(1, (long) (1000 / maxPerSecond)));
+        this.maxAttempts = maxAttempts;
+        this.scans = enabled
+            ? Flux.interval(Duration.ofSeconds(startupDelaySeconds), Duration.ofSeconds(intervalSeconds))
+                .onBackpressureDrop()
+                .concatMap(tick -> recover()
+                    .onErrorResume(e -> {
+                        logger.warn("Inference recovery scan failed: {}", e.getMessage());
+                        return Mono.empty();
+                    }), 1)
+                .subscribe()
+            : null;
+        if (enabled) {
+            logger.info("Inference recovery enabled, stale after: {} s, interval: {} s, max per second: {}",
+                staleAfterSeconds, intervalSeconds, maxPerSecond);
+        }
+    }
+
+    /**
+     * One recovery scan. Completes when every stale request found has been dispatched or skipped.
+     */
+    Mono<Void> recover() {
+        scanCount.increment();
+        Instant staleBefore = Instant.now().minus(staleAfter);
+        return reactiveInferenceRequestRepository.findStale(UNFINISHED, staleBefore, batchSize)
+            .filter(entity -> {
+                if (inferenceJobQueue.isActive(entity.getId())) {
+                    // Waiting for a worker here, not orphaned
+                    skipped.increment();
+                    return false;
+                }
+                found.increment();
+                return true;
+            })
+            .concatMap(entity -> Mono.delay(dispatchInterval).then(recoverOne(entity)), 1)
+            .then();
+    }
+
+    private Mono<Void> recoverOne(InferenceRequestEntity entity) {
+        String requestId = entity.getId();
+        if (entity.getAttempts() >= maxAttempts) {
+            return giveUp(entity);
+        }
+        if (inferenceJobQueue.freeSlots() == 0 || modelServerClient.isCircuitOpen()) {
+            // Left for a later scan
+            deferred.increment();
+            return Mono.empty();
+        }
+        return reactiveInferenceRequestRepository.claimForRecovery(requestId, entity.getStatus(), entity.getUpdatedAt())
+            .doOnNext(claimed -> {
+                if (!claimed) {
+                    // Progressed or taken by another instance since the scan
+                    skipped.increment();
+                    return;
+                }
+                logger.info("Recovering request ID: {} in status {}, attempt {}", requestId, entity.getStatus(),
+                    entity.getAttempts() + 1);
+                try {
+                    inferenceJobQueue.submit(requestId, () -> inferenceService.resumeInference(entity)
+                        .doOnError(e -> {
+                            failed.increment();
+                            logger.warn("Recovery of request ID: {} failed: {}", requestId, e.getMessage());
+                        }));
+                    resumed.increment();
+                } catch (InferenceRejectedException e) {
+                    // The attempt is counted; it is picked up again once stale
+                    deferred.increment();
+                }
+            })
+            .then();
+    }
+
+    private Mono<Void> giveUp(InferenceRequestEntity entity) {
+        String requestId = entity.getId();
+        String error = "Inference did not complete after " + entity.getAttempts() + " attempts";
+        return reactiveInferenceRequestRepository.transitionStatus(requestId,
+                InferenceService.RequestStatus.allowedPredecessorNames(InferenceService.RequestStatus.ERROR.name()),
+                InferenceService.RequestStatus.ERROR.name(), null, error)
+            .doOnNext(count -> {
+                if (count > 0) {
+                    failed.increment();
+                    logger.warn("Gave up recovering request ID: {} - {}", requestId, error);
+                    statusStreamService.updateStatus(requestId, InferenceService.RequestStatus.ERROR);
+                }
+            })
+            .then();
+    }
+
+    /**
+     * Scan and outcome counters: requests found orphaned, re-dispatched, failed or given up, skipped
+     * because they were active or claimed elsewhere, and deferred for lack of idle workers.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("scans", scanCount.sum());
+        stats.put("found", found.sum());
+        stats.put("resumed", resumed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("deferred", deferred.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scans != null) {
+            scans.dispose();
+        }
+    }
+}
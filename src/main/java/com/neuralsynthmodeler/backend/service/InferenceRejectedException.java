@@ -0,0 +1,22 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when an inference request cannot be accepted right now (queue full, shutting down).
+ * Carries the HTTP status and the Retry-After hint returned to the client.
+ */
+public class InferenceRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public InferenceRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() { return status; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
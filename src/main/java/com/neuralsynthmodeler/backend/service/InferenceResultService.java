@@ -4,40 +4,76 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
 import java.util.Map;
 import java.util.Optional;
 import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
 import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
-import java.time.Instant;
+import com.neuralsynthmodeler.backend.util.BoundedCache;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
 
+/**
+ * Owns preset results: a bounded in-memory cache in front of MongoDB preset storage.
+ *
+ * The cache is capped by total bytes ({@code result.cache.max-bytes}) and entries expire after
+ * {@code result.cache.idle-ttl-seconds} without access or {@code result.cache.ttl-seconds} in total,
+ * so results nobody downloads do not accumulate on the heap. Misses read through to MongoDB.
+ */
 @Service
 public class InferenceResultService {
 
     private static final Logger logger = LoggerFactory.getLogger(InferenceResultService.class);
     
-    private final Map<String, byte[]> resultCache = new ConcurrentHashMap<>();
+    private final BoundedCache<String, byte[]> resultCache;
     private final InferenceRequestRepository inferenceRequestRepository;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
     private final AudioStorageService audioStorageService;
+    private final ReactiveAudioStorageService reactiveAudioStorageService;
 
     @Autowired
     public InferenceResultService(InferenceRequestRepository inferenceRequestRepository,
-                                 AudioStorageService audioStorageService) {
+                                 ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                                 AudioStorageService audioStorageService,
+                                 ReactiveAudioStorageService reactiveAudioStorageService,
+                                 @Value("${result.cache.max-bytes:67108864}") long maxBytes,
+                                 @Value("${result.cache.idle-ttl-seconds:600}") long idleTtlSeconds,
+                                 @Value("${result.cache.ttl-seconds:3600}") long ttlSeconds) {
         this.inferenceRequestRepository = inferenceRequestRepository;
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
         this.audioStorageService = audioStorageService;
+        this.reactiveAudioStorageService = reactiveAudioStorageService;
+        this.resultCache = new BoundedCache<>(maxBytes, Duration.ofSeconds(idleTtlSeconds),
+            Duration.ofSeconds(ttlSeconds), result -> result.length);
     }
 
     /**
-     * Get result from cache or storage
+     * Get result from cache, reading through to storage on a miss
      */
     public byte[] getResult(String requestId) {
-        // First check in-memory cache
-        byte[] cachedResult = resultCache.get(requestId);
+        return resultCache.get(requestId, this::loadResult);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getResult(String)}. Completes empty if there is no result.
+     */
+    public Mono<byte[]> getResultAsync(String requestId) {
+        byte[] cachedResult = resultCache.getIfPresent(requestId);
         if (cachedResult != null) {
-            return cachedResult;
+            return Mono.just(cachedResult);
         }
-        
-        // If not in cache, try to retrieve from MongoDB
+        return reactiveInferenceRequestRepository.findById(requestId)
+                .mapNotNull(InferenceRequestEntity::getResultRef)
+                .flatMap(reactiveAudioStorageService::retrievePreset)
+                .doOnNext(presetData -> {
+                    logger.info("Retrieved preset from MongoDB for request ID: {}, size: {} bytes", requestId, presetData.length);
+                    resultCache.put(requestId, presetData);
+                })
+                .doOnError(e -> logger.error("Error retrieving preset from MongoDB for request ID: {}", requestId, e));
+    }
+
+    private byte[] loadResult(String requestId) {
         try {
             Optional<InferenceRequestEntity> entityOpt = inferenceRequestRepository.findById(requestId);
             if (entityOpt.isPresent()) {
@@ -82,36 +118,17 @@ public class InferenceResultService {
     }
 
     /**
-     * Clear result from cache and status map
+     * Clear result from cache
      */
     public void clearResult(String requestId) {
-        resultCache.remove(requestId);
+        resultCache.invalidate(requestId);
         logger.debug("Cleared cached result for request ID: {}", requestId);
     }
 
     /**
-     * Update inference result in database
+     * Cache hits, misses, evictions and current size in bytes
      */
-    public void updateInferenceResult(String requestId, String resultRef, InferenceService.RequestStatus status, String error) {
-        try {
-            // Find existing entity
-            Optional<InferenceRequestEntity> existingOpt = inferenceRequestRepository.findById(requestId);
-            if (existingOpt.isPresent()) {
-                InferenceRequestEntity entity = existingOpt.get();
-                entity.setStatus(status.name());
-                entity.setUpdatedAt(Instant.now());
-                entity.setResultRef(resultRef);
-                entity.setError(error);
-                
-                // Save updated entity
-                inferenceRequestRepository.save(entity);
-                logger.info("Updated inference result for request ID: {}, status: {}, result_ref: {}", 
-                    requestId, status, resultRef);
-            } else {
-                logger.warn("Could not find inference request with ID: {}", requestId);
-            }
-        } catch (Exception e) {
-            logger.error("Failed to update inference result for request ID: {}", requestId, e);
-        }
+    public Map<String, Object> getCacheStats() {
+        return resultCache.getStats();
     }
-} 
\ No newline at end of file
+}
@@ -3,14 +3,23 @@ package com.neuralsynthmodeler.backend.service;
 import java.util.UUID;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.http.MediaType;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.util.LinkedMultiValueMap;
@@ -19,11 +28,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import com.neuralsynthmodeler.backend.util.GzipUtils;
 import com.neuralsynthmodeler.backend.util.AudioFormatUtils;
 import com.neuralsynthmodeler.backend.util.AudioFormatUtils.AudioMetadata;
+import com.neuralsynthmodeler.backend.util.StreamingAudioIngest;
+import com.neuralsynthmodeler.backend.util.WavFormat;
 
-import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
 import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
 import com.neuralsynthmodeler.backend.model.SynthType;
 
@@ -35,30 +45,99 @@ import com.fasterxml.jackson.databind.JsonNode;
 public class InferenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(InferenceService.class);
+    private static final int INGEST_PREFETCH = 4;
     
-    @Value("${model.server.url:http://localhost:3000}")
-    private String modelServerUrl;
+    @Value("${ingest.max-upload-bytes:104857600}")
+    private long maxUploadBytes;
+
+    // GZIP uploads are capped after decompression too, a small upload can inflate to far more
+    @Value("${ingest.max-decompressed-bytes:1073741824}")
+    private long maxDecompressedBytes;
+
+    // "memory" queues jobs in process, "mysql" leaves PENDING rows for DurableInferenceQueue to claim
+    @Value("${inference.queue.mode:memory}")
+    private String queueMode;
     
-    private final WebClient webClient;
-    private final InferenceRequestRepository inferenceRequestRepository;
+    private final InferenceBatcher inferenceBatcher;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
     private final AudioStorageService audioStorageService;
+    private final ReactiveAudioStorageService reactiveAudioStorageService;
     private final StatusStreamService statusStreamService;
-    private final Map<String, byte[]> resultCache = new ConcurrentHashMap<>();
+    private final InferenceJobQueue inferenceJobQueue;
+    private final ContentAddressedResultCache contentAddressedResultCache;
+    private final InferenceResultService inferenceResultService;
+    private final InferenceStatusWriter inferenceStatusWriter;
+    private final ModelServerClient modelServerClient;
+    private final StorageCodecs storageCodecs;
+    private final ModelInputConverter modelInputConverter;
+    // Streamed uploads are compressed here, the encoder may wait for its parallel blocks
+    private final Scheduler ingestScheduler;
 
     @Autowired
-    public InferenceService(InferenceRequestRepository inferenceRequestRepository, 
+    public InferenceService(ReactiveInferenceRequestRepository reactiveInferenceRequestRepository, 
                            AudioStorageService audioStorageService,
-                           StatusStreamService statusStreamService) {
-        this.inferenceRequestRepository = inferenceRequestRepository;
+                           ReactiveAudioStorageService reactiveAudioStorageService,
+                           StatusStreamService statusStreamService,
+                           InferenceBatcher inferenceBatcher,
+                           InferenceJobQueue inferenceJobQueue,
+                           ContentAddressedResultCache contentAddressedResultCache,
+                           InferenceResultService inferenceResultService,
+                           InferenceStatusWriter inferenceStatusWriter,
+                           ModelServerClient modelServerClient,
+                           StorageCodecs storageCodecs,
+                           ModelInputConverter modelInputConverter,
+                           @Value("${ingest.threads:0}") int ingestThreads) {
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
         this.audioStorageService = audioStorageService;
+        this.reactiveAudioStorageService = reactiveAudioStorageService;
         this.statusStreamService = statusStreamService;
-        this.webClient = WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(50 * 1024 * 1024)) // 50MB
-                .build();
+        this.inferenceBatcher = inferenceBatcher;
+        this.inferenceJobQueue = inferenceJobQueue;
+        this.contentAddressedResultCache = contentAddressedResultCache;
+        this.inferenceResultService = inferenceResultService;
+        this.inferenceStatusWriter = inferenceStatusWriter;
+        this.modelServerClient = modelServerClient;
+        this.storageCodecs = storageCodecs;
+        this.modelInputConverter = modelInputConverter;
+        this.ingestScheduler = Schedulers.newBoundedElastic(
+            ingestThreads > 0 ? ingestThreads : Runtime.getRuntime().availableProcessors(),
+            Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "ingest");
     }
 
     public static enum RequestStatus {
-        PENDING, PROCESSING, DONE, ERROR
+        PENDING, PROCESSING, DONE, ERROR;
+
+        /**
+         * States a request may be in when it is moved to this one: PENDING -> PROCESSING -> DONE/ERROR,
+         * and PENDING -> ERROR. Skipping PROCESSING is allowed because the write-behind stage may coalesce
+         * it with the final state. DONE and ERROR are final.
+         */
+        public Set<RequestStatus> allowedPredecessors() {
+            switch (this) {
+                case PROCESSING:
+                    return EnumSet.of(PENDING);
+                case DONE:
+                case ERROR:
+                    return EnumSet.of(PENDING, PROCESSING);
+                default:
+                    return EnumSet.noneOf(RequestStatus.class);
+            }
+        }
+
+        public boolean canTransitionFrom(RequestStatus from) {
+            return allowedPredecessors().contains(from);
+        }
+
+        /**
+         * Names of {@link #allowedPredecessors()}, as stored in the status column.
+         */
+        public static Collection<String> allowedPredecessorNames(String status) {
+            List<String> names = new ArrayList<>();
+            for (RequestStatus predecessor : valueOf(status).allowedPredecessors()) {
+                names.add(predecessor.name());
+            }
+            return names;
+        }
     }
 
     public Mono<Map<String, Object>> handleInference(byte[] audioData) {
@@ -66,158 +145,296 @@ public class InferenceService {
         logger.info("Starting inference for request ID: {}", requestId);
         
         try {
+            checkCapacity();
             // Process and validate audio data using centralized method
-            AudioMetadata audioMetadata = AudioFormatUtils.processAudioDataWithErrorDetails(audioData);
-            
-            logger.info("Audio processing completed for request ID: {} - {}", requestId, audioMetadata);
-            
-            // Store compressed audio in MongoDB (GZIP-compressed WAV format)
-            String audioRef = audioStorageService.storeAudio(
-                audioMetadata.getCompressedData(), 
-                audioMetadata.getCompressedSize(), 
-                audioMetadata.getUncompressedSize()
-            );
-            logger.info("Compressed audio stored in MongoDB with reference: {}, compressed: {} bytes, uncompressed: {} bytes",
-                audioRef, audioMetadata.getCompressedSize(), audioMetadata.getUncompressedSize());
-            
-            // Create and save inference request entity
-            InferenceRequestEntity entity = InferenceRequestEntity.builder()
-                    .id(requestId)
-                    .model("vital")
-                    .synth(SynthType.VITAL.getValue())
-                    .status("PENDING")
-                    .createdAt(Instant.now())
-                    .updatedAt(Instant.now())
-                    .audioRef(audioRef)
-                    .audioSizeGzipped(audioMetadata.getCompressedSize())
-                    .audioSizeUncompressed(audioMetadata.getUncompressedSize())
-                    .build();
-            
-            inferenceRequestRepository.save(entity);
-            
-            // Set initial status using StatusStreamService as single source of truth
-            statusStreamService.updateStatus(requestId, RequestStatus.PENDING);
-            
-            // Process asynchronously with decompressed audio
-            processInferenceAsync(requestId, audioMetadata.getDecompressedData());
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("request_id", requestId);
-            response.put("status", "PENDING");
-            return Mono.just(response);
+            AudioMetadata audioMetadata = AudioFormatUtils.processAudioDataWithErrorDetails(audioData, storageCodecs.audioCodec());
+            return acceptAudio(requestId, audioMetadata)
+                .onErrorResume(e -> !(e instanceof InferenceRejectedException), e -> {
+                    logger.error("Failed to store audio for request ID: {}", requestId, e);
+                    return Mono.just(errorResponse(requestId, e.getMessage()));
+                });
         } catch (IOException e) {
             logger.error("Failed to process audio (compression/decompression error) for request ID: {}", requestId, e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("request_id", requestId);
-            response.put("status", "ERROR");
-            response.put("error", "Failed to process audio: " + e.getMessage());
-            return Mono.just(response);
+            return Mono.just(errorResponse(requestId, "Failed to process audio: " + e.getMessage()));
+        } catch (InferenceRejectedException e) {
+            return Mono.error(e);
         } catch (Exception e) {
             logger.error("Failed to process audio (format error) for request ID: {}", requestId, e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("request_id", requestId);
-            response.put("status", "ERROR");
-            response.put("error", e.getMessage());
-            return Mono.just(response);
+            return Mono.just(errorResponse(requestId, e.getMessage()));
         } 
     }
 
-    private void processInferenceAsync(String requestId, byte[] audioData) {
-        Mono.fromCallable(() -> {
+    /**
+     * Streaming variant of {@link #handleInference(byte[])}. The body is consumed chunk by chunk:
+     * the format is checked on the first chunk so bad uploads are rejected before the rest
+     * arrives, and raw WAV is compressed as it streams in. Only the compressed audio is held.
+     * Chunks are handed from the event loop to the ingest scheduler a few at a time.
+     */
+    public Mono<Map<String, Object>> handleInference(Flux<DataBuffer> audioBody) {
+        try {
+            checkCapacity();
+        } catch (InferenceRejectedException e) {
+            return Mono.error(e);
+        }
+        String requestId = UUID.randomUUID().toString();
+        logger.info("Starting streaming inference for request ID: {}", requestId);
+        StreamingAudioIngest ingest = new StreamingAudioIngest(maxUploadBytes, maxDecompressedBytes, storageCodecs.audioCodec());
+
+        return audioBody
+            // The small prefetch keeps backpressure on the client; finish runs on this thread too
+            .publishOn(ingestScheduler, INGEST_PREFETCH)
+            .<Void>handle((buffer, sink) -> {
+                try {
+                    ingest.accept(buffer);
+                } catch (IOException e) {
+                    sink.error(new UncheckedIOException(e));
+                } catch (IllegalArgumentException e) {
+                    sink.error(e);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            })
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+            .then(Mono.fromCallable(ingest::finish))
+            // A failed or cancelled upload releases the encoder; after finish this does nothing
+            .doFinally(signal -> ingest.abort())
+            .flatMap(audioMetadata -> acceptAudio(requestId, audioMetadata))
+            .onErrorResume(e -> !(e instanceof InferenceRejectedException), e -> {
+                if (e instanceof IOException || e instanceof UncheckedIOException) {
+                    logger.error("Failed to process audio (compression/decompression error) for request ID: {}", requestId, e);
+                    return Mono.just(errorResponse(requestId, "Failed to process audio: " + e.getMessage()));
+                }
+                logger.error("Failed to process audio (format error) for request ID: {}", requestId, e);
+                return Mono.just(errorResponse(requestId, e.getMessage()));
+            });
+    }
+
+    /**
+     * Store validated audio, persist the request and schedule inference.
+     * Storage and database calls are non-blocking so the event loop is never held by them.
+     */
+    private Mono<Map<String, Object>> acceptAudio(String requestId, AudioMetadata audioMetadata) {
+        logger.info("Audio processing completed for request ID: {} - {}", requestId, audioMetadata);
+        
+        // Store compressed audio in MongoDB, tagged with its codec
+        return reactiveAudioStorageService.storeAudio(
+                audioMetadata.getCompressedData(), 
+                audioMetadata.getCodec(),
+                audioMetadata.getCompressedSize(), 
+                audioMetadata.getUncompressedSize())
+            .flatMap(audioRef -> {
+                logger.info("Compressed audio stored in MongoDB with reference: {}, compressed: {} bytes, uncompressed: {} bytes",
+                    audioRef, audioMetadata.getCompressedSize(), audioMetadata.getUncompressedSize());
+                
+                // Create and save inference request entity
+                WavFormat wavFormat = audioMetadata.getWavFormat();
+                InferenceRequestEntity entity = InferenceRequestEntity.builder()
+                        .id(requestId)
+                        .model("vital")
+                        .synth(SynthType.VITAL.getValue())
+                        .status("PENDING")
+                        .createdAt(Instant.now())
+                        .updatedAt(Instant.now())
+                        .audioRef(audioRef)
+                        .audioSizeGzipped(audioMetadata.getCompressedSize())
+                        .audioSizeUncompressed(audioMetadata.getUncompressedSize())
+                        .audioDurationMs(wavFormat != null ? (int) Math.min(Integer.MAX_VALUE, wavFormat.getDurationMillis()) : null)
+                        .audioSampleRate(wavFormat != null ? wavFormat.getSampleRate() : null)
+                        .audioChannels(wavFormat != null ? wavFormat.getChannels() : null)
+                        .build();
+                
+                return reactiveInferenceRequestRepository.save(entity);
+            })
+            .map(entity -> {
+                // Set initial status using StatusStreamService as single source of truth
+                statusStreamService.updateStatus(requestId, RequestStatus.PENDING);
+                
+                // Process asynchronously; the audio is only decompressed when it is dispatched.
+                // With the MySQL queue the saved PENDING row is the job and a worker claims it.
+                if (!isDurableQueue()) {
+                    processInferenceAsync(requestId, audioMetadata.getCompressedData());
+                }
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("request_id", requestId);
+                response.put("status", "PENDING");
+                return response;
+            });
+    }
+
+    private Map<String, Object> errorResponse(String requestId, String error) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("request_id", requestId);
+        response.put("status", "ERROR");
+        response.put("error", error);
+        return response;
+    }
+
+    private boolean isDurableQueue() {
+        return "mysql".equalsIgnoreCase(queueMode);
+    }
+
+    /**
+     * With the in-process queue, uploads are refused while it is full or the model server circuit is
+     * open. The MySQL queue keeps its backlog in the table, so uploads are always accepted and wait
+     * there until the model server recovers.
+     */
+    private void checkCapacity() {
+        if (!isDurableQueue()) {
+            modelServerClient.checkAvailable();
+            inferenceJobQueue.checkCapacity();
+        }
+    }
+
+    /**
+     * Run inference for a persisted request, loading its audio from MongoDB. Used by workers that
+     * claimed the request from the MySQL queue. Storage errors are propagated without failing the
+     * request, so it is retried once its lease expires.
+     */
+    public Mono<Void> resumeInference(InferenceRequestEntity entity) {
+        String requestId = entity.getId();
+        logger.info("Resuming inference for request ID: {} from audio: {}", requestId, entity.getAudioRef());
+        return reactiveAudioStorageService.retrieveAudio(entity.getAudioRef())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(compressedAudio -> {
+                if (compressedAudio.isEmpty()) {
+                    logger.error("Audio {} not found for request ID: {}", entity.getAudioRef(), requestId);
+                    return updateInferenceResult(requestId, null, RequestStatus.ERROR, "Audio not found")
+                        .then(Mono.fromRunnable(() -> statusStreamService.updateStatus(requestId, RequestStatus.ERROR)));
+                }
+                return runInference(requestId, compressedAudio.get());
+            })
+            .then();
+    }
+
+    private void processInferenceAsync(String requestId, byte[] compressedAudio) {
+        try {
+            inferenceJobQueue.submit(requestId, () -> runInference(requestId, compressedAudio));
+        } catch (InferenceRejectedException e) {
+            logger.warn("Inference queue rejected request ID: {} - {}", requestId, e.getMessage());
+            updateInferenceResult(requestId, null, RequestStatus.ERROR, e.getMessage())
+                .subscribe(null, null, () -> statusStreamService.updateStatus(requestId, RequestStatus.ERROR));
+            throw e;
+        }
+    }
+
+    /**
+     * Inference job body, run by a queue worker: decompress, reuse an earlier result for identical
+     * audio if there is one, otherwise call the model and store the result.
+     */
+    private Mono<Void> runInference(String requestId, byte[] compressedAudio) {
+        return Mono.fromCallable(() -> {
             try {
                 logger.info("Processing audio for request ID: {}", requestId);
                 statusStreamService.updateStatus(requestId, RequestStatus.PROCESSING);
-                return audioData;
+                // Persisted in the background; the write-behind stage coalesces it with the final state
+                updateInferenceResult(requestId, null, RequestStatus.PROCESSING, null).subscribe(null,
+                    e -> logger.error("Failed to persist PROCESSING for request ID: {}", requestId, e));
+                return storageCodecs.decodeAudio(compressedAudio);
             } catch (Exception e) {
-                logger.error("Failed to add request ID: {} to status map ", requestId);
-                statusStreamService.updateStatus(requestId, RequestStatus.ERROR);
+                // ERROR is recorded and published by onErrorResume below
+                logger.error("Failed to decompress audio for request ID: {}", requestId);
                 throw new RuntimeException("Failed to process audio", e);
             }
         })
-        .flatMap(decompressedAudio -> sendToBentoML(requestId, decompressedAudio))
-        .subscribe(
-            result -> {
-                logger.info("Inference completed successfully for request ID: {}", requestId);
-                // Get audioRef from the entity
-                Optional<InferenceRequestEntity> entityOpt = inferenceRequestRepository.findById(requestId);
+        .flatMap(decompressedAudio -> {
+            String model = SynthType.VITAL.getValue();
+            String contentKey = contentAddressedResultCache.isEnabled()
+                ? contentAddressedResultCache.contentKey(model, decompressedAudio)
+                : null;
+            Mono<Optional<String>> cachedPresetRef = contentKey != null
+                // Back on the worker for the conversion below, not on the MongoDB driver threads
+                ? contentAddressedResultCache.lookup(contentKey).publishOn(inferenceJobQueue.scheduler())
+                : Mono.just(Optional.empty());
+            return cachedPresetRef.flatMap(presetRef -> {
+                if (presetRef.isPresent()) {
+                    return completeFromCachedResult(requestId, presetRef.get());
+                }
+                // Converted after the cache lookup, which keys on the audio as uploaded
+                return sendToBentoML(requestId, modelInputConverter.convert(requestId, decompressedAudio))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("Model server returned an empty response")))
+                    // Result handling does blocking database calls, keep it off the HTTP client threads
+                    .publishOn(inferenceJobQueue.scheduler())
+                    .flatMap(result -> handleInferenceResult(requestId, result, contentKey));
+            });
+        })
+        .onErrorResume(error -> {
+            logger.error("Inference failed for request ID: {}", requestId, error);
+            return updateInferenceResult(requestId, null, RequestStatus.ERROR, error.getMessage())
+                .then(Mono.fromRunnable(() -> statusStreamService.updateStatus(requestId, RequestStatus.ERROR)));
+        })
+        .then();
+    }
+
+    private Mono<Void> completeFromCachedResult(String requestId, String presetRef) {
+        logger.info("Identical audio already processed, reusing preset {} for request ID: {}", presetRef, requestId);
+        return updateInferenceResult(requestId, presetRef, RequestStatus.DONE, null)
+            .then(Mono.fromRunnable(() -> statusStreamService.updateStatus(requestId, RequestStatus.DONE)));
+    }
+
+    private Mono<Void> handleInferenceResult(String requestId, byte[] result, String contentKey) {
+        logger.info("Inference completed successfully for request ID: {}", requestId);
+        // Get audioRef from the entity
+        return reactiveInferenceRequestRepository.findById(requestId)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(entityOpt -> {
                 String synthType = entityOpt.map(InferenceRequestEntity::getSynth).orElse("vital");
                 String audioRef = entityOpt.map(InferenceRequestEntity::getAudioRef).orElse(null);
-                if (audioRef != null) {
-                    // Store preset in MongoDB with synth type and audio reference
-                    String presetRef = audioStorageService.storePreset(result, synthType, audioRef);
-                    logger.info("Preset stored in MongoDB with reference: {} (linked to audio: {})", presetRef, audioRef);
-                    // Update MySQL record with result_ref and status
-                    updateInferenceResult(requestId, presetRef, RequestStatus.DONE, null);
-                    // Keep in cache for immediate access
-                    resultCache.put(requestId, result);
-                    statusStreamService.updateStatus(requestId, RequestStatus.DONE);
-                } else {
+                if (audioRef == null) {
                     logger.error("Could not find audioRef for request ID: {}", requestId);
-                    updateInferenceResult(requestId, null, RequestStatus.ERROR, "Audio reference not found");
-                    statusStreamService.updateStatus(requestId, RequestStatus.ERROR);
+                    return updateInferenceResult(requestId, null, RequestStatus.ERROR, "Audio reference not found")
+                        .then(Mono.fromRunnable(() -> statusStreamService.updateStatus(requestId, RequestStatus.ERROR)));
                 }
-            },
-            error -> {
-                logger.error("Inference failed for request ID: {}", requestId, error);
-                updateInferenceResult(requestId, null, RequestStatus.ERROR, error.getMessage());
-                statusStreamService.updateStatus(requestId, RequestStatus.ERROR);
-            }
-        );
+                // Store preset in MongoDB with synth type and audio reference
+                return reactiveAudioStorageService.storePreset(result, synthType, audioRef)
+                    .publishOn(inferenceJobQueue.scheduler())
+                    .flatMap(presetRef -> {
+                        logger.info("Preset stored in MongoDB with reference: {} (linked to audio: {})", presetRef, audioRef);
+                        Mono<Void> recorded = contentKey != null
+                            ? contentAddressedResultCache.record(contentKey, synthType, presetRef)
+                            : Mono.empty();
+                        // Update MySQL record with result_ref and status
+                        return recorded.then(updateInferenceResult(requestId, presetRef, RequestStatus.DONE, null))
+                            .then(Mono.fromRunnable(() -> {
+                                // Keep in cache for immediate access
+                                inferenceResultService.cacheResult(requestId, result);
+                                statusStreamService.updateStatus(requestId, RequestStatus.DONE);
+                            }));
+                    })
+                    .then();
+            });
     }
 
     private Mono<byte[]> sendToBentoML(String requestId, byte[] audioData) {
         logger.info("Sending audio to BentoML for request ID: {}", requestId);
-        
-        String predictUrl = modelServerUrl + "/predict";
-        logger.info("Sending request to: {}", predictUrl);
         logger.debug("Audio data size: {} bytes", audioData.length);
-        
-        // Convert wav audio data to base64 and create JSON payload
-        String base64Audio = java.util.Base64.getEncoder().encodeToString(audioData);
-        Map<String, Object> jsonPayload = new HashMap<>();
-        jsonPayload.put("audio", base64Audio);
-        
-        logger.info("Base64 audio length: {} characters", base64Audio.length());
-        
-        return webClient.post()
-                .uri(predictUrl)
-                .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                .bodyValue(jsonPayload)
-                .retrieve()
-                .bodyToMono(byte[].class)
-                .doOnSuccess(result -> {
-                    logger.info("Received response from BentoML for request ID: {}, size: {} bytes", requestId, result.length);
-                })
-                .doOnError(error -> logger.error("BentoML request failed for request ID: {}", requestId, error));
+        return inferenceBatcher.predict(requestId, SynthType.VITAL.getValue(), audioData);
     }
     
-
-    
-    private void updateInferenceResult(String requestId, String resultRef, RequestStatus status, String error) {
-        try {
-            // Find existing entity
-            Optional<InferenceRequestEntity> existingOpt = inferenceRequestRepository.findById(requestId);
-            if (existingOpt.isPresent()) {
-                InferenceRequestEntity entity = existingOpt.get();
-                entity.setStatus(status.name());
-                entity.setUpdatedAt(Instant.now());
-                entity.setResultRef(resultRef);
-                entity.setError(error);
-                
-                // Save updated entity
-                inferenceRequestRepository.save(entity);
-                logger.info("Updated inference result for request ID: {}, status: {}, result_ref: {}", 
-                    requestId, status, resultRef);
-            } else {
-                logger.warn("Could not find inference request with ID: {}", requestId);
-            }
-        } catch (Exception e) {
-            logger.error("Failed to update inference result for request ID: {}", requestId, e);
-        }
+    private Mono<Void> updateInferenceResult(String requestId, String resultRef, RequestStatus status, String error) {
+        return inferenceStatusWriter.write(requestId, status, resultRef, error)
+            .doOnNext(applied -> {
+                if (applied) {
+                    logger.info("Updated inference result for request ID: {}, status: {}, result_ref: {}", 
+                        requestId, status, resultRef);
+                } else {
+                    logger.warn("Ignored transition to {} for request ID: {}, request not found or not in {}",
+                        status, requestId, status.allowedPredecessors());
+                }
+            })
+            .onErrorResume(e -> {
+                logger.error("Failed to update inference result for request ID: {}", requestId, e);
+                return Mono.empty();
+            })
+            .then();
     }
 
-    public RequestStatus getStatus(String requestId) {
-        // Use StatusStreamService as single source of truth
+    /**
+     * Current status of a request; completes empty if the request is unknown
+     */
+    public Mono<RequestStatus> getStatus(String requestId) {
         return statusStreamService.getStatus(requestId);
     }
     
@@ -229,57 +446,30 @@ public class InferenceService {
     }
     
     public byte[] getResult(String requestId) {
-        // First check in-memory cache
-        byte[] cachedResult = resultCache.get(requestId);
-        if (cachedResult != null) {
-            return cachedResult;
-        }
-        
-        // If not in cache, try to retrieve from MongoDB
-        try {
-            Optional<InferenceRequestEntity> entityOpt = inferenceRequestRepository.findById(requestId);
-            if (entityOpt.isPresent()) {
-                InferenceRequestEntity entity = entityOpt.get();
-                String resultRef = entity.getResultRef();
-                
-                if (resultRef != null) {
-                    Optional<byte[]> presetData = audioStorageService.retrievePreset(resultRef);
-                    if (presetData.isPresent()) {
-                        logger.info("Retrieved preset from MongoDB for request ID: {}, size: {} bytes", 
-                            requestId, presetData.get().length);
-                        
-                        // Also log preset metadata if available
-                        Optional<AudioStorageService.PresetMetadata> metadata = audioStorageService.retrievePresetMetadata(resultRef);
-                        if (metadata.isPresent()) {
-                            logger.info("Preset metadata for request ID {}: {}", requestId, metadata.get());
-                        }
-                        
-                        return presetData.get();
-                    } else {
-                        logger.warn("Preset not found in MongoDB for result_ref: {}", resultRef);
-                    }
-                } else {
-                    logger.warn("No result_ref found for request ID: {}", requestId);
-                }
-            } else {
-                logger.warn("Inference request not found for ID: {}", requestId);
-            }
-        } catch (Exception e) {
-            logger.error("Error retrieving preset from MongoDB for request ID: {}", requestId, e);
-        }
-        
-        return null;
+        return inferenceResultService.getResult(requestId);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getResult(String)}; completes empty if there is no result
+     */
+    public Mono<byte[]> getResultAsync(String requestId) {
+        return inferenceResultService.getResultAsync(requestId);
     }
     
     public void clearResult(String requestId) {
-        resultCache.remove(requestId);
+        inferenceResultService.clearResult(requestId);
         statusStreamService.clearStatus(requestId);
     }
 
-    public Optional<InferenceRequestEntity> getRequestEntity(String requestId) {
-        return inferenceRequestRepository.findById(requestId);
+    /**
+     * Load the persisted request; completes empty if it does not exist
+     */
+    public Mono<InferenceRequestEntity> getRequestEntity(String requestId) {
+        return reactiveInferenceRequestRepository.findById(requestId);
     }
 
-
+    @PreDestroy
+    public void shutdown() {
+        ingestScheduler.dispose();
+    }
 }
-
@@ -0,0 +1,244 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Write-behind stage for status and result updates of INFERENCE_REQUEST rows.
+ *
+ * Updates are coalesced per request id, keeping only the latest state, and written as one JDBC batch
+ * every {@code status.write-behind.flush-interval-ms} or as soon as {@code status.write-behind.max-pending}
+ * request ids are waiting. The {@link Mono} returned by {@link #write} completes once the update (or a
+ * later one for the same request) has been flushed, so callers can publish a status only after it is
+ * durable without paying a round trip each.
+ *
+ * Every write is a compare-and-set against {@link InferenceService.RequestStatus#allowedPredecessors()},
+ * so a stale or duplicate worker cannot move a request backwards or out of a final state.
+ *
+ * With {@code status.write-behind.sync-terminal=true}, DONE and ERROR skip the buffer and are written
+ * immediately. With {@code status.write-behind.enabled=false} every update is written immediately.
+ * Pending updates are flushed on shutdown.
+ */
+@Service
+public class InferenceStatusWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceStatusWriter.class);
+
+    private static class PendingUpdate {
+        private final InferenceRequestEntity update;
+        private final List<Sinks.One<Boolean>> waiters = new ArrayList<>();
+
+        PendingUpdate(InferenceRequestEntity update) {
+            this.update = update;
+        }
+    }
+
+    private final InferenceRequestRepository inferenceRequestRepository;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final boolean enabled;
+    private final boolean syncTerminal;
+    private final int maxPending;
+    private final Duration flushInterval;
+    private final Object flushLock = new Object();
+    // Insertion-ordered so a batch is written in the order requests were first updated
+    private Map<String, PendingUpdate> pending = new LinkedHashMap<>();
+    private final Disposable flusher;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder rejectedTransitions = new LongAdder();
+
+    @Autowired
+    public InferenceStatusWriter(InferenceRequestRepository inferenceRequestRepository,
+                                 ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                                 @Value("${status.write-behind.enabled:true}") boolean enabled,
+                                 @Value("${status.write-behind.sync-terminal:false}") boolean syncTerminal,
+                                 @Value("${status.write-behind.max-pending:500}") int maxPending,
+                                 @Value("${status.write-behind.flush-interval-ms:100}") long flushIntervalMillis) {
+        this.inferenceRequestRepository = inferenceRequestRepository;
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.enabled = enabled;
+        this.syncTerminal = syncTerminal;
+        this.maxPending = maxPending;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+        this.flusher = enabled
+            ? Flux.interval(flushInterval, reactiveInferenceRequestRepository.scheduler())
+                .subscribe(tick -> flush())
+            : null;
+        if (enabled) {
+            logger.info("Status write-behind enabled with flush interval: {} ms, max pending: {}, sync terminal: {}",
+                flushIntervalMillis, maxPending, syncTerminal);
+        }
+    }
+
+    /**
+     * Record the state of a request. Emits once the state has been flushed to MySQL: true if the
+     * transition was applied, false if the request does not exist or its current state does not allow it.
+     */
+    public Mono<Boolean> write(String requestId, InferenceService.RequestStatus status, String resultRef, String error) {
+        InferenceRequestEntity update = InferenceRequestEntity.builder()
+                .id(requestId)
+                .status(status.name())
+                .resultRef(resultRef)
+                .error(error)
+                .updatedAt(Instant.now())
+                .build();
+        writes.increment();
+        if (!enabled || (syncTerminal && isTerminal(status))) {
+            return Mono.fromCallable(() -> writeNow(update))
+                .subscribeOn(reactiveInferenceRequestRepository.scheduler());
+        }
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> done = Sinks.one();
+            boolean full;
+            synchronized (this) {
+                PendingUpdate previous = pending.get(requestId);
+                PendingUpdate next = new PendingUpdate(update);
+                if (previous != null) {
+                    coalesced.increment();
+                    next.waiters.addAll(previous.waiters);
+                }
+                next.waiters.add(done);
+                // Re-insert at the previous position so batches keep first-update order
+                pending.put(requestId, next);
+                full = pending.size() >= maxPending;
+            }
+            if (full) {
+                reactiveInferenceRequestRepository.scheduler().schedule(this::flush);
+            }
+            return done.asMono();
+        });
+    }
+
+    /**
+     * Write all pending updates in one batch. Flushes never overlap, so updates of the same request
+     * reach MySQL in order.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, PendingUpdate> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            List<InferenceRequestEntity> updates = new ArrayList<>(batch.size());
+            for (PendingUpdate pendingUpdate : batch.values()) {
+                updates.add(pendingUpdate.update);
+            }
+            try {
+                // Flushes already run on the JDBC scheduler, so call the repository directly
+                int[] counts = transition(updates);
+                int i = 0;
+                for (PendingUpdate pendingUpdate : batch.values()) {
+                    boolean applied = counts[i++] > 0;
+                    pendingUpdate.waiters.forEach(waiter -> waiter.tryEmitValue(applied));
+                }
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                logger.error("Failed to flush {} status updates", updates.size(), e);
+                batch.values().forEach(pendingUpdate -> pendingUpdate.waiters.forEach(waiter -> waiter.tryEmitError(e)));
+            }
+        }
+    }
+
+    /**
+     * Write one update immediately, replacing any buffered update of the same request. Holds the flush
+     * lock so it cannot be overtaken by an older update of the same request in a running flush.
+     */
+    private boolean writeNow(InferenceRequestEntity update) {
+        synchronized (flushLock) {
+            PendingUpdate superseded;
+            synchronized (this) {
+                superseded = pending.remove(update.getId());
+            }
+            if (superseded != null) {
+                coalesced.increment();
+            }
+            boolean applied;
+            try {
+                applied = transition(List.of(update))[0] > 0;
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                if (superseded != null) {
+                    superseded.waiters.forEach(waiter -> waiter.tryEmitError(e));
+                }
+                throw e;
+            }
+            if (superseded != null) {
+                superseded.waiters.forEach(waiter -> waiter.tryEmitValue(applied));
+            }
+            return applied;
+        }
+    }
+
+    private int[] transition(List<InferenceRequestEntity> updates) {
+        int[] counts = inferenceRequestRepository.batchTransitionStatus(updates,
+            InferenceService.RequestStatus::allowedPredecessorNames);
+        flushes.increment();
+        flushedRows.add(updates.size());
+        for (int count : counts) {
+            if (count == 0) {
+                rejectedTransitions.increment();
+            }
+        }
+        return counts;
+    }
+
+    private static boolean isTerminal(InferenceService.RequestStatus status) {
+        return status == InferenceService.RequestStatus.DONE || status == InferenceService.RequestStatus.ERROR;
+    }
+
+    /**
+     * Write, coalesce and flush counters plus the number of request ids waiting.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("pending", pending.size());
+        }
+        long flushCount = flushes.sum();
+        stats.put("enabled", enabled);
+        stats.put("sync_terminal", syncTerminal);
+        stats.put("writes", writes.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("flushes", flushCount);
+        stats.put("failed_flushes", failedFlushes.sum());
+        stats.put("rejected_transitions", rejectedTransitions.sum());
+        stats.put("avg_batch_size", flushCount > 0 ? flushedRows.sum() / (double) flushCount : 0.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush();
+        logger.info("Status write-behind flushed on shutdown");
+    }
+}
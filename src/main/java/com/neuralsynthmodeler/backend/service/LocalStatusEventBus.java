@@ -0,0 +1,22 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Status event bus for a single instance: there are no other replicas to tell.
+ */
+@Service
+@ConditionalOnProperty(name = "status.bus.type", havingValue = "local", matchIfMissing = true)
+public class LocalStatusEventBus implements StatusEventBus {
+
+    @Override
+    public void publish(String requestId, InferenceService.RequestStatus status) {
+    }
+
+    @Override
+    public Flux<StatusEvent> events() {
+        return Flux.never();
+    }
+}
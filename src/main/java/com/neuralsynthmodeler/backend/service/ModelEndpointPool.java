@@ -0,0 +1,228 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The model server replicas ({@code model.server.urls}, comma separated, falling back to
+ * {@code model.server.url}) and the routing of calls between them.
+ *
+ * Each call goes to the healthy endpoint with the fewest calls in flight, ties broken at random, so a
+ * replica busy with long predictions gets less new work than an external round-robin balancer would
+ * give it. Every {@code model.server.health.interval-ms} each endpoint's {@code /healthz} is checked;
+ * after {@code model.server.health.unhealthy-threshold} failed checks in a row it is ejected until a
+ * check succeeds again. If every endpoint is ejected, calls are spread over all of them anyway and the
+ * circuit breaker in {@link ModelServerClient} decides.
+ *
+ * Latencies of the last successful calls are kept per endpoint for the p95 used as hedging delay and
+ * for metrics.
+ */
+@Service
+public class ModelEndpointPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelEndpointPool.class);
+    private static final int LATENCY_SAMPLES = 256;
+
+    public static class Endpoint {
+        private final String url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile boolean healthy = true;
+        private int failedChecks;
+        // Ring buffer of recent latencies in milliseconds
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int nextLatency;
+
+        Endpoint(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() { return url; }
+        public int getInFlight() { return inFlight.get(); }
+        public boolean isHealthy() { return healthy; }
+
+        private synchronized void recordLatency(long millis) {
+            latencies[nextLatency] = millis;
+            nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+
+        /**
+         * Latency percentile over the recent samples, or -1 without samples.
+         */
+        public synchronized long latencyPercentile(double percentile) {
+            if (latencyCount == 0) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * latencyCount) - 1;
+            return sorted[Math.max(0, Math.min(index, latencyCount - 1))];
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final WebClient healthClient;
+    private final Duration healthTimeout;
+    private final int unhealthyThreshold;
+    private final Disposable healthChecks;
+
+    @Autowired
+    public ModelEndpointPool(@Value("${model.server.urls:${model.server.url:http://localhost:3000}}") String urls,
+                             @Value("${model.server.health.interval-ms:5000}") long healthIntervalMillis,
+                             @Value("${model.server.health.timeout-ms:2000}") long healthTimeoutMillis,
+                             @Value("${model.server.health.unhealthy-threshold:2}") int unhealthyThreshold) {
+        List<Endpoint> configured = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                configured.add(new Endpoint(url.trim().replaceAll("/+$", "")));
+            }
+        }
+        if (configured.isEmpty()) {
+            throw new IllegalArgumentException("At least one model server URL is required");
+        }
+        this.endpoints = List.copyOf(configured);
+        this.healthClient = WebClient.create();
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMillis);
+        this.unhealthyThreshold = unhealthyThreshold;
+        this.healthChecks = healthIntervalMillis > 0
+            ? Flux.interval(Duration.ofMillis(healthIntervalMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> checkHealth(), 1)
+                .subscribe()
+            : null;
+        logger.info("Model server pool with {} endpoints: {}", endpoints.size(),
+            endpoints.stream().map(Endpoint::getUrl).toList());
+    }
+
+    /**
+     * The healthy endpoint with the fewest calls in flight, other than {@code exclude} if there is a
+     * choice. Falls back to all endpoints when none is healthy.
+     */
+    public Endpoint select(Endpoint exclude) {
+        Endpoint best = pick(exclude, true);
+        if (best == null) {
+            best = pick(exclude, false);
+        }
+        return best != null ? best : exclude;
+    }
+
+    private Endpoint pick(Endpoint exclude, boolean healthyOnly) {
+        int size = endpoints.size();
+        int start = size > 1 ? ThreadLocalRandom.current().nextInt(size) : 0;
+        Endpoint best = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((start + i) % size);
+            if (candidate == exclude || (healthyOnly && !candidate.healthy)) {
+                continue;
+            }
+            if (best == null || candidate.inFlight.get() < best.inFlight.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Make a call against an endpoint, counting it in flight until it terminates or is cancelled.
+     */
+    public <T> Mono<T> call(Endpoint endpoint, Function<String, Mono<T>> call) {
+        return Mono.defer(() -> {
+            endpoint.inFlight.incrementAndGet();
+            endpoint.requests.increment();
+            long start = System.nanoTime();
+            return call.apply(endpoint.url)
+                .doOnSuccess(result -> endpoint.recordLatency(Duration.ofNanos(System.nanoTime() - start).toMillis()))
+                .doOnError(error -> endpoint.failures.increment())
+                .doFinally(signal -> endpoint.inFlight.decrementAndGet());
+        });
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    public boolean hasHealthyEndpoint() {
+        return endpoints.stream().anyMatch(Endpoint::isHealthy);
+    }
+
+    /**
+     * Check every endpoint once and eject or readmit it.
+     */
+    Mono<Void> checkHealth() {
+        return Flux.fromIterable(endpoints)
+            .flatMap(endpoint -> healthClient.get()
+                .uri(endpoint.url + "/healthz")
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(healthTimeout)
+                .map(response -> true)
+                .onErrorReturn(false)
+                .doOnNext(ok -> updateHealth(endpoint, ok)))
+            .then();
+    }
+
+    private void updateHealth(Endpoint endpoint, boolean ok) {
+        synchronized (endpoint) {
+            if (ok) {
+                endpoint.failedChecks = 0;
+                if (!endpoint.healthy) {
+                    endpoint.healthy = true;
+                    logger.info("Model server endpoint {} is healthy again", endpoint.url);
+                }
+                return;
+            }
+            if (++endpoint.failedChecks >= unhealthyThreshold && endpoint.healthy) {
+                endpoint.healthy = false;
+                logger.warn("Ejecting model server endpoint {} after {} failed health checks", endpoint.url,
+                    endpoint.failedChecks);
+            }
+        }
+    }
+
+    /**
+     * Health, in-flight calls, request and failure counts and latency percentiles per endpoint.
+     */
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> endpointStats = new HashMap<>();
+            endpointStats.put("url", endpoint.url);
+            endpointStats.put("healthy", endpoint.healthy);
+            endpointStats.put("in_flight", endpoint.inFlight.get());
+            endpointStats.put("requests", endpoint.requests.sum());
+            endpointStats.put("failures", endpoint.failures.sum());
+            endpointStats.put("p50_ms", endpoint.latencyPercentile(0.50));
+            endpointStats.put("p95_ms", endpoint.latencyPercentile(0.95));
+            stats.add(endpointStats);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.util.WavConverter;
+
+/**
+ * Brings uploaded WAV to the format the model takes before it is sent, by default 16 kHz mono 16-bit
+ * PCM ({@code model.input.sample-rate}, {@code model.input.channels}, {@code model.input.bits-per-sample}).
+ * Uploads are often 44.1 or 48 kHz stereo 24-bit, several times the bytes the model needs.
+ *
+ * The stored audio is left as uploaded, so a changed model format applies to requests already queued.
+ * Audio that cannot be parsed is sent unchanged and counted as failed. Disable with
+ * {@code model.input.convert=false} for models that take audio as uploaded.
+ */
+@Service
+public class ModelInputConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelInputConverter.class);
+
+    private final WavConverter converter;
+
+    private final LongAdder converted = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder convertNanos = new LongAdder();
+
+    @Autowired
+    public ModelInputConverter(@Value("${model.input.convert:true}") boolean enabled,
+                               @Value("${model.input.sample-rate:16000}") int sampleRate,
+                               @Value("${model.input.channels:1}") int channels,
+                               @Value("${model.input.bits-per-sample:16}") int bitsPerSample) {
+        this.converter = enabled ? new WavConverter(sampleRate, channels, bitsPerSample) : null;
+        if (enabled) {
+            logger.info("Converting audio to {} Hz, {} channels, {} bits for the model", sampleRate, channels, bitsPerSample);
+        }
+    }
+
+    /**
+     * {@code wav} in the model format, or {@code wav} itself if it already is or conversion is disabled
+     */
+    public byte[] convert(String requestId, byte[] wav) {
+        if (converter == null) {
+            return wav;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] out = converter.convert(wav);
+            bytesIn.add(wav.length);
+            bytesOut.add(out.length);
+            if (out == wav) {
+                unchanged.increment();
+            } else {
+                converted.increment();
+                convertNanos.add(System.nanoTime() - start);
+                logger.debug("Converted audio of request ID: {} from {} to {} bytes", requestId, wav.length, out.length);
+            }
+            return out;
+        } catch (IllegalArgumentException e) {
+            failed.increment();
+            logger.warn("Sending audio of request ID: {} unconverted: {}", requestId, e.getMessage());
+            return wav;
+        }
+    }
+
+    /**
+     * Requests converted, already in the model format and not parseable, bytes before and after, and
+     * time spent converting.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", converter != null);
+        stats.put("converted", converted.sum());
+        stats.put("unchanged", unchanged.sum());
+        stats.put("failed", failed.sum());
+        stats.put("bytes_in", bytesIn.sum());
+        stats.put("bytes_out", bytesOut.sum());
+        stats.put("convert_ms", convertNanos.sum() / 1_000_000);
+        return stats;
+    }
+}
@@ -0,0 +1,474 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.util.CircuitBreaker;
+
+/**
+ * HTTP client for the model server (BentoML).
+ *
+ * The wire format of the audio is selected per model with {@code model.server.transport.<model>},
+ * falling back to {@code model.server.transport} (default {@code octet-stream}):
+ * <ul>
+ *   <li>{@code octet-stream} - the WAV bytes as the raw request body</li>
+ *   <li>{@code multipart} - the WAV bytes as an {@code audio} file part</li>
+ *   <li>{@code json} - legacy {@code {"audio": "<base64>"}} payload</li>
+ * </ul>
+ * If the model server rejects a binary body as unsupported, the model is downgraded to JSON
+ * for the lifetime of the process and the request is retried once.
+ *
+ * Every call is bounded: connects time out after {@code model.server.connect-timeout-ms}, each attempt
+ * after {@code model.server.attempt-timeout-ms} and the call as a whole, retries included, after
+ * {@code model.server.deadline-ms}. Connection failures, timeouts, 429, 502, 503 and 504 are retried up
+ * to {@code model.server.retry.max-attempts} attempts in total with jittered exponential backoff;
+ * predictions are pure functions of the audio, so repeating a POST is safe. Other errors are not
+ * retried.
+ *
+ * Attempts are routed over the replicas in {@link ModelEndpointPool} and, with
+ * {@code model.server.hedge.enabled}, hedged on a second replica when slow.
+ *
+ * A {@link CircuitBreaker} tracks attempt outcomes. Once the model server fails too often it stops
+ * sending calls for {@code model.server.circuit.open-seconds}, failing them with 503 instead, then lets a
+ * few trial calls through. Client errors (4xx other than 429) mean the server is up and count as success.
+ */
+@Service
+public class ModelServerClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelServerClient.class);
+    private static final MediaType AUDIO_WAV = MediaType.parseMediaType("audio/wav");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public enum Transport {
+        JSON("json"),
+        OCTET_STREAM("octet-stream"),
+        MULTIPART("multipart");
+
+        private final String value;
+
+        Transport(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static Transport fromString(String text) {
+            for (Transport transport : Transport.values()) {
+                if (transport.value.equalsIgnoreCase(text)) {
+                    return transport;
+                }
+            }
+            throw new IllegalArgumentException("Unknown model server transport: " + text);
+        }
+    }
+
+    private final WebClient webClient;
+    private final Environment environment;
+    private final ModelEndpointPool endpointPool;
+    private final Transport defaultTransport;
+    // Models that rejected a binary body and were negotiated down to JSON
+    private final Map<String, Transport> negotiatedTransports = new ConcurrentHashMap<>();
+    private final Duration attemptTimeout;
+    private final Duration deadline;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retryMaxBackoff;
+    private final double retryJitter;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayMillis;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    @Autowired
+    public ModelServerClient(Environment environment,
+                             ModelEndpointPool endpointPool,
+                             @Value("${model.server.transport:octet-stream}") String defaultTransport,
+                             @Value("${model.server.connect-timeout-ms:2000}") int connectTimeoutMillis,
+                             @Value("${model.server.attempt-timeout-ms:30000}") long attemptTimeoutMillis,
+                             @Value("${model.server.deadline-ms:90000}") long deadlineMillis,
+                             @Value("${model.server.retry.max-attempts:3}") int maxAttempts,
+                             @Value("${model.server.retry.backoff-ms:200}") long retryBackoffMillis,
+                             @Value("${model.server.retry.max-backoff-ms:2000}") long retryMaxBackoffMillis,
+                             @Value("${model.server.retry.jitter:0.5}") double retryJitter,
+                             @Value("${model.server.circuit.window-size:20}") int circuitWindowSize,
+                             @Value("${model.server.circuit.minimum-calls:10}") int circuitMinimumCalls,
+                             @Value("${model.server.circuit.failure-rate:0.5}") double circuitFailureRate,
+                             @Value("${model.server.circuit.open-seconds:30}") long circuitOpenSeconds,
+                             @Value("${model.server.circuit.half-open-calls:2}") int circuitHalfOpenCalls,
+                             @Value("${model.server.hedge.enabled:false}") boolean hedgeEnabled,
+                             @Value("${model.server.hedge.min-delay-ms:50}") long hedgeMinDelayMillis) {
+        this.environment = environment;
+        this.endpointPool = endpointPool;
+        this.defaultTransport = Transport.fromString(defaultTransport);
+        this.attemptTimeout = Duration.ofMillis(attemptTimeoutMillis);
+        this.deadline = Duration.ofMillis(deadlineMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.retryMaxBackoff = Duration.ofMillis(retryMaxBackoffMillis);
+        this.retryJitter = retryJitter;
+        this.circuitBreaker = new CircuitBreaker(circuitWindowSize, circuitMinimumCalls, circuitFailureRate,
+                Duration.ofSeconds(circuitOpenSeconds), circuitHalfOpenCalls);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis);
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(50 * 1024 * 1024)) // 50MB
+                .build();
+    }
+
+    /**
+     * Send a decompressed WAV file to the model's predict endpoint and return the raw response body.
+     */
+    public Mono<byte[]> predict(String requestId, String model, byte[] wavData) {
+        Transport transport = getTransport(model);
+        return predict(requestId, transport, wavData)
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (transport == Transport.JSON || !isUnsupportedBody(e)) {
+                        return Mono.error(e);
+                    }
+                    logger.warn("Model server rejected {} body for model '{}' ({}), falling back to JSON",
+                        transport.getValue(), model, e.getStatusCode());
+                    negotiatedTransports.put(model.toLowerCase(), Transport.JSON);
+                    return predict(requestId, Transport.JSON, wavData);
+                });
+    }
+
+    /**
+     * Transport currently used for a model, taking negotiated fallbacks into account.
+     */
+    public Transport getTransport(String model) {
+        Transport negotiated = negotiatedTransports.get(model.toLowerCase());
+        if (negotiated != null) {
+            return negotiated;
+        }
+        String configured = environment.getProperty("model.server.transport." + model.toLowerCase());
+        return configured != null ? Transport.fromString(configured) : defaultTransport;
+    }
+
+    private Mono<byte[]> predict(String requestId, Transport transport, byte[] wavData) {
+        return resilient(baseUrl -> {
+                    String predictUrl = baseUrl + "/predict";
+                    logger.info("Sending request to: {} using {} transport, audio size: {} bytes",
+                        predictUrl, transport.getValue(), wavData.length);
+                    return webClient.post()
+                        .uri(predictUrl)
+                        .contentType(contentType(transport))
+                        .body(createBody(transport, wavData))
+                        .retrieve()
+                        .bodyToMono(byte[].class);
+                })
+                .doOnSuccess(result -> logger.info("Received response from BentoML for request ID: {}, size: {} bytes",
+                    requestId, result.length))
+                .doOnError(error -> logger.error("BentoML request failed for request ID: {}", requestId, error));
+    }
+
+    /**
+     * Send several WAV files in one call to the model's batch endpoint ({@code /predict_batch}).
+     * The model server answers with a JSON array holding one preset per input, in input order.
+     * Binary transports send one {@code audio} part per file; JSON sends {@code {"audios": [...]}}.
+     */
+    public Mono<List<byte[]>> predictBatch(List<String> requestIds, String model, List<byte[]> wavData) {
+        Transport transport = getTransport(model);
+        return predictBatch(requestIds, transport, wavData)
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (transport == Transport.JSON || !isUnsupportedBody(e)) {
+                        return Mono.error(e);
+                    }
+                    logger.warn("Model server rejected {} batch body for model '{}' ({}), falling back to JSON",
+                        Transport.MULTIPART.getValue(), model, e.getStatusCode());
+                    negotiatedTransports.put(model.toLowerCase(), Transport.JSON);
+                    return predictBatch(requestIds, Transport.JSON, wavData);
+                });
+    }
+
+    private Mono<List<byte[]>> predictBatch(List<String> requestIds, Transport transport, List<byte[]> wavData) {
+        return resilient(baseUrl -> {
+                    String batchUrl = baseUrl + "/predict_batch";
+                    logger.info("Sending batch of {} requests to: {} using {} transport", wavData.size(), batchUrl,
+                        transport == Transport.JSON ? Transport.JSON.getValue() : Transport.MULTIPART.getValue());
+                    return webClient.post()
+                        .uri(batchUrl)
+                        .contentType(transport == Transport.JSON ? MediaType.APPLICATION_JSON : MediaType.MULTIPART_FORM_DATA)
+                        .body(createBatchBody(transport, wavData))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class);
+                })
+                .map(response -> splitBatchResponse(response, wavData.size()))
+                .doOnSuccess(results -> logger.info("Received batch response from BentoML for request IDs: {}", requestIds))
+                .doOnError(error -> logger.error("BentoML batch request failed for request IDs: {}", requestIds, error));
+    }
+
+    /**
+     * Run a model server call with the circuit breaker, per-attempt timeout, retries and overall deadline.
+     * Each attempt is routed to an endpoint of the pool and may be hedged.
+     */
+    private <T> Mono<T> resilient(Function<String, Mono<T>> call) {
+        calls.increment();
+        return Mono.defer(() -> {
+                if (!circuitBreaker.tryAcquire()) {
+                    return Mono.<T>error(circuitOpen());
+                }
+                // Exactly one outcome per permitted attempt, whichever signal comes first
+                AtomicBoolean reported = new AtomicBoolean();
+                return attempt(call)
+                    .timeout(attemptTimeout)
+                    .doOnSuccess(result -> {
+                        if (reported.compareAndSet(false, true)) {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (error instanceof TimeoutException) {
+                            timeouts.increment();
+                        }
+                        if (!reported.compareAndSet(false, true)) {
+                            return;
+                        }
+                        if (isServerFailure(error)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    // Cut short by the deadline
+                    .doOnCancel(() -> {
+                        if (reported.compareAndSet(false, true)) {
+                            circuitBreaker.onFailure();
+                        }
+                    });
+            })
+            .retryWhen(Retry.backoff(maxAttempts - 1, retryBackoff)
+                .maxBackoff(retryMaxBackoff)
+                .jitter(retryJitter)
+                .filter(ModelServerClient::isRetryable)
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    logger.warn("Retrying model server call after attempt {} failed: {}",
+                        signal.totalRetries() + 1, signal.failure().toString());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .timeout(deadline)
+            .doOnError(error -> failures.increment());
+    }
+
+    /**
+     * One attempt against the least loaded endpoint. With hedging, if it has not answered within that
+     * endpoint's p95 latency (at least {@code model.server.hedge.min-delay-ms}), the same call is also
+     * sent to another endpoint and whichever answers first wins; the other call is cancelled. A failed
+     * hedge is ignored, a failed first call ends the attempt.
+     */
+    private <T> Mono<T> attempt(Function<String, Mono<T>> call) {
+        return Mono.defer(() -> {
+            ModelEndpointPool.Endpoint primary = endpointPool.select(null);
+            Mono<T> first = endpointPool.call(primary, call);
+            if (!hedgeEnabled || endpointPool.size() < 2) {
+                return first;
+            }
+            long delay = Math.max(hedgeMinDelayMillis, primary.latencyPercentile(0.95));
+            Mono<T> hedge = Mono.delay(Duration.ofMillis(delay))
+                .then(Mono.defer(() -> {
+                    hedges.increment();
+                    ModelEndpointPool.Endpoint second = endpointPool.select(primary);
+                    logger.debug("Hedging model server call to {} after {} ms on {}", second.getUrl(), delay,
+                        primary.getUrl());
+                    return endpointPool.call(second, call);
+                }))
+                .onErrorResume(error -> Mono.never());
+            return Mono.firstWithSignal(first, hedge);
+        });
+    }
+
+    /**
+     * Whether at least one model server endpoint passed its last health checks.
+     */
+    public boolean hasHealthyEndpoint() {
+        return endpointPool.hasHealthyEndpoint();
+    }
+
+    private InferenceRejectedException circuitOpen() {
+        return new InferenceRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+            Math.max(1, circuitBreaker.getRemainingOpenSeconds()), "Model server circuit is open, retry later");
+    }
+
+    /**
+     * Whether new work should be held back because the model server is failing.
+     */
+    public boolean isCircuitOpen() {
+        return circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Fail fast with 503 while the circuit is open.
+     *
+     * @throws InferenceRejectedException If the circuit is open
+     */
+    public void checkAvailable() {
+        if (isCircuitOpen()) {
+            throw circuitOpen();
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Call, retry, timeout and failure counters plus the circuit breaker state.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("retries", retries.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("failures", failures.sum());
+        stats.put("hedges", hedges.sum());
+        stats.put("circuit", circuitBreaker.getStats());
+        stats.put("endpoints", endpointPool.getStats());
+        return stats;
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        return false;
+    }
+
+    private static boolean isServerFailure(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private static BodyInserter<?, ? super ClientHttpRequest> createBatchBody(Transport transport, List<byte[]> wavData) {
+        if (transport == Transport.JSON) {
+            List<String> audios = new ArrayList<>(wavData.size());
+            for (byte[] wav : wavData) {
+                audios.add(Base64.getEncoder().encodeToString(wav));
+            }
+            return BodyInserters.fromValue(Map.of("audios", audios));
+        }
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        for (int i = 0; i < wavData.size(); i++) {
+            String filename = "audio_" + i + ".wav";
+            builder.part("audio", new ByteArrayResource(wavData.get(i)) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+            }).contentType(AUDIO_WAV);
+        }
+        return BodyInserters.fromMultipartData(builder.build());
+    }
+
+    private static List<byte[]> splitBatchResponse(JsonNode response, int expected) {
+        if (response == null || !response.isArray() || response.size() != expected) {
+            throw new IllegalStateException(String.format(
+                "Batch response from model server must be an array of %d results", expected));
+        }
+        List<byte[]> results = new ArrayList<>(expected);
+        for (JsonNode node : response) {
+            try {
+                results.add(node.isTextual()
+                    ? node.asText().getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(node));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize batch result", e);
+            }
+        }
+        return results;
+    }
+
+    static MediaType contentType(Transport transport) {
+        switch (transport) {
+            case OCTET_STREAM:
+                return MediaType.APPLICATION_OCTET_STREAM;
+            case MULTIPART:
+                return MediaType.MULTIPART_FORM_DATA;
+            default:
+                return MediaType.APPLICATION_JSON;
+        }
+    }
+
+    /**
+     * Build the request body for a transport. Binary transports wrap the WAV array in a
+     * {@link DataBuffer} without copying it.
+     */
+    static BodyInserter<?, ? super ClientHttpRequest> createBody(Transport transport, byte[] wavData) {
+        switch (transport) {
+            case OCTET_STREAM:
+                Flux<DataBuffer> body = Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(wavData)));
+                return BodyInserters.fromDataBuffers(body);
+            case MULTIPART:
+                MultipartBodyBuilder builder = new MultipartBodyBuilder();
+                builder.part("audio", new ByteArrayResource(wavData) {
+                    @Override
+                    public String getFilename() {
+                        return "audio.wav";
+                    }
+                }).contentType(AUDIO_WAV);
+                return BodyInserters.fromMultipartData(builder.build());
+            default:
+                // Convert wav audio data to base64 and create JSON payload
+                String base64Audio = Base64.getEncoder().encodeToString(wavData);
+                return BodyInserters.fromValue(Map.of("audio", base64Audio));
+        }
+    }
+
+    // Only 415 means the body type is unsupported. A 400 or 422 is about the audio itself and must not
+    // pin the model to JSON for every later request.
+    private static boolean isUnsupportedBody(WebClientResponseException e) {
+        return e.getStatusCode().isSameCodeAs(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+}
@@ -3,6 +3,7 @@ package com.neuralsynthmodeler.backend.service;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.InsertOneResult;
 import com.mongodb.client.result.UpdateResult;
@@ -13,23 +14,36 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Optional;
 import java.util.UUID;
+import com.neuralsynthmodeler.backend.util.GzipCodec;
+import com.neuralsynthmodeler.backend.util.IdentityCodec;
 import com.neuralsynthmodeler.backend.util.VitalPresetUtils;
 
 @Service
 public class MongoDBAudioStorageService implements AudioStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(MongoDBAudioStorageService.class);
+
+    /**
+     * Chunks of audio stored in chunked mode, see {@link MongoDBReactiveAudioStorageService}
+     */
+    static final String CHUNK_COLLECTION = "audio_chunks";
     
     private final MongoDatabase mongoDatabase;
     private final MongoCollection<Document> audioCollection;
+    private final MongoCollection<Document> chunkCollection;
     private final MongoCollection<Document> presetCollection;
+    private final StorageCodecs storageCodecs;
 
     @Autowired
-    public MongoDBAudioStorageService(MongoDatabase mongoDatabase) {
+    public MongoDBAudioStorageService(MongoDatabase mongoDatabase, StorageCodecs storageCodecs) {
         this.mongoDatabase = mongoDatabase;
+        this.storageCodecs = storageCodecs;
         this.audioCollection = mongoDatabase.getCollection("audio_files");
+        this.chunkCollection = mongoDatabase.getCollection(CHUNK_COLLECTION);
         this.presetCollection = mongoDatabase.getCollection("preset_files");
     }
 
@@ -41,14 +55,7 @@ public class MongoDBAudioStorageService implements AudioStorageService {
     @Override
     public String storeAudio(byte[] audioData, int compressedSize, int uncompressedSize) {
         String audioRef = UUID.randomUUID().toString();
-        
-        Document audioDoc = new Document()
-                .append("_id", audioRef)
-                .append("data", new Binary(audioData))
-                .append("compressed_size", compressedSize)
-                .append("uncompressed_size", uncompressedSize)
-                .append("preset_ref", null) // Will be updated when preset is stored
-                .append("created_at", System.currentTimeMillis());
+        Document audioDoc = buildAudioDocument(audioRef, audioData, GzipCodec.NAME, compressedSize, uncompressedSize);
         
         try{
             InsertOneResult result = audioCollection.insertOne(audioDoc);
@@ -67,7 +74,15 @@ public class MongoDBAudioStorageService implements AudioStorageService {
         Document audioDoc = audioCollection.find(Filters.eq("_id", audioRef)).first();
         if (audioDoc != null) {
             Binary binaryData = audioDoc.get("data", Binary.class);
-            return Optional.of(binaryData.getData());
+            if (binaryData != null) {
+                return Optional.of(binaryData.getData());
+            }
+            // Chunked audio, written by the reactive service
+            ByteArrayOutputStream audio = new ByteArrayOutputStream(audioDoc.getInteger("compressed_size", 0));
+            for (Document chunk : chunkCollection.find(Filters.eq("audio_ref", audioRef)).sort(Sorts.ascending("n"))) {
+                audio.writeBytes(chunk.get("data", Binary.class).getData());
+            }
+            return Optional.of(audio.toByteArray());
         }
         return Optional.empty();
     }
@@ -75,48 +90,19 @@ public class MongoDBAudioStorageService implements AudioStorageService {
     @Override
     public void deleteAudio(String audioRef) {
         audioCollection.deleteOne(Filters.eq("_id", audioRef));
+        chunkCollection.deleteMany(Filters.eq("audio_ref", audioRef));
     }
     
     @Override
     public String storePreset(byte[] presetData, String synthType, String audioRef) {
         String presetRef = UUID.randomUUID().toString();
-        long createdAt = System.currentTimeMillis();
-        
-        // Extract metadata based on synth type
-        String presetName = null;
-        String author = null;
-        String presetStyle = null;
-        String presetStyles = null;
-        String synthVersion = null;
-        
-        if ("vital".equalsIgnoreCase(synthType)) {
-            Optional<VitalPresetUtils.VitalPresetMetadata> vitalMetadata = VitalPresetUtils.extractMetadata(presetData);
-            if (vitalMetadata.isPresent()) {
-                VitalPresetUtils.VitalPresetMetadata meta = vitalMetadata.get();
-                presetName = meta.getPresetStyle(); // Use preset_style as name
-                author = meta.getAuthor();
-                presetStyle = meta.getPresetStyle();
-                presetStyles = meta.getPresetStyles();
-                synthVersion = meta.getSynthVersion();
-            }
-        }
-        
-        Document presetDoc = new Document()
-                .append("_id", presetRef)
-                .append("data", new Binary(presetData))
-                .append("audio_ref", audioRef)
-                .append("synth_type", synthType)
-                .append("preset_name", presetName)
-                .append("author", author)
-                .append("preset_style", presetStyle)
-                .append("synth_version", synthVersion)
-                .append("size", presetData.length)
-                .append("created_at", createdAt);
         
         try {
+            Document presetDoc = buildPresetDocument(presetRef, presetData, storageCodecs.presetCodec().encode(presetData),
+                storageCodecs.presetCodec().name(), synthType, audioRef);
             InsertOneResult result = presetCollection.insertOne(presetDoc);
             logger.info("Stored preset in MongoDB - ID: {}, synth: {}, name: '{}', author: '{}', size: {} bytes, audio_ref: {}", 
-                presetRef, synthType, presetName, author, presetData.length, audioRef);
+                presetRef, synthType, presetDoc.getString("preset_name"), presetDoc.getString("author"), presetData.length, audioRef);
             
             // Update the audio record with the preset reference
             audioCollection.updateOne(
@@ -126,6 +112,9 @@ public class MongoDBAudioStorageService implements AudioStorageService {
             logger.info("Updated audio record {} with preset reference {}", audioRef, presetRef);
             
             return presetRef;
+        } catch (IOException e) {
+            logger.error("Failed to compress preset - ID: {}, error: {}", presetRef, e.getMessage());
+            throw new RuntimeException("Failed to compress preset", e);
         } catch (Exception e) {
             logger.error("Failed to store preset in MongoDB - ID: {}, error: {}", presetRef, e.getMessage());
             throw e;
@@ -136,8 +125,7 @@ public class MongoDBAudioStorageService implements AudioStorageService {
     public Optional<byte[]> retrievePreset(String presetRef) {
         Document presetDoc = presetCollection.find(Filters.eq("_id", presetRef)).first();
         if (presetDoc != null) {
-            Binary binaryData = presetDoc.get("data", Binary.class);
-            return Optional.of(binaryData.getData());
+            return Optional.of(decodePreset(presetDoc, storageCodecs));
         }
         return Optional.empty();
     }
@@ -146,18 +134,7 @@ public class MongoDBAudioStorageService implements AudioStorageService {
     public Optional<AudioStorageService.PresetMetadata> retrievePresetMetadata(String presetRef) {
         Document presetDoc = presetCollection.find(Filters.eq("_id", presetRef)).first();
         if (presetDoc != null) {
-            AudioStorageService.PresetMetadata metadata = new AudioStorageService.PresetMetadata(
-                presetRef,
-                presetDoc.getString("synth_type"),
-                presetDoc.getString("preset_name"),
-                presetDoc.getString("author"),
-                presetDoc.getString("preset_style"),
-                presetDoc.getString("preset_styles"),
-                presetDoc.getString("synth_version"),
-                presetDoc.getInteger("size", 0),
-                presetDoc.getLong("created_at")
-            );
-            return Optional.of(metadata);
+            return Optional.of(toPresetMetadata(presetDoc));
         }
         return Optional.empty();
     }
@@ -186,4 +163,116 @@ public class MongoDBAudioStorageService implements AudioStorageService {
         }
         return Optional.empty();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Build the audio_files document for a stored audio blob
+     */
+    static Document buildAudioDocument(String audioRef, byte[] audioData, String codec, int compressedSize, int uncompressedSize) {
+        return new Document()
+                .append("_id", audioRef)
+                .append("data", new Binary(audioData))
+                .append("codec", codec)
+                .append("compressed_size", compressedSize)
+                .append("uncompressed_size", uncompressedSize)
+                .append("preset_ref", null) // Will be updated when preset is stored
+                .append("created_at", System.currentTimeMillis());
+    }
+
+    /**
+     * Build the audio_files document for audio stored in {@code chunkCount} chunks of {@code chunkSize}
+     * bytes, the last one possibly shorter. It has no data; the chunks are in {@link #CHUNK_COLLECTION}.
+     */
+    static Document buildChunkedAudioDocument(String audioRef, String codec, long length, int chunkSize, int chunkCount,
+                                              int compressedSize, int uncompressedSize, long createdAt) {
+        return new Document()
+                .append("_id", audioRef)
+                .append("codec", codec)
+                .append("length", length)
+                .append("chunk_size", chunkSize)
+                .append("chunk_count", chunkCount)
+                .append("compressed_size", compressedSize)
+                .append("uncompressed_size", uncompressedSize)
+                .append("preset_ref", null)
+                .append("created_at", createdAt);
+    }
+
+    /**
+     * Build the document for chunk {@code n} of chunked audio
+     */
+    static Document buildChunkDocument(String audioRef, int n, byte[] data, long createdAt) {
+        return new Document()
+                .append("audio_ref", audioRef)
+                .append("n", n)
+                .append("data", new Binary(data))
+                .append("created_at", createdAt);
+    }
+
+    /**
+     * Build the preset_files document, extracting metadata based on synth type. {@code storedData} is
+     * {@code presetData} compressed with {@code codec}; size is that of the uncompressed preset.
+     */
+    static Document buildPresetDocument(String presetRef, byte[] presetData, byte[] storedData, String codec,
+                                        String synthType, String audioRef) {
+        String presetName = null;
+        String author = null;
+        String presetStyle = null;
+        String presetStyles = null;
+        String synthVersion = null;
+        
+        if ("vital".equalsIgnoreCase(synthType)) {
+            Optional<VitalPresetUtils.VitalPresetMetadata> vitalMetadata = VitalPresetUtils.extractMetadata(presetData);
+            if (vitalMetadata.isPresent()) {
+                VitalPresetUtils.VitalPresetMetadata meta = vitalMetadata.get();
+                presetName = meta.getPresetStyle(); // Use preset_style as name
+                author = meta.getAuthor();
+                presetStyle = meta.getPresetStyle();
+                presetStyles = meta.getPresetStyles();
+                synthVersion = meta.getSynthVersion();
+            }
+        }
+        
+        return new Document()
+                .append("_id", presetRef)
+                .append("data", new Binary(storedData))
+                .append("codec", codec)
+                .append("audio_ref", audioRef)
+                .append("synth_type", synthType)
+                .append("preset_name", presetName)
+                .append("author", author)
+                .append("preset_style", presetStyle)
+                .append("preset_styles", presetStyles)
+                .append("synth_version", synthVersion)
+                .append("size", presetData.length)
+                .append("stored_size", storedData.length)
+                .append("created_at", System.currentTimeMillis());
+    }
+
+    /**
+     * The preset data of a preset_files document, decompressed with the codec it was stored with
+     */
+    static byte[] decodePreset(Document presetDoc, StorageCodecs storageCodecs) {
+        byte[] stored = presetDoc.get("data", Binary.class).getData();
+        try {
+            return storageCodecs.forTag(presetDoc.getString("codec"), IdentityCodec.INSTANCE).decode(stored);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decompress preset " + presetDoc.getString("_id"), e);
+        }
+    }
+
+    /**
+     * Map a preset_files document to its metadata
+     */
+    static AudioStorageService.PresetMetadata toPresetMetadata(Document presetDoc) {
+        return new AudioStorageService.PresetMetadata(
+            presetDoc.getString("_id"),
+            presetDoc.getString("synth_type"),
+            presetDoc.getString("preset_name"),
+            presetDoc.getString("author"),
+            presetDoc.getString("preset_style"),
+            presetDoc.getString("preset_styles"),
+            presetDoc.getString("synth_version"),
+            presetDoc.getInteger("size", 0),
+            presetDoc.getLong("created_at")
+        );
+    }
+}
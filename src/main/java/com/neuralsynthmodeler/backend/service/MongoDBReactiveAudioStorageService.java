@@ -0,0 +1,297 @@
+package com.neuralsynthmodeler.backend.service;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MongoDB storage on the reactive streams driver. Uses the same collections and document
+ * layout as {@link MongoDBAudioStorageService}, so both can be used side by side.
+ *
+ * With {@code audio.storage.mode=chunked}, the default, audio is split into chunks of
+ * {@code audio.storage.chunk-size-bytes} in the audio_chunks collection and the audio_files document
+ * only keeps its length and chunk layout, so recordings are not limited by the 16 MB document size and
+ * are written and read a few chunks at a time. Chunks are written before the audio_files document, so
+ * audio is never visible half written. {@code inline} keeps the data in the audio_files document, for
+ * as long as instances that cannot read chunks share the database. Reads handle both layouts.
+ */
+@Service
+public class MongoDBReactiveAudioStorageService implements ReactiveAudioStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoDBReactiveAudioStorageService.class);
+
+    // Leaves room for the other chunk fields under the 16 MB document limit
+    static final int MAX_CHUNK_SIZE = 15 * 1024 * 1024;
+    // Chunks inserted at once while storing and fetched per cursor batch while reading
+    private static final int CHUNKS_IN_FLIGHT = 4;
+
+    private final MongoCollection<Document> audioCollection;
+    private final MongoCollection<Document> chunkCollection;
+    private final MongoCollection<Document> presetCollection;
+    private final StorageCodecs storageCodecs;
+    private final boolean chunked;
+    private final int chunkSize;
+
+    @Autowired
+    public MongoDBReactiveAudioStorageService(MongoDatabase reactiveMongoDatabase,
+                                              StorageCodecs storageCodecs,
+                                              @Value("${audio.storage.mode:chunked}") String storageMode,
+                                              @Value("${audio.storage.chunk-size-bytes:261120}") int chunkSize) {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("audio.storage.chunk-size-bytes must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        this.audioCollection = reactiveMongoDatabase.getCollection("audio_files");
+        this.chunkCollection = reactiveMongoDatabase.getCollection(MongoDBAudioStorageService.CHUNK_COLLECTION);
+        this.presetCollection = reactiveMongoDatabase.getCollection("preset_files");
+        this.storageCodecs = storageCodecs;
+        this.chunked = !"inline".equalsIgnoreCase(storageMode);
+        this.chunkSize = chunkSize;
+        Mono.from(chunkCollection.createIndex(Indexes.ascending("audio_ref", "n"), new IndexOptions().unique(true)))
+            .subscribe(null, e -> logger.warn("Could not create audio chunk index: {}", e.getMessage()));
+    }
+
+    @Override
+    public Mono<String> storeAudio(byte[] audioData, String codec, int compressedSize, int uncompressedSize) {
+        if (chunked) {
+            Flux<DataBuffer> content = Flux.range(0, (audioData.length + chunkSize - 1) / chunkSize)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(audioData, i * chunkSize,
+                    Math.min(chunkSize, audioData.length - i * chunkSize))));
+            return storeAudioContent(content, codec, compressedSize, uncompressedSize);
+        }
+        String audioRef = UUID.randomUUID().toString();
+        Document audioDoc = MongoDBAudioStorageService.buildAudioDocument(audioRef, audioData, codec, compressedSize, uncompressedSize);
+
+        return Mono.from(audioCollection.insertOne(audioDoc))
+                .doOnSuccess(result -> logger.info("Stored audio in MongoDB - ID: {}, compressed: {} bytes, uncompressed: {} bytes",
+                    audioRef, compressedSize, uncompressedSize))
+                .doOnError(e -> logger.error("Failed to store audio in MongoDB - ID: {}, error: {}", audioRef, e.getMessage()))
+                .thenReturn(audioRef);
+    }
+
+    @Override
+    public Mono<String> storeAudioContent(Flux<DataBuffer> content, String codec, int compressedSize, int uncompressedSize) {
+        String audioRef = UUID.randomUUID().toString();
+        long createdAt = System.currentTimeMillis();
+        AtomicLong length = new AtomicLong();
+        AtomicInteger count = new AtomicInteger();
+
+        return chunks(content, chunkSize)
+                .map(data -> {
+                    length.addAndGet(data.length);
+                    return MongoDBAudioStorageService.buildChunkDocument(audioRef, count.getAndIncrement(), data, createdAt);
+                })
+                .flatMap(chunk -> Mono.from(chunkCollection.insertOne(chunk)), CHUNKS_IN_FLIGHT)
+                .then(Mono.defer(() -> Mono.from(audioCollection.insertOne(MongoDBAudioStorageService.buildChunkedAudioDocument(
+                    audioRef, codec, length.get(), chunkSize, count.get(), compressedSize, uncompressedSize, createdAt)))))
+                .doOnSuccess(result -> logger.info("Stored audio in MongoDB - ID: {}, {} chunks, compressed: {} bytes, uncompressed: {} bytes",
+                    audioRef, count.get(), length.get(), uncompressedSize))
+                .onErrorResume(e -> {
+                    logger.error("Failed to store audio in MongoDB - ID: {}, error: {}", audioRef, e.getMessage());
+                    // Chunks left behind anyway are removed by retention
+                    return Mono.from(chunkCollection.deleteMany(Filters.eq("audio_ref", audioRef)))
+                        .onErrorResume(deleteError -> Mono.empty())
+                        .then(Mono.error(e));
+                })
+                .thenReturn(audioRef);
+    }
+
+    @Override
+    public Mono<byte[]> retrieveAudio(String audioRef) {
+        return findAudio(audioRef)
+                .flatMap(audioDoc -> {
+                    Binary inline = audioDoc.get("data", Binary.class);
+                    if (inline != null) {
+                        return Mono.just(inline.getData());
+                    }
+                    long length = audioDoc.get("length", Number.class).longValue();
+                    if (length > Integer.MAX_VALUE - 8) {
+                        return Mono.error(new IllegalStateException("Audio " + audioRef + " of " + length
+                            + " bytes is too large to load at once"));
+                    }
+                    byte[] audio = new byte[(int) length];
+                    AtomicInteger position = new AtomicInteger();
+                    return readChunks(audioDoc, 0, length)
+                        .doOnNext(buffer -> {
+                            int size = buffer.readableByteCount();
+                            buffer.read(audio, position.getAndAdd(size), size);
+                        })
+                        .then(Mono.fromSupplier(() -> audio));
+                });
+    }
+
+    @Override
+    public Flux<DataBuffer> retrieveAudioContent(String audioRef) {
+        return retrieveAudioContent(audioRef, 0, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Flux<DataBuffer> retrieveAudioContent(String audioRef, long offset, long length) {
+        if (offset < 0 || length < 0) {
+            return Flux.error(new IllegalArgumentException("Invalid range " + offset + "+" + length));
+        }
+        return findAudio(audioRef)
+                .flatMapMany(audioDoc -> {
+                    Binary inline = audioDoc.get("data", Binary.class);
+                    if (inline == null) {
+                        return readChunks(audioDoc, offset, length);
+                    }
+                    byte[] data = inline.getData();
+                    int start = (int) Math.min(offset, data.length);
+                    int size = (int) Math.min(length, data.length - start);
+                    return size > 0
+                        ? Flux.just((DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(data, start, size)))
+                        : Flux.empty();
+                });
+    }
+
+    private Mono<Document> findAudio(String audioRef) {
+        return Mono.from(audioCollection.find(Filters.eq("_id", audioRef)).first());
+    }
+
+    /**
+     * Read {@code length} bytes from {@code offset} of chunked audio, fetching only the chunks that
+     * overlap the range, a few at a time. Fails if a chunk is missing.
+     */
+    private Flux<DataBuffer> readChunks(Document audioDoc, long offset, long length) {
+        String audioRef = audioDoc.getString("_id");
+        long audioLength = audioDoc.get("length", Number.class).longValue();
+        int audioChunkSize = audioDoc.getInteger("chunk_size");
+        long start = Math.min(offset, audioLength);
+        long end = start + Math.min(length, audioLength - start);
+        if (start >= end) {
+            return Flux.empty();
+        }
+        int first = (int) (start / audioChunkSize);
+        int last = (int) ((end - 1) / audioChunkSize);
+        AtomicInteger expected = new AtomicInteger(first);
+        return Flux.from(chunkCollection.find(Filters.and(Filters.eq("audio_ref", audioRef),
+                    Filters.gte("n", first), Filters.lte("n", last)))
+                .projection(Projections.include("n", "data"))
+                .sort(Sorts.ascending("n"))
+                .batchSize(CHUNKS_IN_FLIGHT))
+            .<DataBuffer>handle((chunk, sink) -> {
+                int n = chunk.getInteger("n");
+                int next = expected.getAndIncrement();
+                if (n != next) {
+                    sink.error(new IllegalStateException("Audio " + audioRef + " is missing chunk " + next));
+                    return;
+                }
+                byte[] data = chunk.get("data", Binary.class).getData();
+                long chunkStart = (long) n * audioChunkSize;
+                int from = (int) Math.max(0, start - chunkStart);
+                int to = (int) Math.min(data.length, end - chunkStart);
+                sink.next(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(data, from, to - from)));
+            })
+            .concatWith(Mono.defer(() -> expected.get() > last
+                ? Mono.empty()
+                : Mono.error(new IllegalStateException("Audio " + audioRef + " is missing chunk " + expected.get()))));
+    }
+
+    /**
+     * Regroup {@code content} into arrays of {@code chunkSize} bytes, the last one possibly shorter,
+     * releasing each buffer once copied.
+     */
+    static Flux<byte[]> chunks(Flux<DataBuffer> content, int chunkSize) {
+        return Flux.defer(() -> {
+            byte[][] current = {new byte[chunkSize]};
+            int[] filled = {0};
+            return content
+                .concatMapIterable(buffer -> {
+                    List<byte[]> full = new ArrayList<>(1);
+                    try {
+                        while (buffer.readableByteCount() > 0) {
+                            int size = Math.min(chunkSize - filled[0], buffer.readableByteCount());
+                            buffer.read(current[0], filled[0], size);
+                            filled[0] += size;
+                            if (filled[0] == chunkSize) {
+                                full.add(current[0]);
+                                current[0] = new byte[chunkSize];
+                                filled[0] = 0;
+                            }
+                        }
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                    return full;
+                })
+                .concatWith(Mono.fromSupplier(() -> Arrays.copyOf(current[0], filled[0]))
+                    .filter(rest -> rest.length > 0));
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteAudio(String audioRef) {
+        return Mono.from(audioCollection.deleteOne(Filters.eq("_id", audioRef)))
+                .then(Mono.from(chunkCollection.deleteMany(Filters.eq("audio_ref", audioRef))))
+                .then();
+    }
+
+    @Override
+    public Mono<String> getPresetRefForAudio(String audioRef) {
+        return Mono.from(audioCollection.find(Filters.eq("_id", audioRef)).first())
+                .mapNotNull(audioDoc -> audioDoc.getString("preset_ref"));
+    }
+
+    @Override
+    public Mono<String> storePreset(byte[] presetData, String synthType, String audioRef) {
+        String presetRef = UUID.randomUUID().toString();
+        return Mono.fromCallable(() -> MongoDBAudioStorageService.buildPresetDocument(presetRef, presetData,
+                    storageCodecs.presetCodec().encode(presetData), storageCodecs.presetCodec().name(), synthType, audioRef))
+                .flatMap(presetDoc -> Mono.from(presetCollection.insertOne(presetDoc)))
+                .doOnSuccess(result -> logger.info("Stored preset in MongoDB - ID: {}, synth: {}, size: {} bytes, audio_ref: {}",
+                    presetRef, synthType, presetData.length, audioRef))
+                // Update the audio record with the preset reference
+                .then(Mono.from(audioCollection.updateOne(Filters.eq("_id", audioRef), Updates.set("preset_ref", presetRef))))
+                .doOnSuccess(result -> logger.info("Updated audio record {} with preset reference {}", audioRef, presetRef))
+                .doOnError(e -> logger.error("Failed to store preset in MongoDB - ID: {}, error: {}", presetRef, e.getMessage()))
+                .thenReturn(presetRef);
+    }
+
+    @Override
+    public Mono<byte[]> retrievePreset(String presetRef) {
+        return Mono.from(presetCollection.find(Filters.eq("_id", presetRef)).first())
+                .map(presetDoc -> MongoDBAudioStorageService.decodePreset(presetDoc, storageCodecs));
+    }
+
+    @Override
+    public Mono<AudioStorageService.PresetMetadata> retrievePresetMetadata(String presetRef) {
+        return Mono.from(presetCollection.find(Filters.eq("_id", presetRef)).first())
+                .map(MongoDBAudioStorageService::toPresetMetadata);
+    }
+
+    @Override
+    public Mono<Void> deletePreset(String presetRef) {
+        return Mono.from(presetCollection.deleteOne(Filters.eq("_id", presetRef))).then();
+    }
+
+    @Override
+    public Mono<String> getAudioRefForPreset(String presetRef) {
+        return Mono.from(presetCollection.find(Filters.eq("_id", presetRef)).first())
+                .mapNotNull(presetDoc -> presetDoc.getString("audio_ref"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Status event bus on a MongoDB change stream.
+ *
+ * Each status change is inserted into the {@code status_events} collection; every instance watches
+ * inserts made by other instances. A TTL index removes events after {@code status.bus.mongo.ttl-seconds}.
+ * Change streams need a replica set; a single-node replica set is enough for local testing with two
+ * instances (different {@code server.port}) against one MongoDB.
+ */
+@Service
+@ConditionalOnProperty(name = "status.bus.type", havingValue = "mongo")
+public class MongoStatusEventBus implements StatusEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoStatusEventBus.class);
+
+    private final MongoCollection<Document> eventCollection;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Flux<StatusEvent> events;
+
+    @Autowired
+    public MongoStatusEventBus(MongoDatabase reactiveMongoDatabase,
+                               @Value("${status.bus.mongo.ttl-seconds:3600}") long ttlSeconds) {
+        this.eventCollection = reactiveMongoDatabase.getCollection("status_events");
+        Mono.from(eventCollection.createIndex(Indexes.ascending("created_at"),
+                new IndexOptions().expireAfter(ttlSeconds, TimeUnit.SECONDS)))
+            .subscribe(null, e -> logger.warn("Could not create TTL index on status_events: {}", e.getMessage()));
+        this.events = Flux.defer(() -> Flux.from(eventCollection.watch(List.of(Aggregates.match(Filters.and(
+                    Filters.eq("operationType", "insert"),
+                    Filters.ne("fullDocument.origin", instanceId)))))))
+            .map(ChangeStreamDocument::getFullDocument)
+            .map(document -> new StatusEvent(document.getString("request_id"),
+                InferenceService.RequestStatus.valueOf(document.getString("status"))))
+            .doOnError(e -> logger.warn("Status change stream failed, reconnecting: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .share();
+        logger.info("MongoDB status event bus started, instance ID: {}", instanceId);
+    }
+
+    @Override
+    public void publish(String requestId, InferenceService.RequestStatus status) {
+        Document event = new Document()
+                .append("request_id", requestId)
+                .append("status", status.name())
+                .append("origin", instanceId)
+                .append("created_at", new Date());
+        Mono.from(eventCollection.insertOne(event))
+            .subscribe(null, e -> logger.warn("Failed to publish status event for request ID {}: {}", requestId, e.getMessage()));
+    }
+
+    @Override
+    public Flux<StatusEvent> events() {
+        return events;
+    }
+}
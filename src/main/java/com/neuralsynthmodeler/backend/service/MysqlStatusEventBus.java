@@ -0,0 +1,91 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Status event bus that polls INFERENCE_REQUEST for rows updated since the last poll.
+ *
+ * Nothing is published: the rows are written anyway. Every {@code status.bus.poll-interval-ms} rows with
+ * {@code updated_at} after the watermark minus {@code status.bus.mysql.overlap-ms} are read in pages of
+ * {@code status.bus.mysql.batch-size}, keyed on {@code (updated_at, id)}, until a page comes back short.
+ * The overlap covers clock skew between replicas, at the cost of repeated events. Needs no infrastructure
+ * beyond MySQL, so two instances against one local MySQL are enough to try it.
+ */
+@Service
+@ConditionalOnProperty(name = "status.bus.type", havingValue = "mysql")
+public class MysqlStatusEventBus implements StatusEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(MysqlStatusEventBus.class);
+
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final Duration overlap;
+    private final int batchSize;
+    private final AtomicReference<Instant> watermark = new AtomicReference<>(Instant.now());
+    private final Flux<StatusEvent> events;
+
+    @Autowired
+    public MysqlStatusEventBus(ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                               @Value("${status.bus.poll-interval-ms:500}") long pollIntervalMillis,
+                               @Value("${status.bus.mysql.overlap-ms:2000}") long overlapMillis,
+                               @Value("${status.bus.mysql.batch-size:1000}") int batchSize) {
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.overlap = Duration.ofMillis(overlapMillis);
+        this.batchSize = batchSize;
+        this.events = Flux.interval(Duration.ofMillis(pollIntervalMillis))
+            .onBackpressureDrop()
+            .concatMap(tick -> poll()
+                .onErrorResume(e -> {
+                    logger.warn("Status poll failed: {}", e.getMessage());
+                    return Flux.empty();
+                }), 1)
+            .share();
+        logger.info("MySQL status event bus started, poll interval: {} ms", pollIntervalMillis);
+    }
+
+    Flux<StatusEvent> poll() {
+        // Ids are never empty, so the first page starts with every row at the overlap start
+        return poll(watermark.get().minus(overlap), "");
+    }
+
+    private Flux<StatusEvent> poll(Instant afterUpdatedAt, String afterId) {
+        return reactiveInferenceRequestRepository.findUpdatedSince(afterUpdatedAt, afterId, batchSize)
+            .collectList()
+            .flatMapMany(page -> {
+                for (InferenceRequestEntity entity : page) {
+                    watermark.accumulateAndGet(entity.getUpdatedAt(),
+                        (current, updated) -> updated.isAfter(current) ? updated : current);
+                }
+                Flux<StatusEvent> events = Flux.fromIterable(page).map(MysqlStatusEventBus::toEvent);
+                if (page.size() < batchSize) {
+                    return events;
+                }
+                // A full page, drain the rest before the next tick
+                InferenceRequestEntity last = page.get(page.size() - 1);
+                return events.concatWith(Flux.defer(() -> poll(last.getUpdatedAt(), last.getId())));
+            });
+    }
+
+    private static StatusEvent toEvent(InferenceRequestEntity entity) {
+        return new StatusEvent(entity.getId(), InferenceService.RequestStatus.valueOf(entity.getStatus()));
+    }
+
+    @Override
+    public void publish(String requestId, InferenceService.RequestStatus status) {
+    }
+
+    @Override
+    public Flux<StatusEvent> events() {
+        return events;
+    }
+}
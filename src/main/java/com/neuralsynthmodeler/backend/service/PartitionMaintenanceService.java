@@ -0,0 +1,185 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Keeps monthly INFERENCE_REQUEST partitions ahead of the clock and drops old ones on request.
+ *
+ * At startup and every {@code db.partitions.check-interval-hours}, partitions are added so that the
+ * current month and the next {@code db.partitions.months-ahead} each have their own. New rows then never
+ * land in the catch-all {@code p_max}, which keeps splitting it cheap. Months are taken in UTC; with another
+ * connection time zone a request created near midnight may fall in the neighbouring partition, which is
+ * harmless.
+ *
+ * Rows created before migration V5 all sit in {@code p_history}, which retention could only drop once every
+ * one of them expired. The first check therefore splits it into monthly partitions from the oldest request
+ * on. That copies every historic row, so on a large table the first check runs for a while on one JDBC
+ * thread; other instances fail their check meanwhile and retry at the next interval.
+ *
+ * Does nothing when the table is not partitioned, e.g. with migrations disabled.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final InferenceRequestRepository inferenceRequestRepository;
+    private final int monthsAhead;
+    private final Object maintenanceLock = new Object();
+    private final Disposable checks;
+
+    private volatile int partitionCount;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failedChecks = new LongAdder();
+
+    @Autowired
+    public PartitionMaintenanceService(InferenceRequestRepository inferenceRequestRepository,
+                                       ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                                       @Value("${db.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${db.partitions.check-interval-hours:24}") long checkIntervalHours) {
+        this.inferenceRequestRepository = inferenceRequestRepository;
+        this.monthsAhead = monthsAhead;
+        // DDL is blocking JDBC, so run it on the JDBC scheduler and call the repository directly
+        this.checks = checkIntervalHours > 0
+            ? Flux.interval(Duration.ZERO, Duration.ofHours(checkIntervalHours), reactiveInferenceRequestRepository.scheduler())
+                .onBackpressureDrop()
+                .subscribe(tick -> {
+                    try {
+                        ensurePartitions(LocalDate.now(ZoneOffset.UTC));
+                    } catch (RuntimeException e) {
+                        failedChecks.increment();
+                        logger.warn("INFERENCE_REQUEST partition check failed: {}", e.getMessage());
+                    }
+                })
+            : null;
+    }
+
+    /**
+     * Add monthly partitions up to {@code db.partitions.months-ahead} months after the month of {@code today}.
+     */
+    void ensurePartitions(LocalDate today) {
+        synchronized (maintenanceLock) {
+            Map<String, LocalDate> partitions = inferenceRequestRepository.findPartitions();
+            partitionCount = partitions.size();
+            if (!partitions.containsKey(InferenceRequestRepository.MAX_PARTITION)) {
+                logger.debug("INFERENCE_REQUEST is not partitioned by month, nothing to maintain");
+                return;
+            }
+            LocalDate last = partitions.values().stream()
+                .filter(bound -> bound != null)
+                .max(LocalDate::compareTo)
+                .orElse(today.withDayOfMonth(1));
+            LocalDate target = today.withDayOfMonth(1).plusMonths(monthsAhead + 1L);
+            Map<String, LocalDate> added = new LinkedHashMap<>();
+            while (last.isBefore(target)) {
+                LocalDate monthStart = last.withDayOfMonth(1);
+                last = monthStart.plusMonths(1);
+                added.put("p_" + monthStart.format(PARTITION_MONTH), last);
+            }
+            if (!added.isEmpty()) {
+                inferenceRequestRepository.addPartitions(added);
+                created.add(added.size());
+                partitionCount += added.size();
+                logger.info("Added INFERENCE_REQUEST partitions {}", added.keySet());
+            }
+            // After the cheap additions, so a long or failed split does not hold them up
+            LocalDate historyEnd = partitions.get(InferenceRequestRepository.HISTORY_PARTITION);
+            if (historyEnd != null) {
+                splitHistory(historyEnd);
+            }
+        }
+    }
+
+    private void splitHistory(LocalDate historyEnd) {
+        LocalDate oldest = inferenceRequestRepository.findOldestCreatedDay(InferenceRequestRepository.HISTORY_PARTITION);
+        if (oldest == null) {
+            // Nothing to split, retention drops the empty partition once it is past the cutoff
+            return;
+        }
+        Map<String, LocalDate> months = new LinkedHashMap<>();
+        for (LocalDate monthStart = oldest.withDayOfMonth(1); monthStart.isBefore(historyEnd);
+             monthStart = monthStart.plusMonths(1)) {
+            LocalDate end = monthStart.plusMonths(1);
+            months.put("p_" + monthStart.format(PARTITION_MONTH), end.isBefore(historyEnd) ? end : historyEnd);
+        }
+        logger.info("Splitting INFERENCE_REQUEST partition {} into {}", InferenceRequestRepository.HISTORY_PARTITION,
+            months.keySet());
+        inferenceRequestRepository.splitPartition(InferenceRequestRepository.HISTORY_PARTITION, months);
+        created.add(months.size());
+        partitionCount += months.size() - 1;
+    }
+
+    /**
+     * End of the last partition {@link #dropPartitionsBefore} would drop for {@code cutoff}: requests
+     * created before it go with their partition. Null when no partition would be dropped.
+     */
+    public LocalDate droppableBefore(LocalDate cutoff) {
+        return inferenceRequestRepository.findPartitions().values().stream()
+            .filter(before -> before != null && !before.isAfter(cutoff))
+            .max(LocalDate::compareTo)
+            .orElse(null);
+    }
+
+    /**
+     * Drop the partitions holding only requests created before {@code cutoff}, with all their rows.
+     * Returns the names of the partitions dropped.
+     */
+    public List<String> dropPartitionsBefore(LocalDate cutoff) {
+        synchronized (maintenanceLock) {
+            List<String> expired = new ArrayList<>();
+            inferenceRequestRepository.findPartitions().forEach((name, before) -> {
+                if (before != null && !before.isAfter(cutoff)) {
+                    expired.add(name);
+                }
+            });
+            if (expired.isEmpty()) {
+                return expired;
+            }
+            inferenceRequestRepository.dropPartitions(expired);
+            dropped.add(expired.size());
+            partitionCount -= expired.size();
+            logger.info("Dropped INFERENCE_REQUEST partitions {} before {}", expired, cutoff);
+            return expired;
+        }
+    }
+
+    /**
+     * Number of partitions at the last check and partitions added and dropped since startup.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("partitions", partitionCount);
+        stats.put("created", created.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed_checks", failedChecks.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (checks != null) {
+            checks.dispose();
+        }
+    }
+}
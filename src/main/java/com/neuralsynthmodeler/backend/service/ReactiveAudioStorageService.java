@@ -0,0 +1,54 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AudioStorageService}.
+ * Lookups that find nothing complete empty instead of returning an empty Optional.
+ */
+public interface ReactiveAudioStorageService {
+
+    /**
+     * Store audio data compressed with {@code codec}, stored as its codec tag
+     */
+    Mono<String> storeAudio(byte[] audioData, String codec, int compressedSize, int uncompressedSize);
+
+    /**
+     * Store audio data arriving as a stream of buffers, releasing each buffer once written
+     */
+    Mono<String> storeAudioContent(Flux<DataBuffer> content, String codec, int compressedSize, int uncompressedSize);
+
+    /**
+     * Retrieve audio data by reference
+     */
+    Mono<byte[]> retrieveAudio(String audioRef);
+
+    /**
+     * Retrieve audio data by reference as a stream of buffers
+     */
+    Flux<DataBuffer> retrieveAudioContent(String audioRef);
+
+    /**
+     * Retrieve up to {@code length} bytes of audio data starting at {@code offset} as a stream of buffers.
+     * Completes empty when the range starts past the end.
+     */
+    Flux<DataBuffer> retrieveAudioContent(String audioRef, long offset, long length);
+
+    /**
+     * Delete audio data by reference
+     */
+    Mono<Void> deleteAudio(String audioRef);
+
+    /**
+     * Get preset reference for a given audio reference
+     */
+    Mono<String> getPresetRefForAudio(String audioRef);
+
+    Mono<String> storePreset(byte[] presetData, String synthType, String audioRef);
+    Mono<byte[]> retrievePreset(String presetRef);
+    Mono<AudioStorageService.PresetMetadata> retrievePresetMetadata(String presetRef);
+    Mono<Void> deletePreset(String presetRef);
+    Mono<String> getAudioRefForPreset(String presetRef);
+}
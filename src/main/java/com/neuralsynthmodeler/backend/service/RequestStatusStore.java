@@ -0,0 +1,103 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import reactor.core.publisher.Mono;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import com.neuralsynthmodeler.backend.util.BoundedCache;
+
+/**
+ * Request status with a bounded in-memory hot tier in front of INFERENCE_REQUEST.
+ *
+ * The hot tier holds at most {@code status.cache.max-entries} statuses, each expiring after
+ * {@code status.cache.idle-ttl-seconds} without access or {@code status.cache.ttl-seconds} in total, so
+ * abandoned requests do not accumulate. Misses read through to MySQL, which also answers for requests
+ * started before a restart. Ids MySQL does not know are cached as unknown for
+ * {@code status.cache.negative-ttl-seconds} so polling for bogus ids does not reach the database; a
+ * status event for the id drops the entry, so a request created on another replica is not hidden.
+ */
+@Service
+public class RequestStatusStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestStatusStore.class);
+
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final BoundedCache<String, InferenceService.RequestStatus> hotTier;
+    private final BoundedCache<String, Boolean> unknownIds;
+
+    @Autowired
+    public RequestStatusStore(ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                              @Value("${status.cache.max-entries:100000}") long maxEntries,
+                              @Value("${status.cache.idle-ttl-seconds:3600}") long idleTtlSeconds,
+                              @Value("${status.cache.ttl-seconds:86400}") long ttlSeconds,
+                              @Value("${status.cache.negative-max-entries:10000}") long negativeMaxEntries,
+                              @Value("${status.cache.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.hotTier = new BoundedCache<>(maxEntries, Duration.ofSeconds(idleTtlSeconds),
+            Duration.ofSeconds(ttlSeconds), status -> 1);
+        this.unknownIds = new BoundedCache<>(negativeMaxEntries, Duration.ofSeconds(negativeTtlSeconds),
+            Duration.ofSeconds(negativeTtlSeconds), unknown -> 1);
+    }
+
+    /**
+     * Status from the hot tier only, or null.
+     */
+    public InferenceService.RequestStatus getIfPresent(String requestId) {
+        return hotTier.getIfPresent(requestId);
+    }
+
+    /**
+     * Status of a request, reading through to MySQL on a miss. Completes empty for unknown ids.
+     */
+    public Mono<InferenceService.RequestStatus> get(String requestId) {
+        InferenceService.RequestStatus status = hotTier.getIfPresent(requestId);
+        if (status != null) {
+            return Mono.just(status);
+        }
+        if (unknownIds.getIfPresent(requestId) != null) {
+            return Mono.empty();
+        }
+        return reactiveInferenceRequestRepository.findById(requestId)
+            .mapNotNull(InferenceRequestEntity::getStatus)
+            .map(InferenceService.RequestStatus::valueOf)
+            .map(loaded -> {
+                logger.debug("Loaded status {} for request ID {} from MySQL", loaded, requestId);
+                // A status set while the row was loading is newer than the row
+                return hotTier.putIfAbsent(requestId, loaded);
+            })
+            .switchIfEmpty(Mono.fromRunnable(() -> unknownIds.put(requestId, Boolean.TRUE)));
+    }
+
+    public void put(String requestId, InferenceService.RequestStatus status) {
+        unknownIds.invalidate(requestId);
+        hotTier.put(requestId, status);
+    }
+
+    public void invalidate(String requestId) {
+        hotTier.invalidate(requestId);
+    }
+
+    /**
+     * Forget that MySQL did not know the id, the next read goes to the database again.
+     */
+    public void forgetUnknown(String requestId) {
+        unknownIds.invalidate(requestId);
+    }
+
+    /**
+     * Hot tier and negative cache counters.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hot_tier", hotTier.getStats());
+        stats.put("unknown_ids", unknownIds.getStats());
+        return stats;
+    }
+}
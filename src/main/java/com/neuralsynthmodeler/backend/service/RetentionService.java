@@ -0,0 +1,352 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import jakarta.annotation.PreDestroy;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+
+/**
+ * Deletes old audio, presets and inference requests.
+ *
+ * Every {@code retention.interval-minutes} three policies run in turn, each disabled with 0 days:
+ * <ul>
+ *   <li>audio_files older than {@code retention.audio-days}. The request rows keep their audio_ref; the
+ *   audio is only needed to run the inference. Chunked audio goes with its audio_chunks, as do chunks
+ *   of uploads that failed before their audio_files document was written.</li>
+ *   <li>preset_files older than {@code retention.preset-days}, unless a request created since still
+ *   references it (identical audio shares one preset). Their result_index entries go first, so no new
+ *   request reuses a preset about to be deleted.</li>
+ *   <li>INFERENCE_REQUEST rows older than {@code retention.request-days}, with the audio and presets they
+ *   reference. Documents are deleted before rows, so a run that stops halfway leaves rows pointing to
+ *   nothing, which the next run finishes, but never documents nobody references. Rows in monthly
+ *   partitions that expire entirely are not deleted one by one; the partitions are dropped at the end.</li>
+ * </ul>
+ * Work is done in batches of {@code retention.batch-size} with {@code retention.batch-delay-ms} between
+ * batches, so purging a large backlog does not compete with live traffic. Documents and bytes deleted
+ * are counted per collection.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    private final MongoCollection<Document> audioCollection;
+    private final MongoCollection<Document> chunkCollection;
+    private final MongoCollection<Document> presetCollection;
+    private final MongoCollection<Document> indexCollection;
+    private final ReactiveInferenceRequestRepository reactiveInferenceRequestRepository;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final Duration audioRetention;
+    private final Duration presetRetention;
+    private final Duration requestRetention;
+    private final int batchSize;
+    private final Duration batchDelay;
+    private final Disposable runs;
+
+    private final LongAdder runCount = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+    private final LongAdder audioDeleted = new LongAdder();
+    private final LongAdder audioBytes = new LongAdder();
+    private final LongAdder presetsDeleted = new LongAdder();
+    private final LongAdder presetBytes = new LongAdder();
+    private final LongAdder indexEntriesDeleted = new LongAdder();
+    private final LongAdder requestsDeleted = new LongAdder();
+    private final LongAdder partitionsDropped = new LongAdder();
+
+    @Autowired
+    public RetentionService(MongoDatabase reactiveMongoDatabase,
+                            ReactiveInferenceRequestRepository reactiveInferenceRequestRepository,
+                            PartitionMaintenanceService partitionMaintenanceService,
+                            @Value("${retention.enabled:true}") boolean enabled,
+                            @Value("${retention.startup-delay-seconds:300}") long startupDelaySeconds,
+                            @Value("${retention.interval-minutes:60}") long intervalMinutes,
+                            @Value("${retention.audio-days:7}") int audioDays,
+                            @Value("${retention.preset-days:90}") int presetDays,
+                            @Value("${retention.request-days:90}") int requestDays,
+                            @Value("${retention.batch-size:500}") int batchSize,
+                            @Value("${retention.batch-delay-ms:100}") long batchDelayMillis) {
+        this.audioCollection = reactiveMongoDatabase.getCollection("audio_files");
+        this.chunkCollection = reactiveMongoDatabase.getCollection(MongoDBAudioStorageService.CHUNK_COLLECTION);
+        this.presetCollection = reactiveMongoDatabase.getCollection("preset_files");
+        this.indexCollection = reactiveMongoDatabase.getCollection("result_index");
+        this.reactiveInferenceRequestRepository = reactiveInferenceRequestRepository;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.audioRetention = Duration.ofDays(audioDays);
+        this.presetRetention = Duration.ofDays(presetDays);
+        this.requestRetention = Duration.ofDays(requestDays);
+        this.batchSize = batchSize;
+        this.batchDelay = Duration.ofMillis(batchDelayMillis);
+        this.runs = enabled
+            ? Flux.interval(Duration.ofSeconds(startupDelaySeconds), Duration.ofMinutes(intervalMinutes))
+                .onBackpressureDrop()
+                .concatMap(tick -> run(Instant.now())
+                    .onErrorResume(e -> {
+                        failedRuns.increment();
+                        logger.warn("Retention run failed: {}", e.getMessage());
+                        return Mono.empty();
+                    }), 1)
+                .subscribe()
+            : null;
+        if (enabled) {
+            createIndexes();
+            logger.info("Retention enabled, audio: {} days, presets: {} days, requests: {} days",
+                audioDays, presetDays, requestDays);
+        }
+    }
+
+    private void createIndexes() {
+        Flux.concat(
+                audioCollection.createIndex(Indexes.ascending("created_at", "_id")),
+                chunkCollection.createIndex(Indexes.ascending("created_at")),
+                presetCollection.createIndex(Indexes.ascending("created_at", "_id")),
+                indexCollection.createIndex(Indexes.ascending("preset_ref")))
+            .subscribe(null, e -> logger.warn("Could not create retention indexes: {}", e.getMessage()));
+    }
+
+    /**
+     * One retention run over every enabled policy.
+     */
+    Mono<Void> run(Instant now) {
+        runCount.increment();
+        long start = System.nanoTime();
+        long audioBefore = audioBytes.sum();
+        long presetBefore = presetBytes.sum();
+        return purgeAudio(now)
+            .then(purgePresets(now))
+            .then(purgeRequests(now))
+            .doOnSuccess(done -> logger.info("Retention run reclaimed {} bytes of audio and {} bytes of presets in {} ms",
+                audioBytes.sum() - audioBefore, presetBytes.sum() - presetBefore,
+                Duration.ofNanos(System.nanoTime() - start).toMillis()));
+    }
+
+    private Mono<Void> purgeAudio(Instant now) {
+        if (audioRetention.isZero()) {
+            return Mono.empty();
+        }
+        Instant cutoff = now.minus(audioRetention);
+        return purgeCollection(audioCollection, cutoff, this::deleteAudio)
+            // Whatever is left is from uploads that never completed
+            .then(Mono.defer(() -> Mono.from(chunkCollection.deleteMany(Filters.lt("created_at", cutoff.toEpochMilli())))))
+            .doOnNext(result -> {
+                if (result.getDeletedCount() > 0) {
+                    logger.info("Deleted {} audio chunks of incomplete uploads", result.getDeletedCount());
+                }
+            })
+            .then();
+    }
+
+    /**
+     * Delete audio_files documents, then their chunks. Chunks left behind by a failure are taken by the
+     * next audio pass.
+     */
+    private Mono<Void> deleteAudio(List<Document> docs) {
+        List<Object> audioRefs = docs.stream().map(doc -> doc.get("_id")).toList();
+        return deleteDocuments(audioCollection, docs, "compressed_size", audioDeleted, audioBytes)
+            .then(Mono.defer(() -> docs.isEmpty()
+                ? Mono.empty()
+                : Mono.from(chunkCollection.deleteMany(Filters.in("audio_ref", audioRefs))).then()));
+    }
+
+    private Mono<Void> purgePresets(Instant now) {
+        if (presetRetention.isZero()) {
+            return Mono.empty();
+        }
+        Instant cutoff = now.minus(presetRetention);
+        return purgeCollection(presetCollection, cutoff,
+            docs -> deletePresets(docs.stream().map(doc -> doc.getString("_id")).toList(), cutoff));
+    }
+
+    /**
+     * Walk {@code collection} by (created_at, _id) up to {@code cutoff} in throttled batches. Skipped
+     * documents are passed over, not read again.
+     */
+    private Mono<Void> purgeCollection(MongoCollection<Document> collection, Instant cutoff,
+                                       Function<List<Document>, Mono<Void>> delete) {
+        AtomicReference<Document> last = new AtomicReference<>();
+        return batches(() -> {
+            Bson filter = Filters.lt("created_at", cutoff.toEpochMilli());
+            Document position = last.get();
+            if (position != null) {
+                filter = Filters.and(filter, Filters.or(
+                    Filters.gt("created_at", position.get("created_at")),
+                    Filters.and(Filters.eq("created_at", position.get("created_at")),
+                        Filters.gt("_id", position.get("_id")))));
+            }
+            return Flux.from(collection.find(filter)
+                    .projection(Projections.include("created_at", "compressed_size", "size", "stored_size"))
+                    .sort(Sorts.ascending("created_at", "_id"))
+                    .limit(batchSize))
+                .collectList()
+                .flatMap(docs -> {
+                    if (docs.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    last.set(docs.get(docs.size() - 1));
+                    return delete.apply(docs).thenReturn(docs.size());
+                });
+        });
+    }
+
+    private Mono<Void> purgeRequests(Instant now) {
+        if (requestRetention.isZero()) {
+            return Mono.empty();
+        }
+        Instant cutoff = now.minus(requestRetention);
+        LocalDate cutoffDate = LocalDate.ofInstant(cutoff, ZoneOffset.UTC);
+        AtomicReference<InferenceRequestEntity> last = new AtomicReference<>();
+        return Mono.fromCallable(() -> {
+                LocalDate droppable = partitionMaintenanceService.droppableBefore(cutoffDate);
+                // Rows before this instant go with their partition
+                return droppable != null ? droppable.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.MIN;
+            })
+            .subscribeOn(reactiveInferenceRequestRepository.scheduler())
+            .flatMap(dropBefore -> batches(() -> {
+                    InferenceRequestEntity position = last.get();
+                    return reactiveInferenceRequestRepository.findCreatedBefore(cutoff,
+                            position != null ? position.getCreatedAt() : null,
+                            position != null ? position.getId() : null, batchSize)
+                        .flatMap(entities -> {
+                            if (entities.isEmpty()) {
+                                return Mono.just(0);
+                            }
+                            last.set(entities.get(entities.size() - 1));
+                            return deleteRequests(entities, cutoff, dropBefore).thenReturn(entities.size());
+                        });
+                })
+                .then(Mono.fromCallable(() -> partitionMaintenanceService.dropPartitionsBefore(cutoffDate))
+                    .subscribeOn(reactiveInferenceRequestRepository.scheduler())
+                    .doOnNext(dropped -> partitionsDropped.add(dropped.size())))
+                .then());
+    }
+
+    private Mono<Void> deleteRequests(List<InferenceRequestEntity> entities, Instant cutoff, Instant dropBefore) {
+        List<String> audioRefs = new ArrayList<>();
+        Set<String> presetRefs = new LinkedHashSet<>();
+        List<String> rowIds = new ArrayList<>();
+        for (InferenceRequestEntity entity : entities) {
+            if (entity.getAudioRef() != null) {
+                audioRefs.add(entity.getAudioRef());
+            }
+            if (entity.getResultRef() != null) {
+                presetRefs.add(entity.getResultRef());
+            }
+            if (!entity.getCreatedAt().isBefore(dropBefore)) {
+                rowIds.add(entity.getId());
+            }
+        }
+        return Flux.from(audioCollection.find(Filters.in("_id", audioRefs)).projection(Projections.include("compressed_size")))
+            .collectList()
+            .flatMap(this::deleteAudio)
+            .then(Mono.defer(() -> deletePresets(new ArrayList<>(presetRefs), cutoff)))
+            .then(Mono.defer(() -> reactiveInferenceRequestRepository.deleteByIds(rowIds)))
+            .doOnNext(requestsDeleted::add)
+            .then();
+    }
+
+    /**
+     * Delete the result_index entries of {@code presetRefs}, then the presets no request created since
+     * {@code cutoff} references.
+     */
+    private Mono<Void> deletePresets(List<String> presetRefs, Instant cutoff) {
+        if (presetRefs.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.from(indexCollection.deleteMany(Filters.in("preset_ref", presetRefs)))
+            .doOnNext(result -> indexEntriesDeleted.add(result.getDeletedCount()))
+            .then(reactiveInferenceRequestRepository.findResultRefsInUse(presetRefs, cutoff))
+            .flatMap(inUse -> Flux.from(presetCollection.find(Filters.and(
+                        Filters.in("_id", presetRefs), Filters.nin("_id", inUse)))
+                    .projection(Projections.include("size", "stored_size")))
+                .collectList())
+            .flatMap(docs -> deleteDocuments(presetCollection, docs, "stored_size", presetsDeleted, presetBytes));
+    }
+
+    private static Mono<Void> deleteDocuments(MongoCollection<Document> collection, List<Document> docs, String sizeField,
+                                              LongAdder deleted, LongAdder bytes) {
+        if (docs.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Object> ids = new ArrayList<>(docs.size());
+        long size = 0;
+        for (Document doc : docs) {
+            ids.add(doc.get("_id"));
+            // Presets stored before codecs have only their uncompressed size, which is what they take
+            Object docSize = doc.containsKey(sizeField) ? doc.get(sizeField) : doc.get("size");
+            if (docSize instanceof Number number) {
+                size += number.longValue();
+            }
+        }
+        long docsSize = size;
+        return Mono.from(collection.deleteMany(Filters.in("_id", ids)))
+            .doOnNext(result -> {
+                deleted.add(result.getDeletedCount());
+                bytes.add(docsSize);
+            })
+            .then();
+    }
+
+    /**
+     * Repeat {@code batch}, which emits the number of items it found, with the batch delay before each
+     * until a batch comes back short.
+     */
+    private Mono<Void> batches(Supplier<Mono<Integer>> batch) {
+        return Mono.defer(batch)
+            .delaySubscription(batchDelay)
+            .repeat()
+            .takeUntil(found -> found < batchSize)
+            .then();
+    }
+
+    /**
+     * Documents deleted and bytes reclaimed per collection, request rows deleted and partitions dropped.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("runs", runCount.sum());
+        stats.put("failed_runs", failedRuns.sum());
+        stats.put("audio_deleted", audioDeleted.sum());
+        stats.put("audio_bytes_reclaimed", audioBytes.sum());
+        stats.put("presets_deleted", presetsDeleted.sum());
+        stats.put("preset_bytes_reclaimed", presetBytes.sum());
+        stats.put("result_index_deleted", indexEntriesDeleted.sum());
+        stats.put("requests_deleted", requestsDeleted.sum());
+        stats.put("partitions_dropped", partitionsDropped.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (runs != null) {
+            runs.dispose();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.neuralsynthmodeler.backend.service;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Propagates status changes between backend replicas, so SSE and polling work on any instance.
+ *
+ * {@link StatusStreamService} publishes every local status change and feeds events from other replicas
+ * into its local streams and status store. The implementation is selected with {@code status.bus.type}:
+ * {@code local} (single instance, default), {@code mongo} (change streams, needs a replica set) or
+ * {@code mysql} (polls INFERENCE_REQUEST).
+ */
+public interface StatusEventBus {
+
+    final class StatusEvent {
+        private final String requestId;
+        private final InferenceService.RequestStatus status;
+
+        public StatusEvent(String requestId, InferenceService.RequestStatus status) {
+            this.requestId = requestId;
+            this.status = status;
+        }
+
+        public String getRequestId() { return requestId; }
+        public InferenceService.RequestStatus getStatus() { return status; }
+    }
+
+    /**
+     * Publish a status change made on this instance.
+     */
+    void publish(String requestId, InferenceService.RequestStatus status);
+
+    /**
+     * Status changes made on other instances. May also repeat changes made locally; consumers must
+     * tolerate duplicates.
+     */
+    Flux<StatusEvent> events();
+}
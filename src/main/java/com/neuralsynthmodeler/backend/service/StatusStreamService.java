@@ -1,50 +1,88 @@
 package com.neuralsynthmodeler.backend.service;
 
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.HashMap;
 import java.util.Map;
-import java.time.Duration;
 
+/**
+ * Request status and the fan-out of status changes to SSE subscribers. Status itself is kept in
+ * {@link RequestStatusStore}; changes are exchanged with other replicas over the {@link StatusEventBus}.
+ *
+ * There is one stream per request with at least one subscriber. Each stream replays only the latest
+ * status to late subscribers, so memory per stream stays constant however slow a subscriber is, and
+ * is removed once its last subscriber leaves. Final statuses complete the stream after
+ * {@code status.stream.completion-delay-ms} on a shared timer, giving clients time to read the last
+ * event; subscribing to a request that is already final returns its status and completes.
+ */
 @Service
 public class StatusStreamService {
 
     private static final Logger logger = LoggerFactory.getLogger(StatusStreamService.class);
-    
-    // Single source of truth for status management
-    private final Map<String, InferenceService.RequestStatus> requestStatusMap = new ConcurrentHashMap<>();
-    // Store reactive sinks for real-time status updates
-    private final Map<String, Sinks.Many<InferenceService.RequestStatus>> statusSinks = new ConcurrentHashMap<>();
+
+    private static class StatusStream {
+        private final Sinks.Many<InferenceService.RequestStatus> sink = Sinks.many().replay().latest();
+        private final AtomicInteger subscribers = new AtomicInteger();
+    }
+
+    private final RequestStatusStore requestStatusStore;
+    private final StatusEventBus statusEventBus;
+    private final Disposable remoteEvents;
+    // Streams of requests that currently have subscribers
+    private final Map<String, StatusStream> statusStreams = new ConcurrentHashMap<>();
+    private final long completionDelayMillis;
+    private final Scheduler timer = Schedulers.parallel();
+    private final LongAdder totalSubscriptions = new LongAdder();
+    private final LongAdder remoteUpdates = new LongAdder();
+
+    @Autowired
+    public StatusStreamService(RequestStatusStore requestStatusStore,
+                               StatusEventBus statusEventBus,
+                               @Value("${status.stream.completion-delay-ms:500}") long completionDelayMillis) {
+        this.requestStatusStore = requestStatusStore;
+        this.statusEventBus = statusEventBus;
+        this.completionDelayMillis = completionDelayMillis;
+        this.remoteEvents = statusEventBus.events()
+            .subscribe(event -> applyRemoteStatus(event.getRequestId(), event.getStatus()),
+                e -> logger.error("Status event bus terminated", e));
+    }
 
     /**
      * Get a Flux for real-time status updates for a specific request
      */
     public Flux<InferenceService.RequestStatus> getStatusStream(String requestId) {
-        logger.info("getStatusStream called for request ID: {}", requestId);
-        Sinks.Many<InferenceService.RequestStatus> sink = statusSinks.computeIfAbsent(requestId, 
-            id -> {
-                logger.info("Creating new sink for request ID: {}", id);
-                return Sinks.many().multicast().onBackpressureBuffer();
-            });
-        
-        // Emit current status immediately if available
-        InferenceService.RequestStatus currentStatus = requestStatusMap.get(requestId);
-        if (currentStatus != null) {
-            logger.info("Emitting current status for request ID {}: {}", requestId, currentStatus);
-            sink.tryEmitNext(currentStatus);
-        } else {
-            logger.info("No current status found for request ID: {}", requestId);
-        }
-        
-        return sink.asFlux()
-            .doFinally(signalType -> {
-                // Clean up sink when stream ends
-                statusSinks.remove(requestId);
-                logger.info("Cleaned up status sink for request ID: {} (signal: {})", requestId, signalType);
-            });
+        logger.debug("getStatusStream called for request ID: {}", requestId);
+        // Loading the status first puts it in the hot tier, where new streams are seeded from
+        return requestStatusStore.get(requestId)
+            .map(currentStatus -> isFinal(currentStatus) ? Flux.just(currentStatus) : liveStream(requestId))
+            // Unknown so far, wait for the first status
+            .defaultIfEmpty(liveStream(requestId))
+            .flatMapMany(statusFlux -> statusFlux);
+    }
+
+    private Flux<InferenceService.RequestStatus> liveStream(String requestId) {
+        return Flux.defer(() -> {
+            StatusStream stream = subscribe(requestId);
+            return stream.sink.asFlux()
+                // Re-seeding a stream can repeat the latest status
+                .distinctUntilChanged()
+                .onBackpressureLatest()
+                .doFinally(signalType -> unsubscribe(requestId, stream));
+        });
     }
 
     /**
@@ -52,47 +90,126 @@ public class StatusStreamService {
      */
     public void updateStatus(String requestId, InferenceService.RequestStatus status) {
         logger.info("updateStatus called for request ID {} with status: {}", requestId, status);
-        // Update the single source of truth
-        requestStatusMap.put(requestId, status);
-        // Emit to reactive subscribers
-        Sinks.Many<InferenceService.RequestStatus> sink = statusSinks.get(requestId);
-        if (sink != null) {
-            sink.tryEmitNext(status);
-            logger.info("Emitted status update for request ID {}: {}", requestId, status);
-            // If status is final, delay before completing the sink so the last event is flushed
-            if (status == InferenceService.RequestStatus.DONE || status == InferenceService.RequestStatus.ERROR) {
-                logger.info("Final status detected, scheduling sink completion for request ID: {}", requestId);
-                // Delay completion by 500ms to ensure frontend receives the final status
-                new Thread(() -> {
-                    try { Thread.sleep(500); } catch (InterruptedException ignored) {}
-                    sink.tryEmitComplete();
-                    statusSinks.remove(requestId);
-                    logger.info("Completed and removed status sink for request ID: {}", requestId);
-                }).start();
-            }
-        } else {
-            logger.warn("No sink found for request ID: {} when updating status to: {}", requestId, status);
-            // If no sink, just remove if final
-            if (status == InferenceService.RequestStatus.DONE || status == InferenceService.RequestStatus.ERROR) {
-                statusSinks.remove(requestId);
-                logger.debug("Removed status sink for completed request ID: {} (no sink found)", requestId);
-            }
+        applyStatus(requestId, status);
+        statusEventBus.publish(requestId, status);
+    }
+
+    /**
+     * Apply a status change made on another replica. Only requests this instance knows about or
+     * streams are updated, others are read through on demand; stale and repeated events are ignored.
+     */
+    void applyRemoteStatus(String requestId, InferenceService.RequestStatus status) {
+        // The request exists now even if an earlier read did not find it
+        requestStatusStore.forgetUnknown(requestId);
+        InferenceService.RequestStatus current = requestStatusStore.getIfPresent(requestId);
+        if (current == null && !statusStreams.containsKey(requestId)) {
+            return;
+        }
+        if (current == status || (current != null && !status.canTransitionFrom(current))) {
+            return;
         }
+        remoteUpdates.increment();
+        logger.debug("Applying remote status {} for request ID {}", status, requestId);
+        applyStatus(requestId, status);
+    }
+
+    private void applyStatus(String requestId, InferenceService.RequestStatus status) {
+        requestStatusStore.put(requestId, status);
+        // Emit under the map lock so emissions to one stream are serialized
+        StatusStream stream = statusStreams.computeIfPresent(requestId, (id, existing) -> {
+            existing.sink.tryEmitNext(status);
+            return existing;
+        });
+        if (stream != null && isFinal(status)) {
+            logger.debug("Final status detected, scheduling stream completion for request ID: {}", requestId);
+            timer.schedule(() -> complete(requestId, stream), completionDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get current status for a request ID, completes empty if it is unknown
+     */
+    public Mono<InferenceService.RequestStatus> getStatus(String requestId) {
+        return requestStatusStore.get(requestId);
     }
 
     /**
-     * Get current status for a request ID
+     * Number of open status subscriptions for a request ID
      */
-    public InferenceService.RequestStatus getStatus(String requestId) {
-        return requestStatusMap.get(requestId);
+    public int getSubscriberCount(String requestId) {
+        StatusStream stream = statusStreams.get(requestId);
+        return stream != null ? stream.subscribers.get() : 0;
     }
 
     /**
      * Clear status for a request ID (for cleanup)
      */
     public void clearStatus(String requestId) {
-        requestStatusMap.remove(requestId);
-        statusSinks.remove(requestId);
+        requestStatusStore.invalidate(requestId);
+        StatusStream stream = statusStreams.remove(requestId);
+        if (stream != null) {
+            stream.sink.tryEmitComplete();
+        }
         logger.debug("Cleared status for request ID: {}", requestId);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Open streams and subscriber counts.
+     */
+    public Map<String, Object> getStats() {
+        int subscribers = 0;
+        for (StatusStream stream : statusStreams.values()) {
+            subscribers += stream.subscribers.get();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("streams", statusStreams.size());
+        stats.put("subscribers", subscribers);
+        stats.put("total_subscriptions", totalSubscriptions.sum());
+        stats.put("remote_updates", remoteUpdates.sum());
+        return stats;
+    }
+
+    private StatusStream subscribe(String requestId) {
+        totalSubscriptions.increment();
+        return statusStreams.compute(requestId, (id, existing) -> {
+            StatusStream stream = existing;
+            if (stream == null) {
+                stream = new StatusStream();
+                // Seed with the current status; updates after this point are emitted by updateStatus
+                InferenceService.RequestStatus currentStatus = requestStatusStore.getIfPresent(id);
+                if (currentStatus != null) {
+                    stream.sink.tryEmitNext(currentStatus);
+                    if (isFinal(currentStatus)) {
+                        stream.sink.tryEmitComplete();
+                    }
+                }
+            }
+            stream.subscribers.incrementAndGet();
+            return stream;
+        });
+    }
+
+    private void unsubscribe(String requestId, StatusStream stream) {
+        statusStreams.computeIfPresent(requestId, (id, existing) -> {
+            if (existing != stream) {
+                return existing;
+            }
+            return stream.subscribers.decrementAndGet() > 0 ? stream : null;
+        });
+    }
+
+    private void complete(String requestId, StatusStream stream) {
+        statusStreams.remove(requestId, stream);
+        stream.sink.tryEmitComplete();
+        logger.debug("Completed and removed status stream for request ID: {}", requestId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        remoteEvents.dispose();
+    }
+
+    private static boolean isFinal(InferenceService.RequestStatus status) {
+        return status == InferenceService.RequestStatus.DONE || status == InferenceService.RequestStatus.ERROR;
+    }
+}
@@ -0,0 +1,127 @@
+package com.neuralsynthmodeler.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.neuralsynthmodeler.backend.util.GzipCodec;
+import com.neuralsynthmodeler.backend.util.GzipUtils;
+import com.neuralsynthmodeler.backend.util.IdentityCodec;
+import com.neuralsynthmodeler.backend.util.StorageCodec;
+import com.neuralsynthmodeler.backend.util.ZstdCodec;
+
+/**
+ * The codecs audio and presets are written with, and the lookup of the codec to read a blob with.
+ *
+ * {@code storage.codec.audio} (gzip or zstd) compresses uploaded raw WAV; GZIP uploads are stored as
+ * received. {@code storage.codec.preset} (none, gzip or zstd) compresses preset JSON, with the zstd
+ * dictionary in {@code storage.codec.preset-dictionary} if one is set. Every codec stays available for
+ * reading, so changing either setting leaves existing blobs readable; blobs without a codec tag were
+ * written before codecs existed, audio as GZIP and presets uncompressed.
+ *
+ * {@code storage.codec.gzip-pool-size} bounds the deflaters and inflaters GZIP keeps for reuse, by
+ * default two per core. Audio of at least {@code storage.codec.gzip-parallel-threshold-bytes} (0 to
+ * disable) is GZIP compressed in blocks of {@code storage.codec.gzip-parallel-block-bytes} on a ForkJoin
+ * pool of {@code storage.codec.gzip-parallel-threads} threads (0 for one per core) of its own, so
+ * compression does not compete with other users of the common pool; streamed uploads compress each block
+ * after the threshold as soon as it fills.
+ */
+@Service
+public class StorageCodecs {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageCodecs.class);
+
+    private final Map<String, StorageCodec> codecs;
+    private final StorageCodec audioCodec;
+    private final StorageCodec presetCodec;
+    private final ForkJoinPool gzipPool;
+
+    @Autowired
+    public StorageCodecs(@Value("${storage.codec.audio:gzip}") String audioCodec,
+                         @Value("${storage.codec.preset:none}") String presetCodec,
+                         @Value("${storage.codec.gzip-level:6}") int gzipLevel,
+                         @Value("${storage.codec.gzip-pool-size:0}") int gzipPoolSize,
+                         @Value("${storage.codec.gzip-parallel-threshold-bytes:4194304}") int gzipParallelThreshold,
+                         @Value("${storage.codec.gzip-parallel-block-bytes:524288}") int gzipParallelBlockBytes,
+                         @Value("${storage.codec.gzip-parallel-threads:0}") int gzipParallelThreads,
+                         @Value("${storage.codec.zstd-level:3}") int zstdLevel,
+                         @Value("${storage.codec.preset-dictionary:}") String presetDictionary) {
+        byte[] dictionary = null;
+        if (!presetDictionary.isBlank()) {
+            try {
+                dictionary = Files.readAllBytes(Path.of(presetDictionary));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read zstd dictionary " + presetDictionary, e);
+            }
+        }
+        this.gzipPool = gzipParallelThreshold > 0
+            ? new ForkJoinPool(gzipParallelThreads > 0 ? gzipParallelThreads : Runtime.getRuntime().availableProcessors())
+            : null;
+        ZstdCodec zstd = new ZstdCodec(zstdLevel);
+        ZstdCodec presetZstd = dictionary != null ? new ZstdCodec(zstdLevel, dictionary) : zstd;
+        // Reads use the codec holding the dictionary, which also reads frames written without one
+        this.codecs = Map.of(
+            GzipCodec.NAME, new GzipCodec(gzipLevel, gzipPoolSize > 0 ? gzipPoolSize : GzipCodec.defaultPoolSize(),
+                gzipParallelThreshold, gzipParallelBlockBytes, gzipPool),
+            ZstdCodec.NAME, presetZstd,
+            IdentityCodec.NAME, IdentityCodec.INSTANCE);
+        this.audioCodec = ZstdCodec.NAME.equalsIgnoreCase(audioCodec) ? zstd : forTag(audioCodec, null);
+        this.presetCodec = ZstdCodec.NAME.equalsIgnoreCase(presetCodec) ? presetZstd : forTag(presetCodec, null);
+        if (this.audioCodec == IdentityCodec.INSTANCE) {
+            throw new IllegalArgumentException("storage.codec.audio must be gzip or zstd");
+        }
+        logger.info("Storing audio with {} and presets with {}{}", this.audioCodec.name(), this.presetCodec.name(),
+            presetCodec.equalsIgnoreCase(ZstdCodec.NAME) && dictionary != null
+                ? " (dictionary " + presetZstd.getDictionaryId() + ")" : "");
+    }
+
+    public StorageCodec audioCodec() {
+        return audioCodec;
+    }
+
+    public StorageCodec presetCodec() {
+        return presetCodec;
+    }
+
+    /**
+     * The codec named by a stored codec tag, or {@code legacy} for blobs without one.
+     */
+    public StorageCodec forTag(String tag, StorageCodec legacy) {
+        if (tag == null) {
+            return legacy;
+        }
+        StorageCodec codec = codecs.get(tag.toLowerCase());
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown storage codec: " + tag);
+        }
+        return codec;
+    }
+
+    /**
+     * Decompress stored audio, telling the codec from the data itself. Used where the audio was handed
+     * over without its document.
+     */
+    public byte[] decodeAudio(byte[] stored) throws IOException {
+        if (ZstdCodec.isZstdCompressed(stored)) {
+            return codecs.get(ZstdCodec.NAME).decode(stored);
+        }
+        if (GzipUtils.isGzipCompressed(stored)) {
+            return codecs.get(GzipCodec.NAME).decode(stored);
+        }
+        throw new IOException("Stored audio is neither GZIP nor zstd compressed");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (gzipPool != null) {
+            gzipPool.shutdown();
+        }
+    }
+}
@@ -17,16 +17,32 @@ public class AudioFormatUtils {
         private final int uncompressedSize;
         private final boolean wasCompressed;
         private final String format;
+        private final String codec;
+        private final WavFormat wavFormat;
         
         public AudioMetadata(byte[] compressedData, byte[] decompressedData, 
                            int compressedSize, int uncompressedSize, 
                            boolean wasCompressed, String format) {
+            this(compressedData, decompressedData, compressedSize, uncompressedSize, wasCompressed, format, GzipCodec.NAME);
+        }
+        
+        public AudioMetadata(byte[] compressedData, byte[] decompressedData, 
+                           int compressedSize, int uncompressedSize, 
+                           boolean wasCompressed, String format, String codec) {
+            this(compressedData, decompressedData, compressedSize, uncompressedSize, wasCompressed, format, codec, null);
+        }
+        
+        public AudioMetadata(byte[] compressedData, byte[] decompressedData, 
+                           int compressedSize, int uncompressedSize, 
+                           boolean wasCompressed, String format, String codec, WavFormat wavFormat) {
             this.compressedData = compressedData;
             this.decompressedData = decompressedData;
             this.compressedSize = compressedSize;
             this.uncompressedSize = uncompressedSize;
             this.wasCompressed = wasCompressed;
             this.format = format;
+            this.codec = codec;
+            this.wavFormat = wavFormat;
         }
         
         // Getters
@@ -36,17 +52,22 @@ public class AudioFormatUtils {
         public int getUncompressedSize() { return uncompressedSize; }
         public boolean wasCompressed() { return wasCompressed; }
         public String getFormat() { return format; }
+        /** Codec tag of the compressed data */
+        public String getCodec() { return codec; }
+        /** Format read from the WAV header, null if it was not read */
+        public WavFormat getWavFormat() { return wavFormat; }
         
         @Override
         public String toString() {
-            return String.format("AudioMetadata{format='%s', wasCompressed=%s, compressed=%d, uncompressed=%d}", 
-                format, wasCompressed, compressedSize, uncompressedSize);
+            return String.format("AudioMetadata{format='%s', codec='%s', wasCompressed=%s, compressed=%d, uncompressed=%d, wav=%s}", 
+                format, codec, wasCompressed, compressedSize, uncompressedSize, wavFormat);
         }
     }
 
     /**
      * Check if the byte array is a valid WAV file by looking at the WAV header
      * WAV files start with "RIFF" (0x52 0x49 0x46 0x46) followed by "WAVE" (0x57 0x41 0x56 0x45)
+     * This only checks the signature; {@link WavFormat#parse} reads the fmt and data chunks
      * 
      * @param data The byte array to check
      * @return true if the data appears to be a valid WAV file, false otherwise
@@ -134,6 +155,20 @@ public class AudioFormatUtils {
      * @throws IllegalArgumentException If the audio format is not supported
      */
     public static AudioMetadata processAudioData(byte[] audioData) throws IOException, IllegalArgumentException {
+        return processAudioData(audioData, GzipCodec.DEFAULT);
+    }
+    
+    /**
+     * Process and validate audio data, compressing uncompressed WAV with {@code codec} for storage.
+     * GZIP-compressed input is kept as is.
+     * 
+     * @param audioData The input audio data (compressed or uncompressed)
+     * @param codec The codec to compress uncompressed WAV with
+     * @return AudioMetadata containing processed data and information
+     * @throws IOException If compression/decompression fails
+     * @throws IllegalArgumentException If the audio format is not supported
+     */
+    public static AudioMetadata processAudioData(byte[] audioData, StorageCodec codec) throws IOException, IllegalArgumentException {
         if (audioData == null || audioData.length == 0) {
             throw new IllegalArgumentException("Audio data is null or empty");
         }
@@ -145,6 +180,7 @@ public class AudioFormatUtils {
             if (!isValidWavFormat(decompressed)) {
                 throw new IllegalArgumentException("Decompressed data is not a valid WAV file");
             }
+            WavFormat wavFormat = WavFormat.tryParse(decompressed);
             
             // Return metadata for GZIP-compressed WAV
             return new AudioMetadata(
@@ -153,13 +189,16 @@ public class AudioFormatUtils {
                 audioData.length,    // Compressed size
                 decompressed.length, // Uncompressed size
                 true,                // Was compressed
-                "GZIP-compressed WAV"
+                "GZIP-compressed WAV",
+                GzipCodec.NAME,
+                wavFormat
             );
         } else {
             // Input was not GZIP compressed, check if it's valid WAV
             if (isValidWavFormat(audioData)) {
+                WavFormat wavFormat = WavFormat.tryParse(audioData);
                 // Valid uncompressed WAV, compress it for storage
-                byte[] compressed = GzipUtils.compress(audioData);
+                byte[] compressed = codec.encode(audioData);
                 
                 // Return metadata for uncompressed WAV
                 return new AudioMetadata(
@@ -168,7 +207,9 @@ public class AudioFormatUtils {
                     compressed.length, // Compressed size
                     audioData.length,  // Uncompressed size
                     false,             // Was not compressed
-                    "WAV"
+                    "WAV",
+                    codec.name(),
+                    wavFormat
                 );
             } else {
                 // Not GZIP and not WAV - unsupported format
@@ -187,8 +228,21 @@ public class AudioFormatUtils {
      * @throws IllegalArgumentException If the audio format is not supported
      */
     public static AudioMetadata processAudioDataWithErrorDetails(byte[] audioData) throws IOException, IllegalArgumentException {
+        return processAudioDataWithErrorDetails(audioData, GzipCodec.DEFAULT);
+    }
+    
+    /**
+     * Process audio data and return metadata, with detailed error information
+     * 
+     * @param audioData The input audio data
+     * @param codec The codec to compress uncompressed WAV with
+     * @return AudioMetadata containing processed data and information
+     * @throws IOException If compression/decompression fails
+     * @throws IllegalArgumentException If the audio format is not supported
+     */
+    public static AudioMetadata processAudioDataWithErrorDetails(byte[] audioData, StorageCodec codec) throws IOException, IllegalArgumentException {
         try {
-            return processAudioData(audioData);
+            return processAudioData(audioData, codec);
         } catch (IllegalArgumentException e) {
             // Provide more detailed error information
             String formatDescription = getAudioFormatDescription(audioData);
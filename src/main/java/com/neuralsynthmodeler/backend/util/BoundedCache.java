@@ -0,0 +1,205 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe in-memory cache bounded by total weight (e.g. bytes) rather than entry count.
+ *
+ * Entries expire after an idle period without access and after an absolute time-to-live,
+ * whichever comes first. When the total weight exceeds the limit, the least recently used
+ * entries are evicted. {@link #get(Object, Function)} reads through to a loader on a miss.
+ */
+public class BoundedCache<K, V> {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long createdAtNanos;
+        private long lastAccessNanos;
+
+        Entry(V value, long weight, long now) {
+            this.value = value;
+            this.weight = weight;
+            this.createdAtNanos = now;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    private final long maxWeight;
+    private final long idleTtlNanos;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier clock;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long lastSweepNanos;
+
+    private long hits;
+    private long misses;
+    private long loads;
+    private long evictions;
+    private long expirations;
+
+    public BoundedCache(long maxWeight, Duration idleTtl, Duration ttl, ToLongFunction<V> weigher) {
+        this(maxWeight, idleTtl, ttl, weigher, System::nanoTime);
+    }
+
+    BoundedCache(long maxWeight, Duration idleTtl, Duration ttl, ToLongFunction<V> weigher, LongSupplier clock) {
+        this.maxWeight = maxWeight;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.clock = clock;
+        this.lastSweepNanos = clock.getAsLong();
+    }
+
+    /**
+     * Return the cached value, or null if absent or expired.
+     */
+    public synchronized V getIfPresent(K key) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(entry, now)) {
+            removeEntry(key, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+        entry.lastAccessNanos = now;
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Return the cached value, loading and caching it on a miss. The loader runs outside the
+     * cache lock and may return null, which is not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                loads++;
+            }
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long now = clock.getAsLong();
+        long weight = weigher.applyAsLong(value);
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        if (weight > maxWeight) {
+            // Never cache an entry larger than the whole cache
+            return;
+        }
+        entries.put(key, new Entry<>(value, weight, now));
+        totalWeight += weight;
+        sweepIfDue(now);
+        evictToLimit();
+    }
+
+    /**
+     * Cache the value unless a live entry exists, and return whichever value is cached afterwards.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = getIfPresent(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            removeEntry(key, entry);
+        }
+    }
+
+    /**
+     * Remove all expired entries.
+     */
+    public synchronized void cleanUp() {
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<V> entry = it.next().getValue();
+            if (isExpired(entry, now)) {
+                it.remove();
+                totalWeight -= entry.weight;
+                expirations++;
+            }
+        }
+        lastSweepNanos = now;
+    }
+
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * Hit, miss, load, eviction and expiration counters plus the current size and weight.
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("weight", totalWeight);
+        stats.put("max_weight", maxWeight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("loads", loads);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.lastAccessNanos >= idleTtlNanos || now - entry.createdAtNanos >= ttlNanos;
+    }
+
+    private void removeEntry(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+    }
+
+    private void sweepIfDue(long now) {
+        if (now - lastSweepNanos >= Math.min(idleTtlNanos, ttlNanos) / 2) {
+            cleanUp();
+        }
+    }
+
+    private void evictToLimit() {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            Entry<V> eldest = it.next().getValue();
+            it.remove();
+            totalWeight -= eldest.weight;
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe circuit breaker over a sliding window of the most recent call outcomes.
+ *
+ * While CLOSED, calls are permitted and their outcomes recorded. Once at least {@code minimumCalls} of
+ * the last {@code windowSize} calls are recorded and the failure rate reaches the threshold, the breaker
+ * goes OPEN and refuses calls for the open duration. After that it goes HALF_OPEN and lets up to
+ * {@code halfOpenCalls} trial calls through: if they all succeed it closes again, a single failure
+ * opens it for another period.
+ *
+ * Callers ask {@link #tryAcquire()} before a call and report exactly one of {@link #onSuccess()} or
+ * {@link #onFailure()} for every permitted call.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    // Ring buffer of recent outcomes, true for failure
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private long rejected;
+    private long opened;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                          int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+                   int halfOpenCalls, LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Whether a call may be made now. Every permitted call must report its outcome.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAtNanos < openNanos) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                rejected++;
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call permitted before the breaker opened
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    /**
+     * Current state; an OPEN breaker whose open period has passed reports HALF_OPEN.
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Seconds until an OPEN breaker lets trial calls through, 0 otherwise.
+     */
+    public synchronized long getRemainingOpenSeconds() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remaining = openNanos - (clock.getAsLong() - openedAtNanos);
+        return remaining > 0 ? Math.max(1, Duration.ofNanos(remaining).toSeconds()) : 0;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = clock.getAsLong();
+        opened++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    /**
+     * State, failure rate over the window, and how often the breaker opened and refused calls.
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", getState().name());
+        stats.put("window_calls", recorded);
+        stats.put("failure_rate", recorded > 0 ? failures / (double) recorded : 0.0);
+        stats.put("opened", opened);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+}
@@ -0,0 +1,650 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * GZIP at a configurable deflate level. The format of audio written before codecs existed.
+ *
+ * Blobs are compressed and decompressed in one pass over arrays, without streams. The native
+ * {@link Deflater} and {@link Inflater} are taken from bounded pools and reset after use instead of
+ * being created and ended per call; beyond the pool size, extra ones are created and ended as before.
+ * Decompressed output is sized from the ISIZE trailer, so a single-member blob is inflated into an
+ * array of exactly its size; concatenated members, whose trailer only gives the size of the last one,
+ * grow the array as needed. Callers with their own buffers use {@link #encodeInto} and
+ * {@link #decodeInto}, which allocate nothing but the CRC.
+ *
+ * Data of at least the parallel threshold is compressed the way pigz does it: cut into blocks compressed
+ * on a {@link ForkJoinPool} as separate GZIP members, which are concatenated. Any GZIP reader reads that
+ * as the whole data; the ratio loses a little because blocks do not share their history. Streams from
+ * {@link #encoder} do the same once the threshold has been written: the bytes up to it are compressed as
+ * they arrive into a first member, and each block after it is handed to the pool as soon as it fills, so
+ * a streamed upload is mostly compressed by the time it ends.
+ *
+ * Instances are thread-safe.
+ */
+public class GzipCodec implements StorageCodec {
+
+    public static final String NAME = "gzip";
+
+    /**
+     * Default level and pool size, shared by callers without a configured codec
+     */
+    public static final GzipCodec DEFAULT = new GzipCodec();
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int HEADER_BYTES = 10;
+    private static final int TRAILER_BYTES = 8;
+    // Deflate, no flags, no modification time, no extra flags, OS 0, as GZIPOutputStream writes it
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int MAX_ARRAY_BYTES = Integer.MAX_VALUE - 8;
+    // Deflate expands at most 1032 times, 258 bytes from each 2-bit code
+    private static final long MAX_DEFLATE_RATIO = 1032L;
+
+    private final int level;
+    private final ArrayBlockingQueue<Deflater> deflaters;
+    private final ArrayBlockingQueue<Inflater> inflaters;
+    private final int parallelThreshold;
+    private final int blockBytes;
+    private final ForkJoinPool forkJoinPool;
+    private final AtomicInteger deflatersInUse = new AtomicInteger();
+
+    /**
+     * @param level Deflate level from 1 (fastest) to 9 (smallest), or -1 for the default (6)
+     * @param poolSize Deflaters and inflaters each kept for reuse
+     * @param parallelThreshold Size from which data is compressed in parallel blocks, 0 to never
+     * @param blockBytes Size of the blocks compressed in parallel
+     * @param forkJoinPool Where the blocks are compressed
+     */
+    public GzipCodec(int level, int poolSize, int parallelThreshold, int blockBytes, ForkJoinPool forkJoinPool) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("GZIP level must be between 1 and 9, or -1 for the default");
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("GZIP pool size must be at least 1");
+        }
+        if (parallelThreshold > 0 && blockBytes < 1) {
+            throw new IllegalArgumentException("GZIP parallel block size must be at least 1 byte");
+        }
+        if (parallelThreshold > 0 && forkJoinPool == null) {
+            throw new IllegalArgumentException("GZIP parallel compression needs a ForkJoinPool");
+        }
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<>(poolSize);
+        this.parallelThreshold = parallelThreshold;
+        this.blockBytes = blockBytes;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public GzipCodec(int level, int poolSize) {
+        this(level, poolSize, 0, 0, null);
+    }
+
+    public GzipCodec(int level) {
+        this(level, defaultPoolSize());
+    }
+
+    public GzipCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Two per core: enough for every worker and event loop thread compressing at once
+     */
+    public static int defaultPoolSize() {
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(byte[] data) throws IOException {
+        if (parallelThreshold > 0 && data.length >= parallelThreshold && data.length > blockBytes) {
+            return encodeParallel(data);
+        }
+        byte[] out = new byte[maxEncodedLength(data.length)];
+        int length = encodeInto(data, 0, data.length, out, 0);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    /**
+     * Compress {@code length} bytes of {@code src} as one GZIP member into {@code dst}, which needs room
+     * for {@link #maxEncodedLength} bytes to be safe. Returns the compressed length.
+     */
+    public int encodeInto(byte[] src, int offset, int length, byte[] dst, int dstOffset) throws IOException {
+        int end = dst.length - TRAILER_BYTES;
+        if (end - dstOffset < HEADER_BYTES) {
+            throw new IOException("Output buffer too small for GZIP data");
+        }
+        System.arraycopy(HEADER, 0, dst, dstOffset, HEADER_BYTES);
+        int position = dstOffset + HEADER_BYTES;
+        Deflater deflater = acquireDeflater();
+        try {
+            deflater.setInput(src, offset, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (position == end) {
+                    throw new IOException("Output buffer too small for GZIP data");
+                }
+                position += deflater.deflate(dst, position, end - position);
+            }
+        } finally {
+            releaseDeflater(deflater);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(src, offset, length);
+        writeIntLE(dst, position, (int) crc.getValue());
+        writeIntLE(dst, position + 4, length);
+        return position + TRAILER_BYTES - dstOffset;
+    }
+
+    private byte[] encodeParallel(byte[] data) throws IOException {
+        int blocks = (int) ((data.length + (long) blockBytes - 1) / blockBytes);
+        byte[][] members = new byte[blocks][];
+        int[] lengths = new int[blocks];
+        try {
+            forkJoinPool.invoke(new CompressBlocks(data, members, lengths, 0, blocks));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        int total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        byte[] out = new byte[total];
+        int position = 0;
+        for (int i = 0; i < blocks; i++) {
+            System.arraycopy(members[i], 0, out, position, lengths[i]);
+            position += lengths[i];
+        }
+        return out;
+    }
+
+    /**
+     * Upper bound of the GZIP size of {@code length} bytes: zlib's deflate bound for incompressible
+     * input, plus header and trailer.
+     */
+    public static int maxEncodedLength(int length) {
+        long bound = (long) length + (length >> 12) + (length >> 14) + (length >> 25) + 13 + HEADER_BYTES + TRAILER_BYTES;
+        if (bound > MAX_ARRAY_BYTES) {
+            throw new IllegalArgumentException("Data of " + length + " bytes is too large to compress at once");
+        }
+        return (int) bound;
+    }
+
+    @Override
+    public byte[] decode(byte[] data) throws IOException {
+        Output out = new Output(new byte[uncompressedSizeHint(data)], 0, true);
+        inflate(data, 0, data.length, out);
+        return out.position == out.buffer.length ? out.buffer : Arrays.copyOf(out.buffer, out.position);
+    }
+
+    /**
+     * Decompress every GZIP member in {@code length} bytes of {@code src} into {@code dst}. Returns the
+     * decompressed length; fails if it does not fit.
+     */
+    public int decodeInto(byte[] src, int offset, int length, byte[] dst, int dstOffset) throws IOException {
+        Output out = new Output(dst, dstOffset, false);
+        inflate(src, offset, length, out);
+        return out.position - dstOffset;
+    }
+
+    /**
+     * The ISIZE trailer of the last member: the exact decompressed size of a single-member blob under
+     * 4 GB. 0 when there is no trailer. The trailer is not checked until the data is inflated, so it is
+     * capped at what deflate can expand {@code data} to; a forged one cannot force a huge allocation.
+     */
+    public static int uncompressedSizeHint(byte[] data) {
+        if (data.length < HEADER_BYTES + TRAILER_BYTES) {
+            return 0;
+        }
+        long size = readIntLE(data, data.length - 4) & 0xFFFFFFFFL;
+        return (int) Math.min(Math.min(size, data.length * MAX_DEFLATE_RATIO), MAX_ARRAY_BYTES);
+    }
+
+    private void inflate(byte[] src, int offset, int length, Output out) throws IOException {
+        int end = offset + length;
+        int position = offset;
+        int start = out.position;
+        Inflater inflater = acquireInflater();
+        try {
+            do {
+                position = skipHeader(src, position, end);
+                inflater.reset();
+                inflater.setInput(src, position, end - position);
+                int memberStart = out.position;
+                while (!inflater.finished()) {
+                    if (out.position == out.buffer.length) {
+                        // The end of the stream may still be pending with the output exactly full
+                        inflateChunk(inflater, out, 0);
+                        if (inflater.finished()) {
+                            break;
+                        }
+                        // Concatenated members: expect the rest to inflate like what came before
+                        long consumed = end - inflater.getRemaining() - offset;
+                        long expected = (long) (end - offset - consumed) * (out.position - start) / Math.max(1, consumed);
+                        out.grow(out.position + expected + (expected >> 3));
+                    }
+                    int inflated = inflateChunk(inflater, out, out.buffer.length - out.position);
+                    if (inflated == 0 && inflater.needsInput()) {
+                        throw new EOFException("Unexpected end of GZIP data");
+                    }
+                    if (inflated == 0 && inflater.needsDictionary()) {
+                        throw new ZipException("GZIP data needs a preset dictionary");
+                    }
+                }
+                position = end - inflater.getRemaining();
+                if (end - position < TRAILER_BYTES) {
+                    throw new EOFException("GZIP trailer is missing");
+                }
+                int memberLength = out.position - memberStart;
+                CRC32 crc = new CRC32();
+                crc.update(out.buffer, memberStart, memberLength);
+                if (readIntLE(src, position) != (int) crc.getValue()) {
+                    throw new ZipException("GZIP CRC mismatch");
+                }
+                if (readIntLE(src, position + 4) != memberLength) {
+                    throw new ZipException("GZIP size mismatch");
+                }
+                position += TRAILER_BYTES;
+                // Further members follow as pigz and parallel compression write them; other trailing bytes
+                // are ignored like GZIPInputStream does
+            } while (end - position >= 2 && (src[position] & 0xFF) == 0x1f && (src[position + 1] & 0xFF) == 0x8b);
+        } finally {
+            releaseInflater(inflater);
+        }
+    }
+
+    private static int inflateChunk(Inflater inflater, Output out, int length) throws ZipException {
+        try {
+            int inflated = inflater.inflate(out.buffer, out.position, length);
+            out.position += inflated;
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid GZIP data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check the member header at {@code position} and return where its deflate data starts
+     */
+    private static int skipHeader(byte[] src, int position, int end) throws IOException {
+        if (end - position < HEADER_BYTES) {
+            throw new EOFException("GZIP header is truncated");
+        }
+        if ((src[position] & 0xFF) != 0x1f || (src[position + 1] & 0xFF) != 0x8b) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (src[position + 2] != Deflater.DEFLATED) {
+            throw new ZipException("Unsupported GZIP compression method " + src[position + 2]);
+        }
+        int flags = src[position + 3] & 0xFF;
+        position += HEADER_BYTES;
+        if ((flags & FEXTRA) != 0) {
+            if (end - position < 2) {
+                throw new EOFException("GZIP header is truncated");
+            }
+            position += 2 + ((src[position] & 0xFF) | (src[position + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            position = skipZeroTerminated(src, position, end);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            position = skipZeroTerminated(src, position, end);
+        }
+        if ((flags & FHCRC) != 0) {
+            position += 2;
+        }
+        if (position > end) {
+            throw new EOFException("GZIP header is truncated");
+        }
+        return position;
+    }
+
+    private static int skipZeroTerminated(byte[] src, int position, int end) throws EOFException {
+        while (position < end && src[position] != 0) {
+            position++;
+        }
+        if (position == end) {
+            throw new EOFException("GZIP header is truncated");
+        }
+        return position + 1;
+    }
+
+    @Override
+    public OutputStream encoder(OutputStream out) throws IOException {
+        return parallelThreshold > 0 ? new BlockGzipOutputStream(out) : new PooledGzipOutputStream(out);
+    }
+
+    /**
+     * Returns the stream's deflater to the pool and cancels its blocks still waiting to be compressed
+     */
+    @Override
+    public void abort(OutputStream encoder) {
+        if (encoder instanceof BlockGzipOutputStream blockStream) {
+            blockStream.abort();
+        } else if (encoder instanceof PooledGzipOutputStream pooledStream) {
+            pooledStream.abort();
+        } else {
+            StorageCodec.super.abort(encoder);
+        }
+    }
+
+    /**
+     * Deflaters taken and not yet returned, by calls in progress and open encoder streams
+     */
+    int deflatersInUse() {
+        return deflatersInUse.get();
+    }
+
+    private Deflater acquireDeflater() {
+        deflatersInUse.incrementAndGet();
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private void releaseDeflater(Deflater deflater) {
+        deflatersInUse.decrementAndGet();
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    private void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private static int readIntLE(byte[] data, int position) {
+        return (data[position] & 0xFF)
+            | (data[position + 1] & 0xFF) << 8
+            | (data[position + 2] & 0xFF) << 16
+            | (data[position + 3] & 0xFF) << 24;
+    }
+
+    private static void writeIntLE(byte[] data, int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+        data[position + 2] = (byte) (value >>> 16);
+        data[position + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Decompression target, growable when the caller did not supply it
+     */
+    private static class Output {
+        private byte[] buffer;
+        private int position;
+        private final boolean growable;
+
+        Output(byte[] buffer, int position, boolean growable) {
+            this.buffer = buffer;
+            this.position = position;
+            this.growable = growable;
+        }
+
+        void grow(long expectedLength) throws IOException {
+            if (!growable) {
+                throw new IOException("Output buffer too small for decompressed data");
+            }
+            if (buffer.length == MAX_ARRAY_BYTES) {
+                throw new IOException("Decompressed data is too large");
+            }
+            long length = Math.max(expectedLength, buffer.length + Math.max(BUFFER_BYTES, buffer.length >> 2));
+            buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_ARRAY_BYTES, length));
+        }
+    }
+
+    /**
+     * Compresses blocks {@code from} to {@code to} of {@code data}, splitting the range in halves
+     */
+    private class CompressBlocks extends RecursiveAction {
+        private final byte[] data;
+        private final byte[][] members;
+        private final int[] lengths;
+        private final int from;
+        private final int to;
+
+        CompressBlocks(byte[] data, byte[][] members, int[] lengths, int from, int to) {
+            this.data = data;
+            this.members = members;
+            this.lengths = lengths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompressBlocks(data, members, lengths, from, middle),
+                    new CompressBlocks(data, members, lengths, middle, to));
+                return;
+            }
+            int offset = from * blockBytes;
+            int length = Math.min(blockBytes, data.length - offset);
+            byte[] member = new byte[maxEncodedLength(length)];
+            try {
+                lengths[from] = encodeInto(data, offset, length, member, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            members[from] = member;
+        }
+    }
+
+    /**
+     * Compresses one block into a GZIP member of its own, returning the member's length
+     */
+    private class CompressBlock extends RecursiveTask<Integer> {
+        private final byte[] block;
+        private final int length;
+        private final byte[] member;
+
+        CompressBlock(byte[] block, int length) {
+            this.block = block;
+            this.length = length;
+            this.member = new byte[maxEncodedLength(length)];
+        }
+
+        @Override
+        protected Integer compute() {
+            try {
+                return encodeInto(block, 0, length, member, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The first {@code parallelThreshold} bytes as one member written as they go, then a member per block
+     * compressed on the pool while the next block fills. Members are written in order as they complete;
+     * at most two blocks per pool thread are in flight, beyond that the writer waits for the oldest.
+     */
+    private class BlockGzipOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final PooledGzipOutputStream head;
+        private final ArrayDeque<CompressBlock> pending = new ArrayDeque<>();
+        private final int maxPending = 2 * Math.max(1, forkJoinPool.getParallelism());
+        private long written;
+        private byte[] block;
+        private int blockLength;
+        private boolean closed;
+
+        BlockGzipOutputStream(OutputStream out) throws IOException {
+            this.out = out;
+            this.head = new PooledGzipOutputStream(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int count) throws IOException {
+            if (closed) {
+                throw new IOException("GZIP stream is already closed");
+            }
+            while (count > 0) {
+                int n;
+                if (written < parallelThreshold) {
+                    n = (int) Math.min(count, parallelThreshold - written);
+                    head.write(data, offset, n);
+                    if (written + n == parallelThreshold) {
+                        head.finish();
+                    }
+                } else {
+                    if (block == null) {
+                        block = new byte[blockBytes];
+                    }
+                    n = Math.min(count, blockBytes - blockLength);
+                    System.arraycopy(data, offset, block, blockLength, n);
+                    blockLength += n;
+                    if (blockLength == blockBytes) {
+                        submitBlock();
+                    }
+                }
+                offset += n;
+                count -= n;
+                written += n;
+            }
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                writeMember(pending.poll());
+            }
+        }
+
+        private void submitBlock() throws IOException {
+            CompressBlock task = new CompressBlock(block, blockLength);
+            block = null;
+            blockLength = 0;
+            forkJoinPool.execute(task);
+            pending.add(task);
+            if (pending.size() > maxPending) {
+                writeMember(pending.poll());
+            }
+        }
+
+        private void writeMember(CompressBlock task) throws IOException {
+            int length;
+            try {
+                length = task.join();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.write(task.member, 0, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                head.finish();
+                if (blockLength > 0) {
+                    submitBlock();
+                }
+                while (!pending.isEmpty()) {
+                    writeMember(pending.poll());
+                }
+            } finally {
+                out.close();
+            }
+        }
+
+        void abort() {
+            closed = true;
+            head.abort();
+            for (CompressBlock task : pending) {
+                task.cancel(false);
+            }
+            pending.clear();
+            block = null;
+        }
+    }
+
+    /**
+     * One GZIP member written as it goes with a pooled deflater, which goes back to the pool when the
+     * stream is finished
+     */
+    private class PooledGzipOutputStream extends DeflaterOutputStream {
+        private final CRC32 crc = new CRC32();
+        private long length;
+        private boolean finished;
+
+        PooledGzipOutputStream(OutputStream out) throws IOException {
+            super(out, acquireDeflater(), BUFFER_BYTES);
+            out.write(HEADER);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int count) throws IOException {
+            if (finished) {
+                // The deflater is back in the pool
+                throw new IOException("GZIP stream is already finished");
+            }
+            super.write(data, offset, count);
+            crc.update(data, offset, count);
+            length += count;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            try {
+                super.finish();
+                byte[] trailer = new byte[TRAILER_BYTES];
+                writeIntLE(trailer, 0, (int) crc.getValue());
+                writeIntLE(trailer, 4, (int) length);
+                out.write(trailer);
+            } finally {
+                // Also when writing failed, the stream is unusable then
+                finished = true;
+                releaseDeflater(def);
+            }
+        }
+
+        void abort() {
+            if (!finished) {
+                finished = true;
+                releaseDeflater(def);
+            }
+        }
+    }
+}
@@ -1,36 +1,27 @@
 package com.neuralsynthmodeler.backend.util;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Utility class for GZIP compression and decompression operations using Apache Commons Compress
- * This wrapper provides a clean interface to Apache Commons Compress GZIP functionality
+ * Utility class for GZIP compression and decompression operations
+ * Compression goes through the shared {@link GzipCodec}, which reuses its native deflaters and inflaters;
+ * file name handling uses Apache Commons Compress
  */
 public class GzipUtils {
     
     private static final Logger logger = LoggerFactory.getLogger(GzipUtils.class);
     
     /**
-     * Decompress GZIP compressed byte array using Apache Commons Compress
+     * Decompress GZIP compressed byte array, every member of a concatenated stream included
      * 
      * @param compressed The compressed byte array
      * @return The decompressed byte array
      * @throws IOException If decompression fails or data is not valid GZIP
      */
     public static byte[] decompress(byte[] compressed) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(compressed);
-             GzipCompressorInputStream gzipIn = new GzipCompressorInputStream(bais);
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            
-            gzipIn.transferTo(baos);
-            return baos.toByteArray();
-        }
+        return GzipCodec.DEFAULT.decode(compressed);
     }
     
     /**
@@ -41,13 +32,7 @@ public class GzipUtils {
      * @throws IOException If compression fails
      */
     public static byte[] compress(byte[] data) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             java.util.zip.GZIPOutputStream gzipOut = new java.util.zip.GZIPOutputStream(baos)) {
-            
-            gzipOut.write(data);
-            gzipOut.finish();
-            return baos.toByteArray();
-        }
+        return GzipCodec.DEFAULT.encode(data);
     }
     
     /**
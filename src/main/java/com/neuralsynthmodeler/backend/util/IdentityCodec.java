@@ -0,0 +1,37 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stores data as is. The format of presets written before codecs existed.
+ */
+public class IdentityCodec implements StorageCodec {
+
+    public static final String NAME = "none";
+
+    public static final IdentityCodec INSTANCE = new IdentityCodec();
+
+    private IdentityCodec() {
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(byte[] data) {
+        return data;
+    }
+
+    @Override
+    public byte[] decode(byte[] data) {
+        return data;
+    }
+
+    @Override
+    public OutputStream encoder(OutputStream out) throws IOException {
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compression format of stored audio and presets. The name is stored next to each blob as its codec
+ * tag, so blobs written with another codec stay readable after the configured one changes.
+ */
+public interface StorageCodec {
+
+    /**
+     * Codec tag stored with blobs written by this codec
+     */
+    String name();
+
+    /**
+     * Compress a complete blob
+     */
+    byte[] encode(byte[] data) throws IOException;
+
+    /**
+     * Decompress a blob written by this codec
+     */
+    byte[] decode(byte[] data) throws IOException;
+
+    /**
+     * Wrap {@code out} in a stream compressing what is written to it. Closing or finishing the
+     * returned stream completes the compressed data.
+     */
+    OutputStream encoder(OutputStream out) throws IOException;
+
+    /**
+     * Give up on a stream from {@link #encoder}, releasing what it holds without completing the
+     * compressed data. The stream must not be used afterwards. Does nothing to a completed stream.
+     */
+    default void abort(OutputStream encoder) {
+        try {
+            encoder.close();
+        } catch (IOException e) {
+            // The compressed data is dropped anyway
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Incremental audio ingest for streamed uploads.
+ *
+ * The format is decided from the first bytes of the stream (GZIP magic or RIFF/WAVE header),
+ * so invalid uploads are rejected before the rest of the body is read. Raw WAV input is
+ * compressed with the storage codec chunk by chunk as it arrives, large uploads in parallel
+ * blocks when the codec is set up for it (see {@link GzipCodec}); GZIP input is stored as
+ * received. Only the compressed form is kept in memory, the decompressed audio is never
+ * materialized here. The WAV header is read as the bytes go by, raw or decompressed, for the
+ * format of the audio. Only the RIFF/WAVE signature is required; audio whose chunks cannot be
+ * read (ADPCM, mu-law, odd bit depths, ...) is accepted without a format.
+ *
+ * Instances are single-use. Chunks must be passed in order from one thread at a time; {@link #abort}
+ * may come from any thread, for an upload that fails or is cancelled.
+ */
+public class StreamingAudioIngest {
+
+    private static final int HEADER_BYTES = 12;
+    private static final int SCRATCH_BYTES = 64 * 1024;
+
+    private enum Mode { UNKNOWN, GZIP, WAV }
+
+    private final long maxUploadBytes;
+    private final long maxDecompressedBytes;
+    private final StorageCodec codec;
+    private final byte[] header = new byte[HEADER_BYTES];
+    private final byte[] scratch = new byte[SCRATCH_BYTES];
+    private final ByteArrayOutputStream compressedOut = new ByteArrayOutputStream(SCRATCH_BYTES);
+    private final WavFormat.HeaderReader wavHeader = new WavFormat.HeaderReader();
+    private boolean wavHeaderFailed;
+    private OutputStream encoderOut;
+    private Mode mode = Mode.UNKNOWN;
+    private int headerLength;
+    private long receivedBytes;
+    private boolean done;
+
+    /**
+     * @param maxUploadBytes Upper bound on the number of bytes accepted from the client
+     */
+    public StreamingAudioIngest(long maxUploadBytes) {
+        this(maxUploadBytes, GzipCodec.DEFAULT);
+    }
+
+    /**
+     * @param maxUploadBytes Upper bound on the number of bytes accepted from the client
+     * @param codec The codec raw WAV input is compressed with
+     */
+    public StreamingAudioIngest(long maxUploadBytes, StorageCodec codec) {
+        this(maxUploadBytes, Integer.MAX_VALUE, codec);
+    }
+
+    /**
+     * @param maxUploadBytes Upper bound on the number of bytes accepted from the client
+     * @param maxDecompressedBytes Upper bound on the size of the WAV, after decompression for GZIP
+     *                             uploads; at most {@link Integer#MAX_VALUE}, the largest size recorded
+     * @param codec The codec raw WAV input is compressed with
+     */
+    public StreamingAudioIngest(long maxUploadBytes, long maxDecompressedBytes, StorageCodec codec) {
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxDecompressedBytes = Math.min(maxDecompressedBytes, Integer.MAX_VALUE);
+        this.codec = codec;
+    }
+
+    /**
+     * Consume one chunk of the upload. The buffer is read but not released.
+     *
+     * @param buffer The next chunk of the request body
+     * @throws IOException If compression of the chunk fails
+     * @throws IllegalArgumentException If the upload is too large or not a supported format
+     */
+    public synchronized void accept(DataBuffer buffer) throws IOException, IllegalArgumentException {
+        if (done) {
+            throw new IOException("Audio upload was already finished or aborted");
+        }
+        int readable = buffer.readableByteCount();
+        receivedBytes += readable;
+        if (receivedBytes > maxUploadBytes) {
+            throw new IllegalArgumentException(String.format(
+                "Audio processing failed: upload exceeds the maximum size of %d bytes", maxUploadBytes));
+        }
+
+        while (buffer.readableByteCount() > 0) {
+            if (mode == Mode.UNKNOWN) {
+                int n = Math.min(HEADER_BYTES - headerLength, buffer.readableByteCount());
+                buffer.read(header, headerLength, n);
+                headerLength += n;
+                detectFormat(false);
+                if (mode != Mode.UNKNOWN) {
+                    write(header, 0, headerLength);
+                }
+            } else {
+                int n = Math.min(scratch.length, buffer.readableByteCount());
+                buffer.read(scratch, 0, n);
+                write(scratch, 0, n);
+            }
+        }
+        if (mode == Mode.WAV && receivedBytes > maxDecompressedBytes) {
+            throw decompressedTooLarge();
+        }
+    }
+
+    /**
+     * Complete the upload and return the stored (compressed) representation.
+     * The decompressed data in the returned metadata is always null.
+     *
+     * @return AudioMetadata describing the compressed audio
+     * @throws IOException If compression fails or the GZIP stream is corrupt
+     * @throws IllegalArgumentException If the upload is empty or not a supported format
+     */
+    public synchronized AudioFormatUtils.AudioMetadata finish() throws IOException, IllegalArgumentException {
+        if (done) {
+            throw new IOException("Audio upload was already finished or aborted");
+        }
+        if (receivedBytes == 0) {
+            throw new IllegalArgumentException("Audio data is null or empty");
+        }
+        if (mode == Mode.UNKNOWN) {
+            detectFormat(true);
+            write(header, 0, headerLength);
+        }
+
+        // Sizes are at most maxDecompressedBytes, so they fit the int sizes recorded
+        if (mode == Mode.WAV) {
+            encoderOut.close();
+            done = true;
+            WavFormat wavFormat = readWavFormat(receivedBytes);
+            byte[] compressed = compressedOut.toByteArray();
+            return new AudioFormatUtils.AudioMetadata(
+                compressed, null, compressed.length, (int) receivedBytes, false, "WAV", codec.name(), wavFormat);
+        }
+
+        done = true;
+        byte[] compressed = compressedOut.toByteArray();
+        long uncompressedSize = validateGzipPayload(compressed);
+        WavFormat wavFormat = readWavFormat(uncompressedSize);
+        return new AudioFormatUtils.AudioMetadata(
+            compressed, null, compressed.length, (int) uncompressedSize, true, "GZIP-compressed WAV", GzipCodec.NAME,
+            wavFormat);
+    }
+
+    /**
+     * Give up on the upload: release the encoder and drop blocks still waiting to be compressed.
+     * Does nothing once the upload is finished, so it can run whatever way the upload ended.
+     */
+    public synchronized void abort() {
+        if (done) {
+            return;
+        }
+        done = true;
+        if (encoderOut != null) {
+            codec.abort(encoderOut);
+            encoderOut = null;
+        }
+    }
+
+    private void detectFormat(boolean endOfStream) {
+        byte[] prefix = Arrays.copyOf(header, headerLength);
+        if (GzipUtils.isGzipCompressed(prefix)) {
+            mode = Mode.GZIP;
+        } else if (headerLength == HEADER_BYTES || endOfStream) {
+            if (!AudioFormatUtils.isValidWavFormat(prefix)) {
+                throw new IllegalArgumentException(String.format(
+                    "Audio processing failed: Unsupported audio format: File is neither valid GZIP nor valid WAV. Detected format: %s",
+                    AudioFormatUtils.getAudioFormatDescription(prefix)));
+            }
+            mode = Mode.WAV;
+        }
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        if (mode == Mode.GZIP) {
+            compressedOut.write(data, offset, length);
+            return;
+        }
+        readWavHeader(data, offset, length);
+        if (encoderOut == null) {
+            encoderOut = codec.encoder(compressedOut);
+        }
+        encoderOut.write(data, offset, length);
+    }
+
+    private void readWavHeader(byte[] data, int offset, int length) {
+        if (wavHeader.isComplete() || wavHeaderFailed) {
+            return;
+        }
+        try {
+            wavHeader.accept(data, offset, length);
+        } catch (IllegalArgumentException e) {
+            // Sent to the model as uploaded, see ModelInputConverter
+            wavHeaderFailed = true;
+        }
+    }
+
+    /**
+     * The format of the audio, or null if its header could not be read
+     */
+    private WavFormat readWavFormat(long wavBytes) {
+        if (wavHeaderFailed) {
+            return null;
+        }
+        try {
+            return wavHeader.finish(wavBytes);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Inflate the GZIP payload into a fixed scratch buffer, checking that it holds a WAV file
+     * and reading its header on the way, and counting the decompressed size without keeping the
+     * decompressed bytes. Fails once the size passes the decompressed limit.
+     */
+    private long validateGzipPayload(byte[] compressed) throws IOException {
+        long total = 0;
+        byte[] signature = new byte[HEADER_BYTES];
+        int signatureLength = 0;
+        try (InputStream in = new GzipCompressorInputStream(new ByteArrayInputStream(compressed), true)) {
+            int n;
+            while ((n = in.read(scratch)) != -1) {
+                total += n;
+                // Stop inflating a GZIP bomb as soon as it is too large
+                if (total > maxDecompressedBytes) {
+                    throw decompressedTooLarge();
+                }
+                if (signatureLength < HEADER_BYTES) {
+                    int copy = Math.min(HEADER_BYTES - signatureLength, n);
+                    System.arraycopy(scratch, 0, signature, signatureLength, copy);
+                    signatureLength += copy;
+                    if (signatureLength == HEADER_BYTES && !AudioFormatUtils.isValidWavFormat(signature)) {
+                        throw new IllegalArgumentException(
+                            "Audio processing failed: Decompressed data is not a valid WAV file");
+                    }
+                }
+                readWavHeader(scratch, 0, n);
+            }
+        }
+        if (signatureLength < HEADER_BYTES) {
+            throw new IllegalArgumentException("Audio processing failed: Decompressed data is not a valid WAV file");
+        }
+        return total;
+    }
+
+    private IllegalArgumentException decompressedTooLarge() {
+        return new IllegalArgumentException(String.format(
+            "Audio processing failed: decompressed audio exceeds the maximum size of %d bytes", maxDecompressedBytes));
+    }
+}
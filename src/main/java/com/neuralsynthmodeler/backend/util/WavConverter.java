@@ -0,0 +1,244 @@
+package com.neuralsynthmodeler.backend.util;
+
+/**
+ * Converts WAV audio to a fixed sample rate, channel count and PCM sample size.
+ *
+ * Channels are mixed down to mono by averaging; mono is copied to every output channel; otherwise the
+ * first channels are kept, the last repeated if there are too few. The sample rate is changed with a
+ * polyphase windowed-sinc filter (Blackman window, 16 zero crossings) with its cutoff at the lower of
+ * the two Nyquist frequencies, so downsampling does not fold high frequencies back into the audible
+ * band. Output is rounded without dither, so the same input always converts to the same bytes.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public class WavConverter {
+
+    private static final int ZERO_CROSSINGS = 16;
+    // Rate ratios needing more phases, e.g. 44100 -> 16000 (160 phases) is far below, are rounded to this many
+    private static final int MAX_PHASES = 1024;
+    private static final int HEADER_BYTES = 44;
+
+    private final WavFormat target;
+
+    public WavConverter(int sampleRate, int channels, int bitsPerSample) {
+        this.target = WavFormat.pcm(sampleRate, channels, bitsPerSample);
+    }
+
+    public WavFormat getTarget() {
+        return target;
+    }
+
+    /**
+     * The audio of {@code wav} in the target format, as a WAV file with only fmt and data chunks;
+     * {@code wav} itself when its samples already are in the target format.
+     *
+     * @throws IllegalArgumentException If {@code wav} is not a WAV file we can read
+     */
+    public byte[] convert(byte[] wav) {
+        WavFormat source = WavFormat.parse(wav);
+        if (source.hasSameSampleFormat(target)) {
+            return wav;
+        }
+        float[][] channels = mix(wav, source, target.getChannels());
+        for (int channel = 0; channel < channels.length; channel++) {
+            channels[channel] = resample(channels[channel], source.getSampleRate(), target.getSampleRate());
+        }
+        return encode(channels, target);
+    }
+
+    /**
+     * Decode the samples of {@code source} to floats in [-1, 1], mixed to {@code outputChannels}
+     * channels, see the class comment
+     */
+    static float[][] mix(byte[] wav, WavFormat source, int outputChannels) {
+        int frames = (int) source.getFrames();
+        int inputChannels = source.getChannels();
+        int sampleBytes = source.getSampleBytes();
+        float[][] out = new float[outputChannels][frames];
+        int position = (int) source.getDataOffset();
+        for (int frame = 0; frame < frames; frame++) {
+            if (outputChannels == 1 && inputChannels > 1) {
+                float sum = 0;
+                for (int channel = 0; channel < inputChannels; channel++) {
+                    sum += readSample(wav, position, source);
+                    position += sampleBytes;
+                }
+                out[0][frame] = sum / inputChannels;
+            } else {
+                for (int channel = 0; channel < inputChannels; channel++) {
+                    float sample = readSample(wav, position, source);
+                    position += sampleBytes;
+                    if (inputChannels == 1) {
+                        for (int copy = 0; copy < outputChannels; copy++) {
+                            out[copy][frame] = sample;
+                        }
+                    } else if (channel < outputChannels) {
+                        out[channel][frame] = sample;
+                    }
+                }
+            }
+        }
+        // Fewer input than output channels, neither mono: repeat the last one
+        if (inputChannels > 1) {
+            for (int channel = inputChannels; channel < outputChannels; channel++) {
+                out[channel] = out[inputChannels - 1].clone();
+            }
+        }
+        return out;
+    }
+
+    private static float readSample(byte[] wav, int position, WavFormat format) {
+        if (format.getEncoding() == WavFormat.IEEE_FLOAT) {
+            return format.getBitsPerSample() == 32
+                ? Float.intBitsToFloat(readIntLE(wav, position))
+                : (float) Double.longBitsToDouble((readIntLE(wav, position) & 0xFFFFFFFFL) | (long) readIntLE(wav, position + 4) << 32);
+        }
+        return switch (format.getBitsPerSample()) {
+            case 8 -> ((wav[position] & 0xFF) - 128) / 128f;
+            case 16 -> (short) ((wav[position] & 0xFF) | wav[position + 1] << 8) / 32768f;
+            case 24 -> ((wav[position] & 0xFF) | (wav[position + 1] & 0xFF) << 8 | wav[position + 2] << 16) / 8388608f;
+            default -> readIntLE(wav, position) / 2147483648f;
+        };
+    }
+
+    /**
+     * Change the sample rate of one channel from {@code fromRate} to {@code toRate}. Samples outside the
+     * input count as silence.
+     */
+    static float[] resample(float[] in, int fromRate, int toRate) {
+        if (fromRate == toRate) {
+            return in;
+        }
+        int gcd = gcd(fromRate, toRate);
+        int up = toRate / gcd;
+        int down = fromRate / gcd;
+        // Relative to the input Nyquist frequency; below 1 when downsampling
+        double cutoff = Math.min(1.0, (double) up / down);
+        int half = (int) Math.ceil(ZERO_CROSSINGS / cutoff);
+        int taps = 2 * half;
+        int phases = Math.min(up, MAX_PHASES);
+        float[][] filters = new float[phases][taps];
+        for (int phase = 0; phase < phases; phase++) {
+            double fraction = (double) phase / phases;
+            double sum = 0;
+            for (int tap = 0; tap < taps; tap++) {
+                double x = tap - half + 1 - fraction;
+                double value = cutoff * sinc(cutoff * x) * blackman(x / half);
+                filters[phase][tap] = (float) value;
+                sum += value;
+            }
+            // Unity gain at DC for every phase
+            for (int tap = 0; tap < taps; tap++) {
+                filters[phase][tap] /= (float) sum;
+            }
+        }
+
+        float[] out = new float[(int) ((long) in.length * up / down)];
+        for (int n = 0; n < out.length; n++) {
+            long time = (long) n * down;
+            int base = (int) (time / up);
+            float[] filter = filters[(int) (time % up * phases / up)];
+            int start = base - half + 1;
+            int from = Math.max(0, -start);
+            int to = Math.min(taps, in.length - start);
+            float sample = 0;
+            for (int tap = from; tap < to; tap++) {
+                sample += in[start + tap] * filter[tap];
+            }
+            out[n] = sample;
+        }
+        return out;
+    }
+
+    private static double sinc(double x) {
+        return x == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+    }
+
+    /**
+     * Blackman window over [-1, 1]
+     */
+    private static double blackman(double x) {
+        if (x <= -1 || x >= 1) {
+            return 0;
+        }
+        return 0.42 + 0.5 * Math.cos(Math.PI * x) + 0.08 * Math.cos(2 * Math.PI * x);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * A PCM WAV file holding {@code channels}, interleaved, in {@code format}
+     */
+    static byte[] encode(float[][] channels, WavFormat format) {
+        int frames = channels[0].length;
+        int sampleBytes = format.getSampleBytes();
+        long dataLength = (long) frames * format.getFrameBytes();
+        if (dataLength + HEADER_BYTES > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Converted audio is too large");
+        }
+        byte[] wav = new byte[(int) dataLength + HEADER_BYTES];
+        writeHeader(wav, format, (int) dataLength);
+        double scale = Math.pow(2, format.getBitsPerSample() - 1);
+        int position = HEADER_BYTES;
+        for (int frame = 0; frame < frames; frame++) {
+            for (float[] channel : channels) {
+                long value = Math.round(channel[frame] * scale);
+                value = Math.max((long) -scale, Math.min((long) scale - 1, value));
+                if (sampleBytes == 1) {
+                    // 8-bit WAV is unsigned
+                    value += 128;
+                }
+                for (int b = 0; b < sampleBytes; b++) {
+                    wav[position++] = (byte) (value >> (8 * b));
+                }
+            }
+        }
+        return wav;
+    }
+
+    private static void writeHeader(byte[] wav, WavFormat format, int dataLength) {
+        writeAscii(wav, 0, "RIFF");
+        writeIntLE(wav, 4, HEADER_BYTES - 8 + dataLength);
+        writeAscii(wav, 8, "WAVE");
+        writeAscii(wav, 12, "fmt ");
+        writeIntLE(wav, 16, 16);
+        writeShortLE(wav, 20, WavFormat.PCM);
+        writeShortLE(wav, 22, format.getChannels());
+        writeIntLE(wav, 24, format.getSampleRate());
+        writeIntLE(wav, 28, format.getSampleRate() * format.getFrameBytes());
+        writeShortLE(wav, 32, format.getFrameBytes());
+        writeShortLE(wav, 34, format.getBitsPerSample());
+        writeAscii(wav, 36, "data");
+        writeIntLE(wav, 40, dataLength);
+    }
+
+    private static int readIntLE(byte[] data, int position) {
+        return (data[position] & 0xFF)
+            | (data[position + 1] & 0xFF) << 8
+            | (data[position + 2] & 0xFF) << 16
+            | (data[position + 3] & 0xFF) << 24;
+    }
+
+    private static void writeAscii(byte[] data, int position, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            data[position + i] = (byte) value.charAt(i);
+        }
+    }
+
+    private static void writeShortLE(byte[] data, int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+    }
+
+    private static void writeIntLE(byte[] data, int position, int value) {
+        writeShortLE(data, position, value);
+        writeShortLE(data, position + 2, value >>> 16);
+    }
+}
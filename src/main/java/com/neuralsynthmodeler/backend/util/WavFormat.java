@@ -0,0 +1,273 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sample format and data layout of a RIFF/WAVE file, read from its chunks.
+ *
+ * The fmt chunk gives the encoding (integer PCM or IEEE float, also when wrapped in
+ * WAVE_FORMAT_EXTENSIBLE), channels, sample rate and bits per sample; the data chunk gives where the
+ * samples are. Chunks in between (LIST, bext, fact, JUNK, ...) are skipped with the pad byte that follows
+ * odd-sized chunks. A data size of 0 or 0xFFFFFFFF, as left by recorders that never patched the header,
+ * or one larger than the file, is cut to the bytes actually there.
+ *
+ * Instances are immutable.
+ */
+public final class WavFormat {
+
+    public static final int PCM = 1;
+    public static final int IEEE_FLOAT = 3;
+    private static final int EXTENSIBLE = 0xFFFE;
+
+    private static final int RIFF_HEADER_BYTES = 12;
+    private static final int CHUNK_HEADER_BYTES = 8;
+    // WAVE_FORMAT_EXTENSIBLE, the longest fmt layout we read; anything after it is skipped
+    private static final int FMT_BYTES = 40;
+    private static final long UNKNOWN_SIZE = 0xFFFFFFFFL;
+
+    private final int encoding;
+    private final int channels;
+    private final int sampleRate;
+    private final int bitsPerSample;
+    private final long dataOffset;
+    private final long dataLength;
+
+    private WavFormat(int encoding, int channels, int sampleRate, int bitsPerSample, long dataOffset, long dataLength) {
+        this.encoding = encoding;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    /**
+     * Integer PCM without data, to describe a format to convert to
+     */
+    public static WavFormat pcm(int sampleRate, int channels, int bitsPerSample) {
+        validate(PCM, channels, sampleRate, bitsPerSample);
+        return new WavFormat(PCM, channels, sampleRate, bitsPerSample, 0, 0);
+    }
+
+    /**
+     * Read the format of a whole WAV file.
+     *
+     * @throws IllegalArgumentException If the data is not a WAV file we can read
+     */
+    public static WavFormat parse(byte[] wav) {
+        HeaderReader reader = new HeaderReader();
+        reader.accept(wav, 0, wav.length);
+        return reader.finish(wav.length);
+    }
+
+    /**
+     * The format of a whole WAV file, or null if it is not one we can read. Uploads are accepted either
+     * way; without a format they are sent to the model as uploaded.
+     */
+    public static WavFormat tryParse(byte[] wav) {
+        try {
+            return parse(wav);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** {@link #PCM} or {@link #IEEE_FLOAT} */
+    public int getEncoding() { return encoding; }
+    public int getChannels() { return channels; }
+    public int getSampleRate() { return sampleRate; }
+    public int getBitsPerSample() { return bitsPerSample; }
+    /** Bytes per sample of one channel */
+    public int getSampleBytes() { return bitsPerSample / 8; }
+    /** Bytes per sample of all channels */
+    public int getFrameBytes() { return channels * getSampleBytes(); }
+    /** Position of the first sample in the file */
+    public long getDataOffset() { return dataOffset; }
+    /** Bytes of samples, whole frames only */
+    public long getDataLength() { return dataLength; }
+    public long getFrames() { return dataLength / getFrameBytes(); }
+    public long getDurationMillis() { return getFrames() * 1000 / sampleRate; }
+
+    /**
+     * Whether samples of both are stored the same way, wherever their data is
+     */
+    public boolean hasSameSampleFormat(WavFormat other) {
+        return encoding == other.encoding && channels == other.channels && sampleRate == other.sampleRate
+            && bitsPerSample == other.bitsPerSample;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WavFormat{%s, %d Hz, %d channels, %d bits, %d ms}",
+            encoding == PCM ? "PCM" : "float", sampleRate, channels, bitsPerSample, getDurationMillis());
+    }
+
+    private static void validate(int encoding, int channels, int sampleRate, int bitsPerSample) {
+        if (channels < 1) {
+            throw new IllegalArgumentException("WAV file has no channels");
+        }
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("WAV file has an invalid sample rate of " + sampleRate);
+        }
+        boolean supported = encoding == PCM
+            ? bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32
+            : encoding == IEEE_FLOAT && (bitsPerSample == 32 || bitsPerSample == 64);
+        if (!supported) {
+            throw new IllegalArgumentException(String.format("Unsupported WAV encoding %d with %d bits per sample",
+                encoding, bitsPerSample));
+        }
+    }
+
+    private static int readShortLE(byte[] data, int position) {
+        return (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8;
+    }
+
+    private static int readIntLE(byte[] data, int position) {
+        return readShortLE(data, position) | readShortLE(data, position + 2) << 16;
+    }
+
+    /**
+     * Reads the header of a WAV file fed to it in pieces, up to the start of the data chunk, keeping
+     * only the chunk header and fmt fields it is reading. Used on uploads as they stream in.
+     *
+     * Not thread-safe.
+     */
+    public static class HeaderReader {
+
+        private enum State { RIFF, CHUNK, FMT, SKIP, DONE }
+
+        private final byte[] pending = new byte[FMT_BYTES];
+        private State state = State.RIFF;
+        private int needed = RIFF_HEADER_BYTES;
+        private int pendingLength;
+        private long skip;
+        private long skipAfterFmt;
+        private long position;
+
+        private boolean hasFmt;
+        private int encoding;
+        private int channels;
+        private int sampleRate;
+        private int bitsPerSample;
+        private long dataOffset;
+        private long dataSize;
+
+        /**
+         * Consume the next bytes of the file. Bytes after the start of the data chunk are ignored.
+         *
+         * @return true once the header is complete
+         * @throws IllegalArgumentException If the bytes so far are not a WAV header we can read
+         */
+        public boolean accept(byte[] data, int offset, int length) {
+            int end = offset + length;
+            while (offset < end && state != State.DONE) {
+                if (state == State.SKIP) {
+                    int n = (int) Math.min(skip, end - offset);
+                    skip -= n;
+                    offset += n;
+                    position += n;
+                    if (skip == 0) {
+                        expect(State.CHUNK, CHUNK_HEADER_BYTES);
+                    }
+                    continue;
+                }
+                int n = Math.min(needed - pendingLength, end - offset);
+                System.arraycopy(data, offset, pending, pendingLength, n);
+                pendingLength += n;
+                offset += n;
+                position += n;
+                if (pendingLength == needed) {
+                    completePending();
+                }
+            }
+            return state == State.DONE;
+        }
+
+        public boolean isComplete() {
+            return state == State.DONE;
+        }
+
+        /**
+         * The format, for a file of {@code totalLength} bytes
+         *
+         * @throws IllegalArgumentException If the header did not reach the data chunk
+         */
+        public WavFormat finish(long totalLength) {
+            if (state != State.DONE) {
+                throw new IllegalArgumentException(hasFmt ? "WAV file has no data chunk" : "WAV file has no fmt chunk");
+            }
+            long available = Math.max(0, totalLength - dataOffset);
+            long length = dataSize == 0 || dataSize == UNKNOWN_SIZE ? available : Math.min(dataSize, available);
+            int frameBytes = channels * (bitsPerSample / 8);
+            return new WavFormat(encoding, channels, sampleRate, bitsPerSample, dataOffset, length - length % frameBytes);
+        }
+
+        private void expect(State next, int bytes) {
+            state = next;
+            needed = bytes;
+            pendingLength = 0;
+        }
+
+        private void completePending() {
+            switch (state) {
+                case RIFF -> {
+                    if (!AudioFormatUtils.isValidWavFormat(pending)) {
+                        throw new IllegalArgumentException("Not a RIFF/WAVE file");
+                    }
+                    expect(State.CHUNK, CHUNK_HEADER_BYTES);
+                }
+                case CHUNK -> readChunkHeader();
+                case FMT -> {
+                    readFmt();
+                    skip = skipAfterFmt;
+                    if (skip > 0) {
+                        state = State.SKIP;
+                    } else {
+                        expect(State.CHUNK, CHUNK_HEADER_BYTES);
+                    }
+                }
+                default -> throw new IllegalStateException("Unexpected state " + state);
+            }
+        }
+
+        private void readChunkHeader() {
+            String id = new String(pending, 0, 4, StandardCharsets.US_ASCII);
+            long size = readIntLE(pending, 4) & 0xFFFFFFFFL;
+            if ("fmt ".equals(id)) {
+                if (size < 16) {
+                    throw new IllegalArgumentException("WAV fmt chunk is too short");
+                }
+                int read = (int) Math.min(size, FMT_BYTES);
+                skipAfterFmt = size - read + (size & 1);
+                expect(State.FMT, read);
+            } else if ("data".equals(id)) {
+                if (!hasFmt) {
+                    throw new IllegalArgumentException("WAV data chunk comes before the fmt chunk");
+                }
+                dataOffset = position;
+                dataSize = size;
+                state = State.DONE;
+            } else {
+                skip = size + (size & 1);
+                state = skip > 0 ? State.SKIP : State.CHUNK;
+                pendingLength = 0;
+            }
+        }
+
+        private void readFmt() {
+            encoding = readShortLE(pending, 0);
+            channels = readShortLE(pending, 2);
+            sampleRate = readIntLE(pending, 4);
+            bitsPerSample = readShortLE(pending, 14);
+            if (encoding == EXTENSIBLE) {
+                if (needed < FMT_BYTES) {
+                    throw new IllegalArgumentException("WAV fmt chunk is too short for WAVE_FORMAT_EXTENSIBLE");
+                }
+                // The sub-format GUID starts with the format tag
+                encoding = readShortLE(pending, 24);
+            }
+            validate(encoding, channels, sampleRate, bitsPerSample);
+            hasFmt = true;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.neuralsynthmodeler.backend.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Zstandard, optionally with a trained dictionary.
+ *
+ * A dictionary helps small blobs of a known shape, like preset JSON, that are too short for the
+ * compressor to learn their repetitions from. Frames record the id of their dictionary; frames written
+ * without one are always readable, frames written with one only by a codec holding the same dictionary.
+ * Dictionaries are made with {@link #trainDictionary} or {@code zstd --train}.
+ */
+public class ZstdCodec implements StorageCodec {
+
+    public static final String NAME = "zstd";
+
+    // Frame magic number 0xFD2FB528, little endian
+    private static final byte[] MAGIC = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD};
+
+    private final int level;
+    private final byte[] dictionary;
+    private final long dictionaryId;
+    private final ZstdDictCompress dictCompress;
+    private final ZstdDictDecompress dictDecompress;
+
+    /**
+     * @param level Compression level, 1 (fastest) to 19 (smallest) for regular use
+     * @param dictionary Trained dictionary to compress with, or null
+     */
+    public ZstdCodec(int level, byte[] dictionary) {
+        if (level < Zstd.minCompressionLevel() || level > Zstd.maxCompressionLevel()) {
+            throw new IllegalArgumentException("zstd level must be between " + Zstd.minCompressionLevel()
+                + " and " + Zstd.maxCompressionLevel());
+        }
+        this.level = level;
+        this.dictionary = dictionary;
+        if (dictionary != null) {
+            this.dictionaryId = Zstd.getDictIdFromDict(dictionary);
+            this.dictCompress = new ZstdDictCompress(dictionary, level);
+            this.dictDecompress = new ZstdDictDecompress(dictionary);
+        } else {
+            this.dictionaryId = 0;
+            this.dictCompress = null;
+            this.dictDecompress = null;
+        }
+    }
+
+    public ZstdCodec(int level) {
+        this(level, null);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Id of the dictionary, 0 without one
+     */
+    public long getDictionaryId() {
+        return dictionaryId;
+    }
+
+    @Override
+    public byte[] encode(byte[] data) throws IOException {
+        try {
+            return dictCompress != null ? Zstd.compress(data, dictCompress) : Zstd.compress(data, level);
+        } catch (ZstdException e) {
+            throw new IOException("zstd compression failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public byte[] decode(byte[] data) throws IOException {
+        long frameDictionaryId = Zstd.getDictIdFromFrame(data);
+        if (frameDictionaryId != 0 && frameDictionaryId != dictionaryId) {
+            throw new IOException("Data was compressed with zstd dictionary " + frameDictionaryId
+                + ", which is not loaded");
+        }
+        boolean withDictionary = frameDictionaryId != 0;
+        try {
+            long size = Zstd.getFrameContentSize(data);
+            if (size >= 0 && size <= Integer.MAX_VALUE - 8) {
+                return withDictionary
+                    ? Zstd.decompress(data, dictDecompress, (int) size)
+                    : Zstd.decompress(data, (int) size);
+            }
+            // Written by a stream, which does not record the size up front
+            try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(data))) {
+                if (withDictionary) {
+                    ((ZstdInputStream) in).setDict(dictDecompress);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+                in.transferTo(out);
+                return out.toByteArray();
+            }
+        } catch (ZstdException e) {
+            throw new IOException("zstd decompression failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public OutputStream encoder(OutputStream out) throws IOException {
+        ZstdOutputStream zstdOut = new ZstdOutputStream(out, level);
+        if (dictionary != null) {
+            zstdOut.setDict(dictCompress);
+        }
+        return zstdOut;
+    }
+
+    /**
+     * Check for the zstd frame magic number
+     */
+    public static boolean isZstdCompressed(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Train a dictionary of at most {@code dictionarySize} bytes from sample blobs. A few hundred
+     * samples and a dictionary about a tenth of their total size are typical.
+     */
+    public static byte[] trainDictionary(List<byte[]> samples, int dictionarySize) {
+        int total = samples.stream().mapToInt(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer(total, dictionarySize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
+}
@@ -1,30 +1,17 @@
 -- SQL initialization script for NEURAL_SYNTH database and users
+-- Tables are created and upgraded by the backend at startup from db/mysql/migration (V<n>__*.sql, applied
+-- in order and recorded in schema_version). With db.migration.enabled=false, apply them in order by hand.
 
 -- 1. Create the database
 CREATE DATABASE IF NOT EXISTS NEURAL_SYNTH;
 USE NEURAL_SYNTH;
 
--- 2. Create the INFERENCE_REQUEST table
-CREATE TABLE IF NOT EXISTS INFERENCE_REQUEST (
-    id VARCHAR(64) PRIMARY KEY,
-    model VARCHAR(32) NOT NULL,
-    synth VARCHAR(32) NOT NULL,
-    status VARCHAR(32) NOT NULL,
-    created_at DATETIME(3) NOT NULL,
-    updated_at DATETIME(3) NOT NULL,
-    audio_ref VARCHAR(64) NOT NULL,
-    audio_size_gzipped INT NOT NULL,
-    audio_size_uncompressed INT NOT NULL,
-    result_ref VARCHAR(64),
-    error TEXT,
-    meta JSON
-);
-
--- 3. Create users and grant privileges
+-- 2. Create users and grant privileges
+-- The backend runs the migrations and adds and drops INFERENCE_REQUEST partitions, hence the DDL privileges
 CREATE USER IF NOT EXISTS 'readwrite'@'%' IDENTIFIED BY 'readwrite';
-GRANT SELECT, INSERT, UPDATE, DELETE ON NEURAL_SYNTH.* TO 'readwrite'@'%';
+GRANT SELECT, INSERT, UPDATE, DELETE, CREATE, ALTER, INDEX, DROP ON NEURAL_SYNTH.* TO 'readwrite'@'%';
 
 CREATE USER IF NOT EXISTS 'readonly'@'%' IDENTIFIED BY 'readonly';
 GRANT SELECT ON NEURAL_SYNTH.* TO 'readonly'@'%';
 
-FLUSH PRIVILEGES; 
\ No newline at end of file
+FLUSH PRIVILEGES; 
@@ -1,7 +1,6 @@
--- MySQL schema for inference_request table (MVP, no analytics)
--- S3 replaced by MongoDB for audio storage
+-- INFERENCE_REQUEST as first deployed. Later versions bring existing tables up to date.
 
-CREATE TABLE INFERENCE_REQUEST (
+CREATE TABLE IF NOT EXISTS INFERENCE_REQUEST (
     id VARCHAR(64) PRIMARY KEY,
     model VARCHAR(32) NOT NULL,
     synth VARCHAR(32) NOT NULL,                -- Synth name (e.g., 'vital')
@@ -9,8 +8,9 @@ CREATE TABLE INFERENCE_REQUEST (
     created_at DATETIME(3) NOT NULL,
     updated_at DATETIME(3) NOT NULL,
     audio_ref VARCHAR(64) NOT NULL,            -- MongoDB ObjectId or UUID
-    audio_size_compressed INT NOT NULL,        -- Size of compressed audio
+    audio_size_gzipped INT NOT NULL,           -- Size of the gzipped audio as stored
+    audio_size_uncompressed INT NOT NULL,      -- Size of the audio before compression
     result_ref VARCHAR(64),                    -- Reference to result in MongoDB (optional)
     error TEXT,
-    meta JSON                                 -- Optional: extensible metadata
-); 
\ No newline at end of file
+    meta JSON                                  -- Optional: extensible metadata
+);
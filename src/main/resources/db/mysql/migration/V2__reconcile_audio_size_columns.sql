@@ -0,0 +1,17 @@
+-- Tables created from the old INFERENCE_REQUEST.sql have a single audio_size_compressed column that the
+-- repository never writes, so inserts fail. Replace it with the gzipped/uncompressed pair.
+
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN audio_size_gzipped INT NOT NULL DEFAULT 0;
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN audio_size_uncompressed INT NOT NULL DEFAULT 0;
+
+-- Keep the sizes already recorded, only when the old column exists
+SET @copy_sizes = IF(
+    (SELECT COUNT(*) FROM information_schema.COLUMNS
+     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'INFERENCE_REQUEST' AND COLUMN_NAME = 'audio_size_compressed') > 0,
+    'UPDATE INFERENCE_REQUEST SET audio_size_gzipped = audio_size_compressed',
+    'DO 0');
+PREPARE copy_sizes FROM @copy_sizes;
+EXECUTE copy_sizes;
+DEALLOCATE PREPARE copy_sizes;
+
+ALTER TABLE INFERENCE_REQUEST DROP COLUMN audio_size_compressed;
@@ -0,0 +1,6 @@
+-- Lease columns for the MySQL-backed inference queue (inference.queue.mode=mysql)
+
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN lease_owner VARCHAR(128);             -- Instance holding the work lease
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN lease_expires_at DATETIME(3);         -- After which another instance may reclaim the request
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN attempts INT NOT NULL DEFAULT 0;      -- Number of times the request was claimed
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_queue (status, lease_expires_at);
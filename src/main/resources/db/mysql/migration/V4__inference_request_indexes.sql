@@ -0,0 +1,13 @@
+-- Indexes for the repository's access paths, each ending in the sort columns so none needs a filesort
+
+-- Keyset listing and export, unfiltered and by status, model or synth
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_created (created_at, id);
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_status_created (status, created_at, id);
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_model_created (model, created_at, id);
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_synth_created (synth, created_at, id);
+
+-- Status bus polling (findUpdatedSince)
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_updated (updated_at);
+
+-- Orphan recovery (findStale)
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_status_updated (status, updated_at);
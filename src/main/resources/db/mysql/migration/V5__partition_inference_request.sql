@@ -0,0 +1,13 @@
+-- Range-partition INFERENCE_REQUEST by month of created_at, so old requests are removed by dropping a
+-- partition instead of deleting rows. Every unique key of a partitioned table must contain the
+-- partitioning column, so the primary key becomes (id, created_at); ids stay unique since they are UUIDs.
+--
+-- Rows before the first boundary stay in p_history. PartitionMaintenanceService splits p_max into
+-- monthly partitions ahead of time, so p_max stays empty and splitting it is cheap.
+
+ALTER TABLE INFERENCE_REQUEST DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE INFERENCE_REQUEST PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p_history VALUES LESS THAN ('2026-11-01'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
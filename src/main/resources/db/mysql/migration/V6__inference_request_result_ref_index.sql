@@ -0,0 +1,3 @@
+-- Retention checks whether a result (preset) is still referenced by a newer request before deleting it
+
+ALTER TABLE INFERENCE_REQUEST ADD INDEX idx_inference_request_result_ref (result_ref);
@@ -0,0 +1,6 @@
+-- Duration, sample rate and channels of the uploaded WAV, read from its header. NULL for requests
+-- accepted before they were recorded.
+
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN audio_duration_ms INT NULL;
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN audio_sample_rate INT NULL;
+ALTER TABLE INFERENCE_REQUEST ADD COLUMN audio_channels SMALLINT NULL;
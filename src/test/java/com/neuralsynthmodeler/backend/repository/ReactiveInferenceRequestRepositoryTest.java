@@ -0,0 +1,103 @@
+package com.neuralsynthmodeler.backend.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.model.InferenceRequestFilter;
+import reactor.core.publisher.Flux;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ReactiveInferenceRequestRepositoryTest {
+
+    private ReactiveInferenceRequestRepository reactiveRepository;
+
+    @AfterEach
+    public void tearDown() {
+        if (reactiveRepository != null) {
+            reactiveRepository.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallsRunOnJdbcScheduler() {
+        InferenceRequestRepository repository = mock(InferenceRequestRepository.class);
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(repository.findById("a")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return Optional.of(InferenceRequestEntity.builder().id("a").build());
+        });
+        when(repository.findById("missing")).thenReturn(Optional.empty());
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+
+        assertEquals("a", reactiveRepository.findById("a").block(Duration.ofSeconds(5)).getId());
+        assertTrue(thread.get().startsWith("jdbc"), "JDBC call ran on " + thread.get());
+        assertNull(reactiveRepository.findById("missing").block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void testConcurrencyIsBoundedByPoolSize() throws InterruptedException {
+        InferenceRequestRepository repository = mock(InferenceRequestRepository.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.updateStatus(anyString(), anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return 1;
+        });
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+
+        CountDownLatch done = new CountDownLatch(1);
+        Flux.range(0, 6)
+            .flatMap(i -> reactiveRepository.updateStatus("id-" + i, "DONE"))
+            .doOnComplete(done::countDown)
+            .subscribe();
+        Thread.sleep(200);
+        assertEquals(2, maxRunning.get());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testStreamReadsLazilyAndClosesCursor() {
+        InferenceRequestRepository repository = mock(InferenceRequestRepository.class);
+        InferenceRequestRepository.EntityCursor cursor = mock(InferenceRequestRepository.EntityCursor.class);
+        AtomicInteger rowsRead = new AtomicInteger();
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(repository.openCursor(any())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return cursor;
+        });
+        when(cursor.next()).thenAnswer(invocation -> rowsRead.incrementAndGet() <= 1000
+            ? InferenceRequestEntity.builder().id("id-" + rowsRead.get()).build()
+            : null);
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+
+        // Cancelled after three rows: the rest are never read and the connection is released
+        List<InferenceRequestEntity> firstRows = reactiveRepository.stream(InferenceRequestFilter.builder().status("DONE").build())
+            .take(3)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+        assertEquals(3, firstRows.size());
+        assertTrue(rowsRead.get() < 1000, "Read " + rowsRead.get() + " rows");
+        assertTrue(thread.get().startsWith("jdbc"), "Cursor opened on " + thread.get());
+        verify(cursor).close();
+
+        // Read to the end, the cursor is closed again on completion
+        rowsRead.set(0);
+        assertEquals(1000L, reactiveRepository.findByStatus("DONE").count().block(Duration.ofSeconds(5)));
+        verify(cursor, times(2)).close();
+        assertEquals(0, reactiveRepository.getStats().get("active"));
+    }
+}
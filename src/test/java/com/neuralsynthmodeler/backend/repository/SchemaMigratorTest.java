@@ -0,0 +1,118 @@
+package com.neuralsynthmodeler.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+public class SchemaMigratorTest {
+
+    @Test
+    public void testMigrationsAreOrderedAndParse() {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.loadMigrations();
+
+        assertFalse(migrations.isEmpty());
+        for (int i = 0; i < migrations.size(); i++) {
+            SchemaMigrator.Migration migration = migrations.get(i);
+            assertEquals(i + 1, migration.version, "Migration versions must have no gaps");
+            List<String> statements = SchemaMigrator.parseStatements(migration.script);
+            assertFalse(statements.isEmpty(), "V" + migration.version + " has no statements");
+            for (String statement : statements) {
+                assertFalse(statement.contains("--"), "Comment left in: " + statement);
+                assertFalse(statement.endsWith(";"), "Terminator left in: " + statement);
+            }
+        }
+    }
+
+    @Test
+    public void testParseStatements() {
+        String script = """
+            -- Header comment
+
+            CREATE TABLE t (
+                id INT PRIMARY KEY,   -- trailing comment
+                name VARCHAR(10)
+            );
+            ALTER TABLE t ADD INDEX idx_name (name);
+            """;
+
+        List<String> statements = SchemaMigrator.parseStatements(script);
+
+        assertEquals(List.of("CREATE TABLE t (\nid INT PRIMARY KEY,\nname VARCHAR(10)\n)",
+            "ALTER TABLE t ADD INDEX idx_name (name)"), statements);
+    }
+
+    @Test
+    public void testSkipsAppliedVersionsAndChangesAlreadyPresent() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        // GET_LOCK succeeds, schema_version holds V1
+        ResultSet lock = mock(ResultSet.class);
+        when(lock.next()).thenReturn(true);
+        when(lock.getInt(1)).thenReturn(1);
+        SchemaMigrator.Migration v1 = new SchemaMigrator.Migration(1, "create", "CREATE TABLE a (id INT);");
+        SchemaMigrator.Migration v2 = new SchemaMigrator.Migration(2, "index",
+            "ALTER TABLE a ADD INDEX idx_id (id);\nALTER TABLE a ADD COLUMN b INT;");
+        ResultSet applied = mock(ResultSet.class);
+        when(applied.next()).thenReturn(true, false);
+        when(applied.getInt("version")).thenReturn(1);
+        when(applied.getLong("checksum")).thenReturn(v1.checksum);
+        PreparedStatement query = mock(PreparedStatement.class);
+        when(query.executeQuery()).thenReturn(lock, applied, mock(ResultSet.class));
+        when(conn.prepareStatement(anyString())).thenReturn(query);
+        List<String> executed = new ArrayList<>();
+        Statement stmt = mock(Statement.class);
+        when(stmt.execute(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            executed.add(sql);
+            if (sql.contains("ADD INDEX")) {
+                throw new SQLException("Duplicate key name 'idx_id'", "42000", 1061);
+            }
+            return false;
+        });
+        when(conn.createStatement()).thenReturn(stmt);
+
+        new SchemaMigrator(dataSource, true, 60).migrate(List.of(v1, v2));
+
+        assertEquals(3, executed.size());
+        assertTrue(executed.get(0).contains("schema_version"));
+        assertEquals("ALTER TABLE a ADD COLUMN b INT", executed.get(2));
+        // Only V2 is recorded
+        verify(query).setInt(1, 2);
+        verify(query, times(1)).executeUpdate();
+    }
+
+    @Test
+    public void testFailsOnOtherErrors() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        ResultSet lock = mock(ResultSet.class);
+        when(lock.next()).thenReturn(true);
+        when(lock.getInt(1)).thenReturn(1);
+        PreparedStatement query = mock(PreparedStatement.class);
+        when(query.executeQuery()).thenReturn(lock, mock(ResultSet.class), mock(ResultSet.class));
+        when(conn.prepareStatement(anyString())).thenReturn(query);
+        Statement stmt = mock(Statement.class);
+        when(stmt.execute(startsWith("ALTER"))).thenThrow(new SQLException("Unknown column", "42S22", 1054));
+        when(conn.createStatement()).thenReturn(stmt);
+
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, true, 60);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> migrator.migrate(
+            List.of(new SchemaMigrator.Migration(1, "broken", "ALTER TABLE a DROP INDEX b;"))));
+
+        assertTrue(e.getCause().getMessage().contains("V1"));
+        verify(query, never()).executeUpdate();
+        // The lock is released and the connection closed
+        verify(conn).close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores audio from non-blocking threads (the same kind Netty event loops are) through the sync and the
+ * reactive storage service, and reports how many blocking calls BlockHound saw and how long the
+ * non-blocking threads were held by storage calls.
+ *
+ * Needs a MongoDB instance, run with: mvn test -Pbenchmark -Dtest=AudioStorageLoadTest -Dmongodb.uri=mongodb://localhost:27017/test
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "mongodb.uri", matches = ".+")
+public class AudioStorageLoadTest {
+
+    private static final int REQUESTS = 500;
+    private static final int CONCURRENCY = 32;
+    private static final byte[] AUDIO = new byte[64 * 1024];
+    private static final StorageCodecs CODECS = new StorageCodecs("gzip", "none", 6, 0, 4194304, 524288, 0, 3, "");
+
+    private static final LongAdder blockingCalls = new LongAdder();
+    private static MongoClient syncClient;
+    private static com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private static String databaseName;
+
+    @BeforeAll
+    public static void setUp() {
+        String uri = System.getProperty("mongodb.uri");
+        BlockHound.builder()
+            .blockingMethodCallback(method -> blockingCalls.increment())
+            .install();
+        syncClient = MongoClients.create(uri);
+        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(uri);
+        String path = uri.substring(uri.lastIndexOf('/') + 1);
+        databaseName = path.isEmpty() || path.contains(":") ? "test" : path.split("\\?")[0];
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        syncClient.close();
+        reactiveClient.close();
+    }
+
+    @Test
+    public void testEventLoopBlockingTime() {
+        MongoDBAudioStorageService syncStorage = new MongoDBAudioStorageService(syncClient.getDatabase(databaseName), CODECS);
+        MongoDBReactiveAudioStorageService reactiveStorage =
+            new MongoDBReactiveAudioStorageService(reactiveClient.getDatabase(databaseName), CODECS, "chunked", 261120);
+
+        AtomicLong syncHeldNanos = new AtomicLong();
+        long syncBlockingCalls = run(() -> Mono.fromCallable(() -> {
+            long start = System.nanoTime();
+            String ref = syncStorage.storeAudio(AUDIO, AUDIO.length, AUDIO.length);
+            syncHeldNanos.addAndGet(System.nanoTime() - start);
+            return ref;
+        }));
+
+        AtomicLong reactiveHeldNanos = new AtomicLong();
+        long reactiveBlockingCalls = run(() -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<String> store = reactiveStorage.storeAudio(AUDIO, "gzip", AUDIO.length, AUDIO.length).cache();
+            // Subscribing issues the insert; the calling thread is released right away
+            store.subscribe();
+            reactiveHeldNanos.addAndGet(System.nanoTime() - start);
+            return store;
+        }));
+
+        System.out.printf("sync:     %d blocking calls, %d ms event-loop time%n",
+            syncBlockingCalls, syncHeldNanos.get() / 1_000_000);
+        System.out.printf("reactive: %d blocking calls, %d ms event-loop time%n",
+            reactiveBlockingCalls, reactiveHeldNanos.get() / 1_000_000);
+
+        assertTrue(syncBlockingCalls > 0, "The sync driver should be detected blocking");
+        assertEquals(0, reactiveBlockingCalls, "The reactive driver must not block non-blocking threads");
+    }
+
+    private static long run(java.util.function.Supplier<Mono<String>> store) {
+        long before = blockingCalls.sum();
+        Flux.range(0, REQUESTS)
+            .flatMap(i -> store.get().subscribeOn(Schedulers.parallel()), CONCURRENCY)
+            .blockLast();
+        return blockingCalls.sum() - before;
+    }
+}
@@ -0,0 +1,118 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.neuralsynthmodeler.backend.util.GzipCodec;
+import com.neuralsynthmodeler.backend.util.ZstdCodec;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ContentAddressedResultCacheTest {
+
+    private final byte[] audio = "RIFF some audio".repeat(100).getBytes();
+    // Contents of the fake result_index collection by _id
+    private final Map<String, Document> index = new ConcurrentHashMap<>();
+    private MongoDatabase database;
+    private MongoCollection<Document> indexCollection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        database = mock(MongoDatabase.class);
+        indexCollection = mock(MongoCollection.class);
+        when(database.getCollection("result_index")).thenReturn(indexCollection);
+        when(indexCollection.find(any(Bson.class))).thenAnswer(invocation -> {
+            String key = ((Bson) invocation.getArgument(0)).toBsonDocument().getString("_id").getValue();
+            FindPublisher<Document> publisher = mock(FindPublisher.class);
+            when(publisher.first()).thenReturn(Mono.justOrEmpty(index.get(key)));
+            return publisher;
+        });
+        when(indexCollection.replaceOne(any(Bson.class), any(Document.class), any())).thenAnswer(invocation -> {
+            Document entry = invocation.getArgument(1);
+            index.put(entry.getString("_id"), entry);
+            return Mono.just(UpdateResult.acknowledged(0, 0L, null));
+        });
+    }
+
+    private ContentAddressedResultCache cache(String modelVersion) {
+        return new ContentAddressedResultCache(database, true, modelVersion);
+    }
+
+    private static Optional<String> lookup(ContentAddressedResultCache cache, String contentKey) {
+        return cache.lookup(contentKey).block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testKeyDependsOnlyOnDecompressedAudio() throws IOException {
+        ContentAddressedResultCache cache = cache("1");
+        byte[] fromGzip = new GzipCodec().decode(new GzipCodec().encode(audio));
+        byte[] fromZstd = new ZstdCodec(3).decode(new ZstdCodec(3).encode(audio));
+
+        String key = cache.contentKey("vital", audio);
+        assertEquals(key, cache.contentKey("vital", fromGzip));
+        assertEquals(key, cache.contentKey("VITAL", fromZstd), "Model names are case insensitive");
+        assertEquals(key, cache("1").contentKey("vital", audio), "Keys are stable across instances");
+        assertNotEquals(key, cache.contentKey("serum", audio));
+        assertNotEquals(key, cache.contentKey("vital", "RIFF other audio".getBytes()));
+    }
+
+    @Test
+    public void testModelVersionChangesTheKey() {
+        ContentAddressedResultCache first = cache("1");
+        first.record(first.contentKey("vital", audio), "vital", "preset-1").block(Duration.ofSeconds(5));
+
+        ContentAddressedResultCache bumped = cache("2");
+        String bumpedKey = bumped.contentKey("vital", audio);
+        assertNotEquals(first.contentKey("vital", audio), bumpedKey);
+        assertEquals(Optional.empty(), lookup(bumped, bumpedKey), "Entries of the old model version are not reused");
+    }
+
+    @Test
+    public void testHitOnlyAfterRecord() {
+        ContentAddressedResultCache cache = cache("1");
+        String key = cache.contentKey("vital", audio);
+
+        assertEquals(Optional.empty(), lookup(cache, key));
+        // Nothing is written until the record Mono is subscribed
+        Mono<Void> record = cache.record(key, "Vital", "preset-1");
+        assertEquals(Optional.empty(), lookup(cache, key));
+        record.block(Duration.ofSeconds(5));
+
+        assertEquals(Optional.of("preset-1"), lookup(cache, key));
+        assertEquals("vital", index.get(key).getString("model"));
+        assertEquals("1", index.get(key).getString("model_version"));
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(2L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    public void testFailuresAreMissesAndDisabledCacheDoesNothing() {
+        when(indexCollection.find(any(Bson.class))).thenThrow(new IllegalStateException("MongoDB down"));
+        when(indexCollection.replaceOne(any(Bson.class), any(Document.class), any()))
+            .thenReturn(Mono.error(new IllegalStateException("MongoDB down")));
+        ContentAddressedResultCache cache = cache("1");
+        String key = cache.contentKey("vital", audio);
+
+        assertDoesNotThrow(() -> cache.record(key, "vital", "preset-1").block(Duration.ofSeconds(5)));
+        assertEquals(Optional.empty(), lookup(cache, key));
+        assertEquals(1L, cache.getStats().get("misses"));
+
+        ContentAddressedResultCache disabled = new ContentAddressedResultCache(database, false, "1");
+        disabled.record(key, "vital", "preset-1").block(Duration.ofSeconds(5));
+        assertEquals(Optional.empty(), lookup(disabled, key));
+        assertEquals(0L, disabled.getStats().get("misses"));
+    }
+}
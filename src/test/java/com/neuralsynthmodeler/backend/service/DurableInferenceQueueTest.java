@@ -0,0 +1,102 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+public class DurableInferenceQueueTest {
+
+    private InferenceRequestRepository repository;
+    private ReactiveInferenceRequestRepository reactiveRepository;
+    private InferenceJobQueue jobQueue;
+    private InferenceService inferenceService;
+    private StatusStreamService statusStreamService;
+    private ModelServerClient modelServerClient;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(InferenceRequestRepository.class);
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+        jobQueue = new InferenceJobQueue(10, 2, 5);
+        inferenceService = mock(InferenceService.class);
+        statusStreamService = mock(StatusStreamService.class);
+        modelServerClient = mock(ModelServerClient.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jobQueue.shutdown();
+        reactiveRepository.shutdown();
+    }
+
+    private DurableInferenceQueue queue(int leaseSeconds) {
+        // Poll interval 0 disables the poller, polls are driven by the test
+        return new DurableInferenceQueue(repository, reactiveRepository, jobQueue, inferenceService,
+            statusStreamService, modelServerClient, "node-a", 0, leaseSeconds, 8, 3);
+    }
+
+    private static InferenceRequestEntity request(String id, String status) {
+        return InferenceRequestEntity.builder().id(id).status(status).audioRef("audio-" + id).build();
+    }
+
+    @Test
+    public void testClaimsOnlyWhatIdleWorkersCanRun() {
+        when(repository.claimPending(eq("node-a"), anyInt(), anyInt(), anyInt()))
+            .thenReturn(List.of(request("a", "PENDING"), request("b", "PROCESSING")));
+        when(inferenceService.resumeInference(any())).thenReturn(Mono.never());
+        DurableInferenceQueue queue = queue(120);
+
+        queue.poll();
+
+        verify(repository).claimPending("node-a", 120, 2, 3);
+        verify(inferenceService, timeout(1000).times(2)).resumeInference(any());
+        assertEquals(2, queue.getStats().get("leased"));
+        assertEquals(1L, queue.getStats().get("reclaimed"));
+
+        // Both workers are busy, nothing more is claimed
+        queue.poll();
+        verify(repository, times(1)).claimPending(anyString(), anyInt(), anyInt(), anyInt());
+
+        queue.shutdown();
+        verify(repository).releaseLeases(eq("node-a"), argThat(ids -> ids.size() == 2));
+    }
+
+    @Test
+    public void testLeaseIsDroppedWhenJobFinishes() {
+        when(repository.claimPending(anyString(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(List.of(request("a", "PENDING")));
+        when(inferenceService.resumeInference(any())).thenReturn(Mono.empty());
+        DurableInferenceQueue queue = queue(120);
+
+        queue.poll();
+
+        verify(inferenceService, timeout(1000)).resumeInference(any());
+        long deadline = System.currentTimeMillis() + 1000;
+        while ((int) queue.getStats().get("leased") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, queue.getStats().get("leased"));
+        queue.shutdown();
+        verify(repository, never()).releaseLeases(anyString(), anyList());
+    }
+
+    @Test
+    public void testExhaustedRequestsAreFailed() {
+        when(repository.failExhausted(eq(3), anyString(), anyInt())).thenReturn(List.of("a"));
+        // Lease of 0 s renews and checks for exhausted requests on every poll
+        DurableInferenceQueue queue = queue(0);
+
+        queue.poll();
+
+        verify(statusStreamService).updateStatus("a", InferenceService.RequestStatus.ERROR);
+        assertEquals(1L, queue.getStats().get("exhausted"));
+    }
+}
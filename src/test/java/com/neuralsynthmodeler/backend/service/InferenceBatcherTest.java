@@ -0,0 +1,182 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class InferenceBatcherTest {
+
+    private ModelServerClient modelServerClient;
+    // Request ids of every batch sent to the model server, in order
+    private final Queue<List<String>> sentBatches = new ConcurrentLinkedQueue<>();
+    private InferenceBatcher batcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        modelServerClient = mock(ModelServerClient.class);
+        // The fake model server answers every request with "<model>:<request id>"
+        when(modelServerClient.predict(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            String requestId = invocation.getArgument(0);
+            sentBatches.add(List.of(requestId));
+            return Mono.just(result(invocation.getArgument(1), requestId));
+        });
+        when(modelServerClient.predictBatch(anyList(), anyString(), anyList())).thenAnswer(invocation -> {
+            List<String> requestIds = invocation.getArgument(0);
+            sentBatches.add(List.copyOf(requestIds));
+            List<byte[]> results = new ArrayList<>();
+            for (String requestId : requestIds) {
+                results.add(result(invocation.getArgument(1), requestId));
+            }
+            return Mono.just(results);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    private static byte[] result(String model, String requestId) {
+        return (model + ":" + requestId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String predict(Mono<byte[]> prediction) {
+        return new String(prediction.block(Duration.ofSeconds(5)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaitingForTheLinger() {
+        batcher = new InferenceBatcher(modelServerClient, true, 3, 60_000, 2, 4);
+
+        Mono<byte[]> first = batcher.predict("a", "vital", new byte[8]).cache();
+        Mono<byte[]> second = batcher.predict("b", "vital", new byte[8]).cache();
+        Mono<byte[]> third = batcher.predict("c", "vital", new byte[8]).cache();
+        first.subscribe();
+        second.subscribe();
+        third.subscribe();
+
+        assertEquals("vital:a", predict(first));
+        assertEquals("vital:b", predict(second));
+        assertEquals("vital:c", predict(third));
+        assertEquals(List.of(List.of("a", "b", "c")), List.copyOf(sentBatches));
+        assertEquals(1L, batcher.getStats().get("full_batches"));
+    }
+
+    @Test
+    public void testPartialBatchIsSentAfterTheLinger() {
+        batcher = new InferenceBatcher(modelServerClient, true, 4, 50, 2, 4);
+
+        Mono<byte[]> first = batcher.predict("a", "vital", new byte[8]).cache();
+        Mono<byte[]> second = batcher.predict("b", "vital", new byte[8]).cache();
+        first.subscribe();
+        second.subscribe();
+
+        assertEquals("vital:a", predict(first));
+        assertEquals("vital:b", predict(second));
+        assertEquals(List.of(List.of("a", "b")), List.copyOf(sentBatches));
+        assertEquals(0L, batcher.getStats().get("full_batches"));
+    }
+
+    @Test
+    public void testModelsAreBatchedSeparately() {
+        batcher = new InferenceBatcher(modelServerClient, true, 2, 60_000, 2, 4);
+
+        Mono<byte[]> vitalA = batcher.predict("a", "vital", new byte[8]).cache();
+        Mono<byte[]> serumB = batcher.predict("b", "Serum", new byte[8]).cache();
+        Mono<byte[]> vitalC = batcher.predict("c", "vital", new byte[8]).cache();
+        Mono<byte[]> serumD = batcher.predict("d", "serum", new byte[8]).cache();
+        vitalA.subscribe();
+        serumB.subscribe();
+        vitalC.subscribe();
+        serumD.subscribe();
+
+        assertEquals("vital:a", predict(vitalA));
+        assertEquals("serum:b", predict(serumB));
+        assertEquals("vital:c", predict(vitalC));
+        assertEquals("serum:d", predict(serumD));
+        assertTrue(sentBatches.containsAll(List.of(List.of("a", "c"), List.of("b", "d"))), sentBatches.toString());
+        assertEquals(2, sentBatches.size());
+    }
+
+    @Test
+    public void testFailedBatchFailsEveryCaller() {
+        when(modelServerClient.predictBatch(anyList(), anyString(), anyList()))
+            .thenReturn(Mono.error(new IllegalStateException("model server down")));
+        batcher = new InferenceBatcher(modelServerClient, true, 2, 60_000, 2, 4);
+
+        Mono<byte[]> first = batcher.predict("a", "vital", new byte[8]).cache();
+        Mono<byte[]> second = batcher.predict("b", "vital", new byte[8]).cache();
+        first.subscribe(null, e -> { });
+        second.subscribe(null, e -> { });
+
+        assertThrows(IllegalStateException.class, () -> predict(first));
+        assertThrows(IllegalStateException.class, () -> predict(second));
+
+        // The batch loop keeps running after a failed batch
+        when(modelServerClient.predictBatch(anyList(), anyString(), anyList()))
+            .thenReturn(Mono.just(List.of(new byte[] {1}, new byte[] {2})));
+        Mono<byte[]> third = batcher.predict("c", "vital", new byte[8]).cache();
+        third.subscribe();
+        assertArrayEquals(new byte[] {2}, batcher.predict("d", "vital", new byte[8]).block(Duration.ofSeconds(5)));
+        assertArrayEquals(new byte[] {1}, third.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void testShortResponseFailsEveryCaller() {
+        when(modelServerClient.predictBatch(anyList(), anyString(), anyList()))
+            .thenReturn(Mono.just(List.of(new byte[] {1})));
+        batcher = new InferenceBatcher(modelServerClient, true, 2, 60_000, 2, 4);
+
+        Mono<byte[]> first = batcher.predict("a", "vital", new byte[8]).cache();
+        Mono<byte[]> second = batcher.predict("b", "vital", new byte[8]).cache();
+        first.subscribe(null, e -> { });
+        second.subscribe(null, e -> { });
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> predict(first));
+        assertTrue(error.getMessage().contains("1 results for a batch of 2"), error.getMessage());
+        assertThrows(IllegalStateException.class, () -> predict(second));
+    }
+
+    @Test
+    public void testCancelledCallerDoesNotAffectTheRestOfTheBatch() {
+        Sinks.One<List<byte[]>> response = Sinks.one();
+        when(modelServerClient.predictBatch(anyList(), anyString(), anyList())).thenReturn(response.asMono());
+        batcher = new InferenceBatcher(modelServerClient, true, 2, 60_000, 2, 4);
+
+        Disposable cancelled = batcher.predict("a", "vital", new byte[8]).subscribe();
+        Mono<byte[]> kept = batcher.predict("b", "vital", new byte[8]).cache();
+        kept.subscribe();
+        verify(modelServerClient, timeout(5000)).predictBatch(eq(List.of("a", "b")), eq("vital"), anyList());
+
+        cancelled.dispose();
+        response.tryEmitValue(List.of(new byte[] {1}, new byte[] {2}));
+
+        assertArrayEquals(new byte[] {2}, kept.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void testBatchSizeIsCappedAtTheQueueWorkers() {
+        batcher = new InferenceBatcher(modelServerClient, true, 8, 20, 2, 4);
+        assertEquals(4, batcher.getStats().get("max_size"));
+
+        InferenceBatcher disabled = new InferenceBatcher(modelServerClient, false, 8, 20, 2, 4);
+        assertEquals("vital:a", predict(disabled.predict("a", "vital", new byte[8])));
+        verify(modelServerClient, never()).predictBatch(anyList(), anyString(), anyList());
+    }
+}
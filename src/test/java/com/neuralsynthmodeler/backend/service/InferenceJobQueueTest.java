@@ -0,0 +1,70 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InferenceJobQueueTest {
+
+    private InferenceJobQueue queue;
+
+    @AfterEach
+    public void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void testWorkerLimitAndRejectionWhenFull() throws InterruptedException {
+        queue = new InferenceJobQueue(2, 1, 7);
+        AtomicInteger started = new AtomicInteger();
+        List<Sinks.Empty<Void>> gates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Sinks.Empty<Void> gate = Sinks.empty();
+            gates.add(gate);
+            queue.submit("job-" + i, () -> Mono.fromRunnable(started::incrementAndGet).then(gate.asMono()));
+        }
+
+        waitFor(() -> started.get() == 1);
+        assertEquals(1, started.get(), "Only one worker should be running");
+        assertEquals(2, queue.getStats().get("depth"));
+
+        InferenceRejectedException rejected = assertThrows(InferenceRejectedException.class,
+            () -> queue.submit("job-overflow", Mono::empty));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+        assertEquals(7, rejected.getRetryAfterSeconds());
+
+        gates.forEach(Sinks.Empty::tryEmitEmpty);
+        waitFor(() -> started.get() == 3);
+        waitFor(() -> ((Long) queue.getStats().get("completed")) == 3L);
+        assertEquals(0, queue.getStats().get("depth"));
+        assertEquals(1L, queue.getStats().get("rejected"));
+    }
+
+    @Test
+    public void testFailedJobReleasesWorker() throws InterruptedException {
+        queue = new InferenceJobQueue(4, 1, 1);
+        AtomicInteger finished = new AtomicInteger();
+        queue.submit("failing", () -> Mono.error(new IllegalStateException("boom")));
+        queue.submit("next", () -> Mono.fromRunnable(finished::incrementAndGet));
+
+        waitFor(() -> finished.get() == 1);
+        assertEquals(1, finished.get());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class InferenceRecoveryServiceTest {
+
+    private ReactiveInferenceRequestRepository repository;
+    private InferenceJobQueue jobQueue;
+    private InferenceService inferenceService;
+    private StatusStreamService statusStreamService;
+    private ModelServerClient modelServerClient;
+    private InferenceRecoveryService recovery;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(ReactiveInferenceRequestRepository.class);
+        // More workers than requests per scan, so finishing jobs never defer the next dispatch
+        jobQueue = new InferenceJobQueue(10, 4, 5);
+        inferenceService = mock(InferenceService.class);
+        statusStreamService = mock(StatusStreamService.class);
+        modelServerClient = mock(ModelServerClient.class);
+        // Scans disabled, driven by the test
+        recovery = new InferenceRecoveryService(repository, jobQueue, inferenceService, statusStreamService, modelServerClient,
+            false, 0, 60, 300, 100, 1000, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recovery.shutdown();
+        jobQueue.shutdown();
+    }
+
+    private static InferenceRequestEntity request(String id, String status, int attempts) {
+        return InferenceRequestEntity.builder().id(id).status(status).audioRef("audio-" + id)
+            .updatedAt(Instant.now().minusSeconds(600)).attempts(attempts).build();
+    }
+
+    @Test
+    public void testResumesOrphanedRequests() {
+        when(repository.findStale(anyCollection(), any(), anyInt())).thenReturn(Flux.just(
+            request("a", "PENDING", 0), request("b", "PROCESSING", 1), request("c", "PENDING", 0)));
+        when(repository.claimForRecovery(anyString(), anyString(), any())).thenReturn(Mono.just(true));
+        // "c" was claimed by another instance between the scan and the claim
+        when(repository.claimForRecovery(eq("c"), anyString(), any())).thenReturn(Mono.just(false));
+        when(inferenceService.resumeInference(any())).thenReturn(Mono.empty());
+
+        recovery.recover().block(Duration.ofSeconds(5));
+
+        verify(inferenceService, timeout(1000).times(2)).resumeInference(any());
+        assertEquals(3L, recovery.getStats().get("found"));
+        assertEquals(2L, recovery.getStats().get("resumed"));
+        assertEquals(1L, recovery.getStats().get("skipped"));
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        when(repository.findStale(anyCollection(), any(), anyInt())).thenReturn(Flux.just(request("a", "PROCESSING", 3)));
+        when(repository.transitionStatus(eq("a"), anyCollection(), eq("ERROR"), isNull(), anyString()))
+            .thenReturn(Mono.just(1));
+
+        recovery.recover().block(Duration.ofSeconds(5));
+
+        verify(statusStreamService).updateStatus("a", InferenceService.RequestStatus.ERROR);
+        verify(repository, never()).claimForRecovery(anyString(), anyString(), any());
+        assertEquals(1L, recovery.getStats().get("failed"));
+    }
+
+    @Test
+    public void testSkipsRequestsQueuedHere() {
+        jobQueue.submit("a", Mono::never);
+        when(repository.findStale(anyCollection(), any(), anyInt())).thenReturn(Flux.just(request("a", "PENDING", 0)));
+
+        recovery.recover().block(Duration.ofSeconds(5));
+
+        verify(repository, never()).claimForRecovery(anyString(), anyString(), any());
+        assertEquals(0L, recovery.getStats().get("found"));
+        assertEquals(1L, recovery.getStats().get("skipped"));
+    }
+}
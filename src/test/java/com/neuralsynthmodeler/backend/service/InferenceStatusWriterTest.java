@@ -0,0 +1,120 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+public class InferenceStatusWriterTest {
+
+    private InferenceRequestRepository repository;
+    private ReactiveInferenceRequestRepository reactiveRepository;
+    private InferenceStatusWriter writer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        repository = mock(InferenceRequestRepository.class);
+        when(repository.batchTransitionStatus(anyList(), any())).thenAnswer(invocation -> {
+            int[] counts = new int[((List<InferenceRequestEntity>) invocation.getArgument(0)).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        reactiveRepository.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalescesUpdatesPerRequest() {
+        // Long interval so only the explicit flush writes
+        writer = new InferenceStatusWriter(repository, reactiveRepository, true, false, 100, 60_000);
+
+        Mono<Boolean> processing = writer.write("a", InferenceService.RequestStatus.PROCESSING, null, null).cache();
+        processing.subscribe();
+        Mono<Boolean> done = writer.write("a", InferenceService.RequestStatus.DONE, "preset-1", null).cache();
+        done.subscribe();
+        writer.write("b", InferenceService.RequestStatus.PROCESSING, null, null).subscribe();
+        verify(repository, never()).batchTransitionStatus(anyList(), any());
+
+        writer.flush();
+
+        ArgumentCaptor<List<InferenceRequestEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).batchTransitionStatus(batch.capture(), any());
+        assertEquals(2, batch.getValue().size());
+        assertEquals("a", batch.getValue().get(0).getId());
+        assertEquals("DONE", batch.getValue().get(0).getStatus());
+        assertEquals("preset-1", batch.getValue().get(0).getResultRef());
+        // Both writers of "a" complete with the coalesced flush
+        assertTrue(processing.block(Duration.ofSeconds(1)));
+        assertTrue(done.block(Duration.ofSeconds(1)));
+        assertEquals(1L, writer.getStats().get("coalesced"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTerminalStatesCanBeWrittenSynchronously() {
+        writer = new InferenceStatusWriter(repository, reactiveRepository, true, true, 100, 60_000);
+
+        writer.write("a", InferenceService.RequestStatus.PROCESSING, null, null).subscribe();
+        writer.write("a", InferenceService.RequestStatus.ERROR, null, "boom").block(Duration.ofSeconds(5));
+
+        ArgumentCaptor<List<InferenceRequestEntity>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).batchTransitionStatus(batch.capture(), any());
+        assertEquals("ERROR", batch.getValue().get(0).getStatus());
+        assertEquals(0, writer.getStats().get("pending"), "The buffered PROCESSING update is superseded");
+    }
+
+    @Test
+    public void testFlushesOnShutdown() {
+        writer = new InferenceStatusWriter(repository, reactiveRepository, true, false, 100, 60_000);
+        writer.write("a", InferenceService.RequestStatus.PROCESSING, null, null).subscribe();
+
+        writer.shutdown();
+        writer = null;
+
+        verify(repository, times(1)).batchTransitionStatus(anyList(), any());
+    }
+
+    @Test
+    public void testRejectedTransitionIsReported() {
+        when(repository.batchTransitionStatus(anyList(), any())).thenReturn(new int[] {0});
+        writer = new InferenceStatusWriter(repository, reactiveRepository, false, false, 100, 60_000);
+
+        assertFalse(writer.write("a", InferenceService.RequestStatus.PROCESSING, null, null).block(Duration.ofSeconds(5)));
+        assertEquals(1L, writer.getStats().get("rejected_transitions"));
+    }
+
+    @Test
+    public void testAllowedTransitions() {
+        InferenceService.RequestStatus pending = InferenceService.RequestStatus.PENDING;
+        InferenceService.RequestStatus processing = InferenceService.RequestStatus.PROCESSING;
+        InferenceService.RequestStatus done = InferenceService.RequestStatus.DONE;
+        InferenceService.RequestStatus error = InferenceService.RequestStatus.ERROR;
+
+        assertTrue(processing.canTransitionFrom(pending));
+        assertTrue(done.canTransitionFrom(processing));
+        assertTrue(error.canTransitionFrom(pending));
+        assertFalse(processing.canTransitionFrom(done));
+        assertFalse(error.canTransitionFrom(done));
+        assertFalse(done.canTransitionFrom(error));
+        assertFalse(pending.canTransitionFrom(processing));
+    }
+}
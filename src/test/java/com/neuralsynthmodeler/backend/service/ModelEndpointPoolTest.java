@@ -0,0 +1,75 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Test;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ModelEndpointPoolTest {
+
+    @Test
+    public void testRoutesToLeastOutstandingEndpoint() {
+        // Health checks disabled
+        ModelEndpointPool pool = new ModelEndpointPool("http://a:3000, http://b:3000/", 0, 1000, 2);
+        ModelEndpointPool.Endpoint busy = pool.select(null);
+        pool.call(busy, url -> Mono.never()).subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            ModelEndpointPool.Endpoint selected = pool.select(null);
+            assertNotSame(busy, selected);
+            assertFalse(selected.getUrl().endsWith("/"));
+        }
+        assertSame(busy, pool.select(pool.select(null)), "The other endpoint when excluding the idle one");
+        assertEquals(1, busy.getInFlight());
+    }
+
+    @Test
+    public void testRecordsLatencyAndInFlight() {
+        ModelEndpointPool pool = new ModelEndpointPool("http://a:3000", 0, 1000, 2);
+        ModelEndpointPool.Endpoint endpoint = pool.select(null);
+
+        String result = pool.call(endpoint, url -> Mono.just(url).delayElement(Duration.ofMillis(20)))
+            .block(Duration.ofSeconds(1));
+
+        assertEquals("http://a:3000", result);
+        assertEquals(0, endpoint.getInFlight());
+        assertTrue(endpoint.latencyPercentile(0.95) >= 20);
+        Map<String, Object> stats = pool.getStats().get(0);
+        assertEquals(1L, stats.get("requests"));
+    }
+
+    @Test
+    public void testEjectsAndReadmitsOnHealthChecks() {
+        AtomicBoolean up = new AtomicBoolean(false);
+        DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/healthz", (request, response) -> response
+                .status(up.get() ? HttpResponseStatus.OK : HttpResponseStatus.SERVICE_UNAVAILABLE)
+                .send()))
+            .bindNow();
+        try {
+            ModelEndpointPool pool = new ModelEndpointPool("http://localhost:" + server.port(), 0, 1000, 2);
+
+            pool.checkHealth().block(Duration.ofSeconds(5));
+            assertTrue(pool.hasHealthyEndpoint(), "One failed check is not enough");
+            pool.checkHealth().block(Duration.ofSeconds(5));
+            assertFalse(pool.hasHealthyEndpoint());
+            // With every endpoint ejected, calls still go somewhere
+            assertNotNull(pool.select(null));
+
+            up.set(true);
+            pool.checkHealth().block(Duration.ofSeconds(5));
+            assertTrue(pool.hasHealthyEndpoint());
+            assertEquals(List.of(true), pool.getStats().stream().map(s -> s.get("healthy")).toList());
+        } finally {
+            server.disposeNow();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModelServerClientTest {
+
+    // Scripted responses of the fake model server, "hang" never answers; once empty it answers 200
+    private final Queue<String> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    // Content types the batch endpoint received, in order
+    private final Queue<String> batchContentTypes = new ConcurrentLinkedQueue<>();
+    private DisposableServer server;
+
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/predict", (request, response) -> {
+                requests.incrementAndGet();
+                String next = responses.poll();
+                if ("hang".equals(next)) {
+                    return request.receive().then(Mono.never());
+                }
+                int status = next != null ? Integer.parseInt(next) : 200;
+                return request.receive().then(response.status(HttpResponseStatus.valueOf(status))
+                    .sendString(Mono.just("preset")).then());
+            }).post("/predict_batch", (request, response) -> {
+                requests.incrementAndGet();
+                batchContentTypes.add(request.requestHeaders().get("Content-Type").split(";")[0]);
+                String next = responses.poll();
+                int status = next != null ? Integer.parseInt(next) : 200;
+                return request.receive().then(response.status(HttpResponseStatus.valueOf(status))
+                    .header("Content-Type", "application/json")
+                    .sendString(Mono.just("[\"first\", \"second\"]")).then());
+            }))
+            .bindNow();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    private ModelServerClient newClient(int maxAttempts, long attemptTimeoutMillis, int circuitMinimumCalls) {
+        ModelEndpointPool pool = new ModelEndpointPool("http://localhost:" + server.port(), 0, 1000, 2);
+        return newClient(pool, maxAttempts, attemptTimeoutMillis, circuitMinimumCalls, false);
+    }
+
+    private static ModelServerClient newClient(ModelEndpointPool pool, int maxAttempts, long attemptTimeoutMillis,
+                                               int circuitMinimumCalls, boolean hedge) {
+        return new ModelServerClient(new MockEnvironment(), pool, "octet-stream",
+            1000, attemptTimeoutMillis, 10_000, maxAttempts, 10, 50, 0.5,
+            circuitMinimumCalls, circuitMinimumCalls, 0.5, 30, 1, hedge, 50);
+    }
+
+    private static String predict(ModelServerClient client) {
+        byte[] result = client.predict("req", "vital", new byte[16]).block(Duration.ofSeconds(10));
+        return new String(result, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRetriesUnavailableAndTimeouts() {
+        responses.add("503");
+        responses.add("hang");
+        ModelServerClient client = newClient(3, 300, 10);
+
+        assertEquals("preset", predict(client));
+
+        assertEquals(3, requests.get());
+        assertEquals(2L, client.getStats().get("retries"));
+        assertEquals(1L, client.getStats().get("timeouts"));
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetried() {
+        responses.add("404");
+        ModelServerClient client = newClient(3, 1000, 10);
+
+        assertThrows(RuntimeException.class, () -> predict(client));
+
+        assertEquals(1, requests.get());
+        assertFalse(client.isCircuitOpen(), "A 4xx means the model server is up");
+    }
+
+    @Test
+    public void testUnsupportedMediaTypeFallsBackToJson() {
+        responses.add("415");
+        ModelServerClient client = newClient(1, 1000, 10);
+
+        assertEquals("preset", predict(client));
+
+        assertEquals(2, requests.get());
+        assertEquals(ModelServerClient.Transport.JSON, client.getTransport("vital"));
+    }
+
+    @Test
+    public void testBatchFallsBackToJsonOnUnsupportedMediaType() {
+        responses.add("415");
+        ModelServerClient client = newClient(1, 1000, 10);
+
+        List<byte[]> results = client.predictBatch(List.of("a", "b"), "vital", List.of(new byte[16], new byte[16]))
+            .block(Duration.ofSeconds(10));
+
+        assertEquals("second", new String(results.get(1), StandardCharsets.UTF_8));
+        assertEquals(List.of("multipart/form-data", "application/json"), List.copyOf(batchContentTypes));
+        assertEquals(ModelServerClient.Transport.JSON, client.getTransport("vital"));
+    }
+
+    @Test
+    public void testRejectedAudioKeepsBinaryTransport() {
+        responses.add("400");
+        ModelServerClient client = newClient(1, 1000, 10);
+
+        assertThrows(RuntimeException.class, () -> predict(client));
+
+        assertEquals(1, requests.get(), "A bad input is not resent as JSON");
+        assertEquals(ModelServerClient.Transport.OCTET_STREAM, client.getTransport("vital"));
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() {
+        responses.add("500");
+        responses.add("500");
+        ModelServerClient client = newClient(1, 1000, 2);
+        assertThrows(RuntimeException.class, () -> predict(client));
+        assertThrows(RuntimeException.class, () -> predict(client));
+        assertTrue(client.isCircuitOpen());
+
+        InferenceRejectedException rejected = assertThrows(InferenceRejectedException.class, () -> predict(client));
+
+        assertEquals(503, rejected.getStatus().value());
+        assertEquals(2, requests.get(), "No call reaches the model server while the circuit is open");
+        assertThrows(InferenceRejectedException.class, client::checkAvailable);
+    }
+
+    @Test
+    public void testSlowCallIsHedgedOnAnotherEndpoint() {
+        DisposableServer fast = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/predict", (request, response) ->
+                request.receive().then(response.sendString(Mono.just("hedged")).then())))
+            .bindNow();
+        try {
+            // The scripted server hangs; the hedge goes to the other endpoint after the minimum delay
+            responses.add("hang");
+            ModelEndpointPool pool = new ModelEndpointPool(
+                "http://localhost:" + server.port() + ",http://localhost:" + fast.port(), 0, 1000, 2);
+            ModelServerClient client = newClient(pool, 1, 5000, 10, true);
+            String result = null;
+            // The first pick is random; repeat until the hanging endpoint was picked first
+            for (int i = 0; i < 30 && requests.get() == 0; i++) {
+                result = predict(client);
+            }
+
+            assertEquals(1, requests.get());
+            assertEquals("hedged", result);
+            assertTrue((long) client.getStats().get("hedges") >= 1);
+        } finally {
+            fast.disposeNow();
+        }
+    }
+}
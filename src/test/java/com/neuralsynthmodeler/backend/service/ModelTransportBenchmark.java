@@ -0,0 +1,102 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import com.neuralsynthmodeler.backend.util.GzipUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the request bodies sent to the model server by each transport.
+ * Allocation per request is reported by the GC profiler as gc.alloc.rate.norm (bytes/op);
+ * bytes on the wire are printed once per transport during setup.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=ModelTransportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelTransportBenchmark {
+
+    @Param({"json", "octet-stream", "multipart"})
+    public String transport;
+
+    private byte[] wavData;
+    private ModelServerClient.Transport selected;
+    private BodyInserter.Context context;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            wavData = GzipUtils.decompress(in.readAllBytes());
+        }
+        selected = ModelServerClient.Transport.fromString(transport);
+        List<HttpMessageWriter<?>> writers = ExchangeStrategies.withDefaults().messageWriters();
+        context = new BodyInserter.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return writers;
+            }
+
+            @Override
+            public Optional<ServerHttpRequest> serverRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Map<String, Object> hints() {
+                return Collections.emptyMap();
+            }
+        };
+        System.out.printf("%n[%s] wav: %d bytes, on the wire: %d bytes%n", transport, wavData.length, writeBody());
+    }
+
+    @Benchmark
+    public long writeBody() {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://localhost/predict"));
+        request.getHeaders().setContentType(ModelServerClient.contentType(selected));
+        ModelServerClient.createBody(selected, wavData).insert(request, context).block();
+        return request.getBody()
+            .map(buffer -> {
+                int size = buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+                return (long) size;
+            })
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void runBenchmark() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ModelTransportBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,184 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Subscriber;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+public class MongoDBReactiveAudioStorageServiceTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    private MongoDatabase database;
+    private MongoCollection<Document> audioCollection;
+    private MongoCollection<Document> chunkCollection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        database = mock(MongoDatabase.class);
+        audioCollection = mock(MongoCollection.class);
+        chunkCollection = mock(MongoCollection.class);
+        when(database.getCollection("audio_files")).thenReturn(audioCollection);
+        when(database.getCollection("audio_chunks")).thenReturn(chunkCollection);
+        when(database.getCollection("preset_files")).thenReturn(mock(MongoCollection.class));
+        when(chunkCollection.createIndex(any(Bson.class), any())).thenReturn(Mono.just("audio_ref_1_n_1"));
+        when(audioCollection.insertOne(any())).thenReturn(Mono.just(InsertOneResult.acknowledged(new BsonString("audio"))));
+        when(chunkCollection.insertOne(any())).thenReturn(Mono.just(InsertOneResult.acknowledged(new BsonString("chunk"))));
+        when(chunkCollection.deleteMany(any(Bson.class))).thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+    }
+
+    private MongoDBReactiveAudioStorageService storage() {
+        return new MongoDBReactiveAudioStorageService(database, new StorageCodecs("gzip", "none", 6, 0, 4194304, 524288, 0, 3, ""), "chunked", CHUNK_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindPublisher<Document> found(Document... docs) {
+        FindPublisher<Document> publisher = mock(FindPublisher.class);
+        when(publisher.projection(any())).thenReturn(publisher);
+        when(publisher.sort(any())).thenReturn(publisher);
+        when(publisher.batchSize(anyInt())).thenReturn(publisher);
+        when(publisher.first()).thenReturn(Mono.justOrEmpty(docs.length > 0 ? docs[0] : null));
+        doAnswer(invocation -> {
+            Flux.fromArray(docs).subscribe((Subscriber<Document>) invocation.getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static Document chunk(int n, int... data) {
+        return new Document("audio_ref", "audio").append("n", n).append("data", new Binary(bytes(data)));
+    }
+
+    private void storedChunked(Document... chunks) {
+        FindPublisher<Document> audio = found(new Document("_id", "audio").append("length", 10L)
+            .append("chunk_size", CHUNK_SIZE).append("chunk_count", 3));
+        FindPublisher<Document> found = found(chunks);
+        when(audioCollection.find(any(Bson.class))).thenReturn(audio);
+        when(chunkCollection.find(any(Bson.class))).thenReturn(found);
+    }
+
+    private static byte[] read(Flux<DataBuffer> content) {
+        DataBuffer joined = DataBufferUtils.join(content).block(Duration.ofSeconds(5));
+        if (joined == null) {
+            return new byte[0];
+        }
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+
+    private static DataBuffer buffer(int... values) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes(values));
+    }
+
+    @Test
+    public void testChunksRegroupsBuffersIntoFixedSizes() {
+        List<byte[]> chunks = MongoDBReactiveAudioStorageService.chunks(
+                Flux.just(buffer(0, 1, 2), buffer(3, 4, 5, 6, 7, 8, 9, 10), buffer(11)), 5)
+            .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new byte[] {0, 1, 2, 3, 4}, chunks.get(0));
+        assertArrayEquals(new byte[] {5, 6, 7, 8, 9}, chunks.get(1));
+        assertArrayEquals(new byte[] {10, 11}, chunks.get(2));
+    }
+
+    @Test
+    public void testStoresChunksBeforeTheAudioDocument() {
+        byte[] audio = new byte[10];
+        Arrays.fill(audio, (byte) 7);
+
+        String audioRef = storage().storeAudio(audio, "gzip", 10, 40).block(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Document> chunks = ArgumentCaptor.forClass(Document.class);
+        ArgumentCaptor<Document> audioDoc = ArgumentCaptor.forClass(Document.class);
+        var order = inOrder(chunkCollection, audioCollection);
+        order.verify(chunkCollection, times(3)).insertOne(chunks.capture());
+        order.verify(audioCollection).insertOne(audioDoc.capture());
+        assertEquals(List.of(4, 4, 2), chunks.getAllValues().stream()
+            .map(chunk -> chunk.get("data", Binary.class).length()).toList());
+        assertTrue(chunks.getAllValues().stream().allMatch(chunk -> audioRef.equals(chunk.getString("audio_ref"))));
+        assertEquals(audioRef, audioDoc.getValue().getString("_id"));
+        assertEquals(10L, audioDoc.getValue().getLong("length"));
+        assertEquals(3, audioDoc.getValue().getInteger("chunk_count"));
+        assertNull(audioDoc.getValue().get("data"));
+    }
+
+    @Test
+    public void testRemovesChunksWhenTheAudioDocumentFails() {
+        when(audioCollection.insertOne(any())).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+        assertThrows(IllegalStateException.class,
+            () -> storage().storeAudio(new byte[6], "gzip", 6, 24).block(Duration.ofSeconds(5)));
+
+        verify(chunkCollection, times(2)).insertOne(any());
+        verify(chunkCollection).deleteMany(any(Bson.class));
+    }
+
+    @Test
+    public void testReadsRangeFromOverlappingChunksOnly() {
+        // Bytes 5 to 10 of 0..9 stored in chunks of 4: chunks 1 and 2
+        storedChunked(chunk(1, 4, 5, 6, 7), chunk(2, 8, 9));
+
+        byte[] range = read(storage().retrieveAudioContent("audio", 5, 6));
+
+        assertArrayEquals(new byte[] {5, 6, 7, 8, 9}, range);
+    }
+
+    @Test
+    public void testReadsWholeChunkedAudio() {
+        storedChunked(chunk(0, 0, 1, 2, 3), chunk(1, 4, 5, 6, 7), chunk(2, 8, 9));
+
+        byte[] audio = storage().retrieveAudio("audio").block(Duration.ofSeconds(5));
+
+        assertArrayEquals(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, audio);
+    }
+
+    @Test
+    public void testFailsOnMissingChunk() {
+        storedChunked(chunk(0, 0, 1, 2, 3), chunk(2, 8, 9));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> storage().retrieveAudio("audio").block(Duration.ofSeconds(5)));
+        assertTrue(e.getMessage().contains("chunk 1"));
+    }
+
+    @Test
+    public void testReadsRangeOfInlineAudio() {
+        FindPublisher<Document> audio = found(new Document("_id", "audio").append("data", new Binary(new byte[] {0, 1, 2, 3, 4})));
+        when(audioCollection.find(any(Bson.class))).thenReturn(audio);
+
+        assertArrayEquals(new byte[] {3, 4}, read(storage().retrieveAudioContent("audio", 3, Long.MAX_VALUE)));
+        assertArrayEquals(new byte[0], read(storage().retrieveAudioContent("audio", 9, 1)));
+        verify(chunkCollection, never()).find(any(Bson.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.publisher.Flux;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+public class MysqlStatusEventBusTest {
+
+    @Test
+    public void testPollAdvancesWatermarkWithOverlap() {
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        Instant updatedAt = Instant.now().plusSeconds(60);
+        when(repository.findUpdatedSince(any(), anyString(), anyInt())).thenReturn(Flux.just(
+            InferenceRequestEntity.builder().id("a").status("DONE").updatedAt(updatedAt).build()));
+        MysqlStatusEventBus bus = new MysqlStatusEventBus(repository, 60_000, 2000, 100);
+
+        List<StatusEventBus.StatusEvent> events = bus.poll().collectList().block(Duration.ofSeconds(1));
+        assertEquals(1, events.size());
+        assertEquals("a", events.get(0).getRequestId());
+        assertEquals(InferenceService.RequestStatus.DONE, events.get(0).getStatus());
+
+        bus.poll().blockLast(Duration.ofSeconds(1));
+        verify(repository).findUpdatedSince(updatedAt.minusMillis(2000), "", 100);
+    }
+
+    @Test
+    public void testPagesPastMoreRowsThanOneBatchWithinTheOverlap() {
+        // Rows ordered like the query, (updated_at, id)
+        List<InferenceRequestEntity> table = new CopyOnWriteArrayList<>();
+        Comparator<InferenceRequestEntity> key = Comparator.comparing(InferenceRequestEntity::getUpdatedAt)
+            .thenComparing(InferenceRequestEntity::getId);
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.findUpdatedSince(any(), anyString(), anyInt())).thenAnswer(invocation -> {
+            InferenceRequestEntity after = InferenceRequestEntity.builder()
+                .updatedAt(invocation.getArgument(0)).id(invocation.getArgument(1)).build();
+            return Flux.fromIterable(table)
+                .filter(row -> key.compare(row, after) > 0)
+                .sort(key)
+                .take((int) invocation.<Integer>getArgument(2));
+        });
+        Instant updatedAt = Instant.now().plusSeconds(60);
+        for (int i = 0; i < 250; i++) {
+            table.add(InferenceRequestEntity.builder().id(String.format("a%03d", i)).status("DONE").updatedAt(updatedAt).build());
+        }
+        MysqlStatusEventBus bus = new MysqlStatusEventBus(repository, 60_000, 2000, 100);
+
+        assertEquals(250, bus.poll().collectList().block(Duration.ofSeconds(1)).size());
+
+        // More rows with the same timestamp sort after the first 250
+        table.add(InferenceRequestEntity.builder().id("b000").status("PROCESSING").updatedAt(updatedAt).build());
+        table.add(InferenceRequestEntity.builder().id("b001").status("DONE").updatedAt(updatedAt.plusMillis(1)).build());
+        Set<String> ids = bus.poll().map(StatusEventBus.StatusEvent::getRequestId)
+            .collect(Collectors.toSet()).block(Duration.ofSeconds(1));
+
+        assertTrue(ids.containsAll(Set.of("b000", "b001")), "Rows past the first batch should arrive");
+        assertEquals(252, ids.size());
+        verify(repository, atLeastOnce()).findUpdatedSince(updatedAt, "a099", 100);
+    }
+}
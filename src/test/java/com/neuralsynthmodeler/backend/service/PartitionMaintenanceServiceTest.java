@@ -0,0 +1,102 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.repository.InferenceRequestRepository;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PartitionMaintenanceServiceTest {
+
+    private InferenceRequestRepository repository;
+    private ReactiveInferenceRequestRepository reactiveRepository;
+    private PartitionMaintenanceService service;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(InferenceRequestRepository.class);
+        reactiveRepository = new ReactiveInferenceRequestRepository(repository, 2, 10);
+        // Check interval 0 disables the scheduled checks, they are driven by the test
+        service = new PartitionMaintenanceService(repository, reactiveRepository, 2, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+        reactiveRepository.shutdown();
+    }
+
+    private static Map<String, LocalDate> partitions(Object... namesAndBounds) {
+        Map<String, LocalDate> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndBounds.length; i += 2) {
+            partitions.put((String) namesAndBounds[i], (LocalDate) namesAndBounds[i + 1]);
+        }
+        return partitions;
+    }
+
+    @Test
+    public void testAddsMonthlyPartitionsAhead() {
+        when(repository.findPartitions()).thenReturn(partitions(
+            "p_history", LocalDate.of(2026, 11, 1), "p_max", null));
+
+        service.ensurePartitions(LocalDate.of(2026, 12, 15));
+
+        // December plus two months ahead
+        verify(repository).addPartitions(partitions(
+            "p_202611", LocalDate.of(2026, 12, 1),
+            "p_202612", LocalDate.of(2027, 1, 1),
+            "p_202701", LocalDate.of(2027, 2, 1),
+            "p_202702", LocalDate.of(2027, 3, 1)));
+        assertEquals(6, service.getStats().get("partitions"));
+    }
+
+    @Test
+    public void testSplitsHistoryIntoMonthsFromOldestRequest() {
+        when(repository.findPartitions()).thenReturn(partitions(
+            "p_history", LocalDate.of(2026, 11, 1), "p_202611", LocalDate.of(2026, 12, 1),
+            "p_202612", LocalDate.of(2027, 1, 1), "p_202701", LocalDate.of(2027, 2, 1), "p_max", null));
+        when(repository.findOldestCreatedDay("p_history")).thenReturn(LocalDate.of(2026, 8, 20));
+
+        service.ensurePartitions(LocalDate.of(2026, 11, 15));
+
+        verify(repository, never()).addPartitions(anyMap());
+        verify(repository).splitPartition("p_history", partitions(
+            "p_202608", LocalDate.of(2026, 9, 1),
+            "p_202609", LocalDate.of(2026, 10, 1),
+            "p_202610", LocalDate.of(2026, 11, 1)));
+        assertEquals(7, service.getStats().get("partitions"));
+    }
+
+    @Test
+    public void testNothingToDoWhenAheadOrUnpartitioned() {
+        when(repository.findPartitions()).thenReturn(partitions(
+            "p_202612", LocalDate.of(2027, 1, 1), "p_202701", LocalDate.of(2027, 2, 1),
+            "p_202702", LocalDate.of(2027, 3, 1), "p_max", null));
+        service.ensurePartitions(LocalDate.of(2026, 12, 31));
+
+        when(repository.findPartitions()).thenReturn(Map.of());
+        service.ensurePartitions(LocalDate.of(2026, 12, 31));
+
+        verify(repository, never()).addPartitions(anyMap());
+    }
+
+    @Test
+    public void testDropsOnlyPartitionsEntirelyBeforeCutoff() {
+        when(repository.findPartitions()).thenReturn(partitions(
+            "p_history", LocalDate.of(2026, 11, 1), "p_202611", LocalDate.of(2026, 12, 1),
+            "p_202612", LocalDate.of(2027, 1, 1), "p_max", null));
+
+        List<String> dropped = service.dropPartitionsBefore(LocalDate.of(2026, 12, 10));
+
+        assertEquals(List.of("p_history", "p_202611"), dropped);
+        verify(repository).dropPartitions(List.of("p_history", "p_202611"));
+        assertEquals(2L, service.getStats().get("dropped"));
+    }
+}
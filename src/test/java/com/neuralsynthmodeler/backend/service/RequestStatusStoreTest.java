@@ -0,0 +1,51 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.publisher.Mono;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+public class RequestStatusStoreTest {
+
+    private final ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+
+    @Test
+    public void testReadsThroughToRepositoryOnMiss() {
+        when(repository.findById("a"))
+            .thenReturn(Mono.just(InferenceRequestEntity.builder().id("a").status("PROCESSING").build()));
+        RequestStatusStore store = new RequestStatusStore(repository, 100, 60, 600, 100, 60);
+
+        assertEquals(InferenceService.RequestStatus.PROCESSING, store.get("a").block(Duration.ofSeconds(1)));
+        assertEquals(InferenceService.RequestStatus.PROCESSING, store.get("a").block(Duration.ofSeconds(1)));
+        verify(repository, times(1)).findById("a");
+    }
+
+    @Test
+    public void testUnknownIdsAreCachedNegatively() {
+        when(repository.findById("missing")).thenReturn(Mono.empty());
+        RequestStatusStore store = new RequestStatusStore(repository, 100, 60, 600, 100, 60);
+
+        assertNull(store.get("missing").block(Duration.ofSeconds(1)));
+        assertNull(store.get("missing").block(Duration.ofSeconds(1)));
+        verify(repository, times(1)).findById("missing");
+
+        store.put("missing", InferenceService.RequestStatus.PENDING);
+        assertEquals(InferenceService.RequestStatus.PENDING, store.get("missing").block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testHotTierIsBounded() {
+        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        RequestStatusStore store = new RequestStatusStore(repository, 10, 60, 600, 100, 60);
+        for (int i = 0; i < 1000; i++) {
+            store.put("id-" + i, InferenceService.RequestStatus.PENDING);
+        }
+        assertEquals(10, ((java.util.Map<?, ?>) store.getStats().get("hot_tier")).get("entries"));
+        assertEquals(InferenceService.RequestStatus.PENDING, store.getIfPresent("id-999"));
+        assertNull(store.getIfPresent("id-0"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Subscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+public class RetentionServiceTest {
+
+    private MongoDatabase database;
+    private MongoCollection<Document> audioCollection;
+    private MongoCollection<Document> chunkCollection;
+    private MongoCollection<Document> presetCollection;
+    private MongoCollection<Document> indexCollection;
+    private ReactiveInferenceRequestRepository repository;
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        database = mock(MongoDatabase.class);
+        audioCollection = mock(MongoCollection.class);
+        chunkCollection = mock(MongoCollection.class);
+        presetCollection = mock(MongoCollection.class);
+        indexCollection = mock(MongoCollection.class);
+        when(database.getCollection("audio_files")).thenReturn(audioCollection);
+        when(database.getCollection("audio_chunks")).thenReturn(chunkCollection);
+        when(database.getCollection("preset_files")).thenReturn(presetCollection);
+        when(database.getCollection("result_index")).thenReturn(indexCollection);
+        for (MongoCollection<Document> collection : List.of(audioCollection, chunkCollection, presetCollection, indexCollection)) {
+            when(collection.deleteMany(any(Bson.class))).thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        }
+        repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.scheduler()).thenReturn(Schedulers.boundedElastic());
+        partitionMaintenanceService = mock(PartitionMaintenanceService.class);
+    }
+
+    private RetentionService retention(int audioDays, int presetDays, int requestDays) {
+        // Scheduled runs disabled, driven by the test; batches of 2 without delay
+        return new RetentionService(database, repository, partitionMaintenanceService, false, 0, 60,
+            audioDays, presetDays, requestDays, 2, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindPublisher<Document> found(Document... docs) {
+        FindPublisher<Document> publisher = mock(FindPublisher.class);
+        when(publisher.projection(any())).thenReturn(publisher);
+        when(publisher.sort(any())).thenReturn(publisher);
+        when(publisher.limit(anyInt())).thenReturn(publisher);
+        doAnswer(invocation -> {
+            Flux.fromArray(docs).subscribe((Subscriber<Document>) invocation.getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+
+    private static Document doc(String id, String sizeField, int size) {
+        return new Document("_id", id).append("created_at", 1000L).append(sizeField, size);
+    }
+
+    @Test
+    public void testPurgesOldAudioInBatches() {
+        FindPublisher<Document> first = found(doc("a", "compressed_size", 100), doc("b", "compressed_size", 200));
+        FindPublisher<Document> second = found(doc("c", "compressed_size", 50));
+        when(audioCollection.find(any(Bson.class))).thenReturn(first, second);
+        RetentionService retention = retention(7, 0, 0);
+
+        retention.run(Instant.now()).block(Duration.ofSeconds(5));
+
+        // The short second batch ends the pass
+        verify(audioCollection, times(2)).find(any(Bson.class));
+        verify(audioCollection, times(2)).deleteMany(any(Bson.class));
+        // Chunks of each batch, then those of incomplete uploads
+        verify(chunkCollection, times(3)).deleteMany(any(Bson.class));
+        assertEquals(350L, retention.getStats().get("audio_bytes_reclaimed"));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void testDeletesDocumentsBeforeRowsAndKeepsSharedPresets() {
+        Instant old = Instant.now().minus(Duration.ofDays(100));
+        InferenceRequestEntity a = InferenceRequestEntity.builder().id("a").createdAt(old)
+            .audioRef("audio-a").resultRef("preset-1").build();
+        InferenceRequestEntity b = InferenceRequestEntity.builder().id("b").createdAt(old.plusSeconds(1))
+            .audioRef("audio-b").resultRef("preset-2").build();
+        when(repository.findCreatedBefore(any(), any(), any(), eq(2)))
+            .thenReturn(Mono.just(List.of(a, b)), Mono.just(List.of()));
+        // A newer request with the same audio still uses preset-2
+        when(repository.findResultRefsInUse(anyList(), any())).thenReturn(Mono.just(Set.of("preset-2")));
+        when(repository.deleteByIds(anyList())).thenReturn(Mono.just(2));
+        FindPublisher<Document> audio = found(doc("audio-a", "compressed_size", 10), doc("audio-b", "compressed_size", 20));
+        when(audioCollection.find(any(Bson.class))).thenReturn(audio);
+        // Only the preset no longer in use is looked up for deletion
+        FindPublisher<Document> presets = found(doc("preset-1", "size", 300));
+        when(presetCollection.find(any(Bson.class))).thenReturn(presets);
+        when(partitionMaintenanceService.dropPartitionsBefore(any())).thenReturn(List.of());
+        RetentionService retention = retention(0, 0, 90);
+
+        retention.run(Instant.now()).block(Duration.ofSeconds(5));
+
+        var order = inOrder(audioCollection, indexCollection, presetCollection, repository, partitionMaintenanceService);
+        order.verify(audioCollection).deleteMany(any(Bson.class));
+        order.verify(indexCollection).deleteMany(any(Bson.class));
+        order.verify(presetCollection).deleteMany(any(Bson.class));
+        order.verify(repository).deleteByIds(List.of("a", "b"));
+        order.verify(partitionMaintenanceService).dropPartitionsBefore(any());
+        assertEquals(30L, retention.getStats().get("audio_bytes_reclaimed"));
+        assertEquals(300L, retention.getStats().get("preset_bytes_reclaimed"));
+        assertEquals(2L, retention.getStats().get("requests_deleted"));
+    }
+
+    @Test
+    public void testLeavesRowsOfExpiredPartitionsToThePartitionDrop() {
+        Instant old = Instant.parse("2026-01-15T00:00:00Z");
+        InferenceRequestEntity a = InferenceRequestEntity.builder().id("a").createdAt(old).audioRef("audio-a").build();
+        when(repository.findCreatedBefore(any(), any(), any(), eq(2))).thenReturn(Mono.just(List.of(a)));
+        FindPublisher<Document> audio = found();
+        when(audioCollection.find(any(Bson.class))).thenReturn(audio);
+        when(partitionMaintenanceService.droppableBefore(any())).thenReturn(LocalDate.of(2026, 2, 1));
+        when(partitionMaintenanceService.dropPartitionsBefore(any())).thenReturn(List.of("p_202601"));
+        when(repository.deleteByIds(anyList())).thenReturn(Mono.just(0));
+        RetentionService retention = retention(0, 0, 90);
+
+        retention.run(Instant.parse("2026-06-01T00:00:00Z")).block(Duration.ofSeconds(5));
+
+        verify(repository).deleteByIds(List.of());
+        assertEquals(1L, retention.getStats().get("partitions_dropped"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens many concurrent SSE connections against StatusStreamService served by Reactor Netty, then
+ * fans out PROCESSING and DONE to all of them. Reports heap per connection and fan-out latency.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=StatusFanOutBenchmark [-Dconnections=20000] [-DsubscribersPerRequest=4]
+ * Large connection counts need a raised open file limit (ulimit -n).
+ */
+@Tag("benchmark")
+public class StatusFanOutBenchmark {
+
+    @Test
+    public void testConnectionsPerNode() throws InterruptedException {
+        int connections = Integer.getInteger("connections", 5000);
+        int subscribersPerRequest = Integer.getInteger("subscribersPerRequest", 4);
+        int requests = Math.max(1, connections / subscribersPerRequest);
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        StatusStreamService service = new StatusStreamService(
+            new RequestStatusStore(repository, connections, 600, 3600, 1000, 5), new LocalStatusEventBus(), 500);
+        for (int i = 0; i < requests; i++) {
+            service.updateStatus("req-" + i, InferenceService.RequestStatus.PENDING);
+        }
+
+        DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/status/{id}", (request, response) -> response
+                .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                .sendString(service.getStatusStream(request.param("id"))
+                    .map(status -> "event:status_update\ndata:" + status.name() + "\n\n"))))
+            .bindNow();
+        ConnectionProvider provider = ConnectionProvider.builder("sse").maxConnections(connections)
+            .pendingAcquireMaxCount(-1).build();
+        HttpClient client = HttpClient.create(provider).port(server.port());
+
+        try {
+            long heapBefore = usedHeap();
+            AtomicInteger opened = new AtomicInteger();
+            CountDownLatch processing = new CountDownLatch(connections);
+            CountDownLatch done = new CountDownLatch(connections);
+            List<Disposable> subscriptions = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                String requestId = "req-" + (i % requests);
+                subscriptions.add(client.get().uri("/status/" + requestId)
+                    .responseContent()
+                    .asString(StandardCharsets.UTF_8)
+                    .doOnSubscribe(s -> opened.incrementAndGet())
+                    .subscribe(chunk -> {
+                        if (chunk.contains("PROCESSING")) {
+                            processing.countDown();
+                        }
+                        if (chunk.contains("DONE")) {
+                            done.countDown();
+                        }
+                    }));
+            }
+            waitFor(() -> (int) service.getStats().get("subscribers") == connections, Duration.ofSeconds(120));
+            long heapPerConnection = (usedHeap() - heapBefore) / connections;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                service.updateStatus("req-" + i, InferenceService.RequestStatus.PROCESSING);
+            }
+            assertTrue(processing.await(60, TimeUnit.SECONDS), "Not every connection got PROCESSING");
+            long processingMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            Flux.range(0, requests).subscribe(i -> service.updateStatus("req-" + i, InferenceService.RequestStatus.DONE));
+            assertTrue(done.await(60, TimeUnit.SECONDS), "Not every connection got DONE");
+            long doneMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            waitFor(() -> (int) service.getStats().get("streams") == 0, Duration.ofSeconds(30));
+            System.out.printf("%d connections on %d requests: ~%d bytes heap per connection (client and server), "
+                + "PROCESSING fan-out %d ms, DONE fan-out %d ms, streams left: %s%n",
+                connections, requests, heapPerConnection, processingMillis, doneMillis, service.getStats().get("streams"));
+            subscriptions.forEach(Disposable::dispose);
+        } finally {
+            server.disposeNow();
+            provider.disposeLater().block(Duration.ofSeconds(10));
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(50);
+        }
+    }
+}
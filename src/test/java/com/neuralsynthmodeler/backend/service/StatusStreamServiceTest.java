@@ -0,0 +1,158 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Test;
+import com.neuralsynthmodeler.backend.model.InferenceRequestEntity;
+import com.neuralsynthmodeler.backend.repository.ReactiveInferenceRequestRepository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class StatusStreamServiceTest {
+
+    private final StatusStreamService service = newService();
+
+    private static StatusStreamService newService() {
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        return new StatusStreamService(new RequestStatusStore(repository, 1000, 60, 600, 100, 1), new LocalStatusEventBus(), 50);
+    }
+
+    @Test
+    public void testLateSubscriberGetsOnlyLatestStatus() {
+        service.updateStatus("a", InferenceService.RequestStatus.PENDING);
+        List<InferenceService.RequestStatus> early = new CopyOnWriteArrayList<>();
+        Disposable earlySubscription = service.getStatusStream("a").subscribe(early::add);
+        service.updateStatus("a", InferenceService.RequestStatus.PROCESSING);
+
+        List<InferenceService.RequestStatus> late = new CopyOnWriteArrayList<>();
+        Disposable lateSubscription = service.getStatusStream("a").subscribe(late::add);
+        assertEquals(List.of(InferenceService.RequestStatus.PROCESSING), late);
+        service.updateStatus("a", InferenceService.RequestStatus.DONE);
+        // Completion is delayed so the final event can be flushed first
+        assertFalse(lateSubscription.isDisposed());
+        List<InferenceService.RequestStatus> all = service.getStatusStream("a").collectList().block(Duration.ofSeconds(5));
+        assertEquals(List.of(InferenceService.RequestStatus.DONE), all);
+        waitUntil(() -> (int) service.getStats().get("streams") == 0);
+        assertEquals(List.of(InferenceService.RequestStatus.PROCESSING, InferenceService.RequestStatus.DONE), late);
+
+        assertEquals(List.of(InferenceService.RequestStatus.PENDING, InferenceService.RequestStatus.PROCESSING,
+            InferenceService.RequestStatus.DONE), early);
+        earlySubscription.dispose();
+        lateSubscription.dispose();
+    }
+
+    @Test
+    public void testOneSubscriberLeavingKeepsTheStreamForOthers() {
+        service.updateStatus("b", InferenceService.RequestStatus.PENDING);
+        List<InferenceService.RequestStatus> remaining = new CopyOnWriteArrayList<>();
+        Disposable first = service.getStatusStream("b").subscribe();
+        Disposable second = service.getStatusStream("b").subscribe(remaining::add);
+        assertEquals(2, service.getSubscriberCount("b"));
+
+        first.dispose();
+        assertEquals(1, service.getSubscriberCount("b"));
+        service.updateStatus("b", InferenceService.RequestStatus.PROCESSING);
+        assertEquals(List.of(InferenceService.RequestStatus.PENDING, InferenceService.RequestStatus.PROCESSING), remaining);
+
+        second.dispose();
+        assertEquals(0, service.getSubscriberCount("b"));
+        assertEquals(0, service.getStats().get("streams"));
+    }
+
+    @Test
+    public void testFinalStatusIsReturnedWithoutOpeningAStream() {
+        service.updateStatus("c", InferenceService.RequestStatus.ERROR);
+        assertEquals(List.of(InferenceService.RequestStatus.ERROR),
+            service.getStatusStream("c").collectList().block(Duration.ofSeconds(1)));
+        assertEquals(0, service.getStats().get("streams"));
+    }
+
+    @Test
+    public void testRemoteEventsFeedLocalStreams() {
+        Sinks.Many<StatusEventBus.StatusEvent> remote = Sinks.many().multicast().directBestEffort();
+        List<String> published = new CopyOnWriteArrayList<>();
+        StatusEventBus bus = new StatusEventBus() {
+            @Override
+            public void publish(String requestId, InferenceService.RequestStatus status) {
+                published.add(requestId + ":" + status);
+            }
+
+            @Override
+            public Flux<StatusEvent> events() {
+                return remote.asFlux();
+            }
+        };
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        StatusStreamService replica = new StatusStreamService(
+            new RequestStatusStore(repository, 1000, 60, 600, 100, 1), bus, 50);
+
+        replica.updateStatus("d", InferenceService.RequestStatus.PENDING);
+        assertEquals(List.of("d:PENDING"), published);
+        List<InferenceService.RequestStatus> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = replica.getStatusStream("d").subscribe(received::add);
+
+        remote.tryEmitNext(new StatusEventBus.StatusEvent("d", InferenceService.RequestStatus.PROCESSING));
+        // Repeated and stale events are ignored
+        remote.tryEmitNext(new StatusEventBus.StatusEvent("d", InferenceService.RequestStatus.PROCESSING));
+        remote.tryEmitNext(new StatusEventBus.StatusEvent("d", InferenceService.RequestStatus.PENDING));
+        // Requests this replica never saw are left to read-through
+        remote.tryEmitNext(new StatusEventBus.StatusEvent("other", InferenceService.RequestStatus.DONE));
+
+        assertEquals(List.of(InferenceService.RequestStatus.PENDING, InferenceService.RequestStatus.PROCESSING), received);
+        assertEquals(InferenceService.RequestStatus.PROCESSING, replica.getStatus("d").block(Duration.ofSeconds(1)));
+        assertEquals(1L, replica.getStats().get("remote_updates"));
+        assertEquals(List.of("d:PENDING"), published, "Remote events are not republished");
+        subscription.dispose();
+        replica.shutdown();
+    }
+
+    @Test
+    public void testRemoteEventDropsUnknownIdEntry() {
+        Sinks.Many<StatusEventBus.StatusEvent> remote = Sinks.many().multicast().directBestEffort();
+        StatusEventBus bus = new StatusEventBus() {
+            @Override
+            public void publish(String requestId, InferenceService.RequestStatus status) {
+            }
+
+            @Override
+            public Flux<StatusEvent> events() {
+                return remote.asFlux();
+            }
+        };
+        ReactiveInferenceRequestRepository repository = mock(ReactiveInferenceRequestRepository.class);
+        when(repository.findById("e")).thenReturn(Mono.empty());
+        // Unknown ids are remembered for a minute
+        StatusStreamService replica = new StatusStreamService(
+            new RequestStatusStore(repository, 1000, 60, 600, 100, 60), bus, 50);
+        assertNull(replica.getStatus("e").block(Duration.ofSeconds(1)));
+
+        // Another replica created the request and published its first status
+        when(repository.findById("e"))
+            .thenReturn(Mono.just(InferenceRequestEntity.builder().id("e").status("PENDING").build()));
+        remote.tryEmitNext(new StatusEventBus.StatusEvent("e", InferenceService.RequestStatus.PENDING));
+
+        assertEquals(InferenceService.RequestStatus.PENDING, replica.getStatus("e").block(Duration.ofSeconds(1)));
+        replica.shutdown();
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for condition");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
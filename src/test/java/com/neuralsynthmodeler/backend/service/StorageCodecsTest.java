@@ -0,0 +1,60 @@
+package com.neuralsynthmodeler.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.neuralsynthmodeler.backend.util.GzipCodec;
+import com.neuralsynthmodeler.backend.util.IdentityCodec;
+import com.neuralsynthmodeler.backend.util.ZstdCodec;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StorageCodecsTest {
+
+    @Test
+    public void testBlobsWithoutTagUseTheLegacyCodec() {
+        StorageCodecs codecs = new StorageCodecs("zstd", "zstd", 6, 0, 4194304, 524288, 0, 3, "");
+
+        assertEquals(GzipCodec.NAME, codecs.forTag(null, new GzipCodec()).name());
+        assertEquals(IdentityCodec.NAME, codecs.forTag(null, IdentityCodec.INSTANCE).name());
+        assertEquals(GzipCodec.NAME, codecs.forTag("gzip", IdentityCodec.INSTANCE).name());
+        assertThrows(IllegalArgumentException.class, () -> codecs.forTag("lz4", IdentityCodec.INSTANCE));
+    }
+
+    @Test
+    public void testAudioOfEitherCodecDecodesAfterSwitching() throws IOException {
+        byte[] wav = "RIFF....WAVEfmt some audio some audio some audio".getBytes(StandardCharsets.US_ASCII);
+        byte[] gzipped = new StorageCodecs("gzip", "none", 6, 0, 4194304, 524288, 0, 3, "").audioCodec().encode(wav);
+        StorageCodecs codecs = new StorageCodecs("zstd", "none", 6, 0, 4194304, 524288, 0, 3, "");
+        byte[] zstd = codecs.audioCodec().encode(wav);
+
+        assertArrayEquals(wav, codecs.decodeAudio(gzipped));
+        assertArrayEquals(wav, codecs.decodeAudio(zstd));
+        assertThrows(IOException.class, () -> codecs.decodeAudio(wav));
+    }
+
+    @Test
+    public void testPresetDictionaryIsLoadedFromFile(@TempDir Path dir) throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            samples.add(("{\"preset_style\":\"Lead\",\"settings\":{\"env_1_attack\":0." + i
+                + ",\"filter_1_cutoff\":" + (i * 7 % 100) + ",\"osc_1_level\":0." + (i * 13 % 100) + "}}")
+                .getBytes(StandardCharsets.UTF_8));
+        }
+        Path dictionary = dir.resolve("presets.dict");
+        Files.write(dictionary, ZstdCodec.trainDictionary(samples, 4096));
+
+        StorageCodecs codecs = new StorageCodecs("gzip", "zstd", 6, 0, 4194304, 524288, 0, 3, dictionary.toString());
+        byte[] encoded = codecs.presetCodec().encode(samples.get(0));
+
+        assertArrayEquals(samples.get(0), codecs.forTag(ZstdCodec.NAME, IdentityCodec.INSTANCE).decode(encoded));
+        assertNotEquals(0, ((ZstdCodec) codecs.presetCodec()).getDictionaryId());
+        // Audio is compressed without the preset dictionary
+        assertEquals(GzipCodec.NAME, codecs.audioCodec().name());
+    }
+}
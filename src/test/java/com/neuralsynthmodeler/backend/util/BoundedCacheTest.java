@@ -0,0 +1,73 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private BoundedCache<String, byte[]> newCache(long maxBytes) {
+        return new BoundedCache<>(maxBytes, Duration.ofSeconds(10), Duration.ofSeconds(60),
+            value -> value.length, now::get);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        BoundedCache<String, byte[]> cache = newCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        assertNotNull(cache.getIfPresent("a"), "Touching 'a' makes 'b' the eldest");
+
+        cache.put("c", new byte[40]);
+
+        assertNull(cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNotNull(cache.getIfPresent("c"));
+        assertEquals(80, cache.weight());
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    public void testOversizedEntryIsNotCached() {
+        BoundedCache<String, byte[]> cache = newCache(10);
+        cache.put("big", new byte[11]);
+        assertNull(cache.getIfPresent("big"));
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testIdleAndAbsoluteExpiry() {
+        BoundedCache<String, byte[]> cache = newCache(100);
+        cache.put("idle", new byte[1]);
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertNull(cache.getIfPresent("idle"), "Entry should expire after the idle TTL");
+
+        cache.put("busy", new byte[1]);
+        for (int i = 0; i < 6; i++) {
+            now.addAndGet(Duration.ofSeconds(9).toNanos());
+            assertNotNull(cache.getIfPresent("busy"));
+        }
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertNull(cache.getIfPresent("busy"), "Entry should expire after the absolute TTL even when accessed");
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testReadThroughLoader() {
+        BoundedCache<String, byte[]> cache = newCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get("key", k -> { loads.incrementAndGet(); return new byte[5]; });
+        byte[] second = cache.get("key", k -> { loads.incrementAndGet(); return new byte[5]; });
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        assertNull(cache.get("missing", k -> null));
+        assertEquals(1, cache.size(), "Null loader results are not cached");
+    }
+}
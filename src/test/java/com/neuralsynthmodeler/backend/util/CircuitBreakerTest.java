@@ -0,0 +1,80 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker newBreaker() {
+        // Window of 4, opens at 50% failures after 4 calls, 10 s open, 2 trial calls
+        return new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(10), 2, now::get);
+    }
+
+    private static void call(CircuitBreaker breaker, boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess();
+        } else {
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    public void testOpensAtFailureRateAfterMinimumCalls() {
+        CircuitBreaker breaker = newBreaker();
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Below the minimum number of calls");
+
+        call(breaker, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(10, breaker.getRemainingOpenSeconds());
+        assertEquals(1L, breaker.getStats().get("rejected"));
+    }
+
+    @Test
+    public void testOldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = newBreaker();
+        call(breaker, false);
+        call(breaker, true);
+        call(breaker, true);
+        call(breaker, true);
+        // The first failure drops out of the window
+        call(breaker, true);
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.25, (double) breaker.getStats().get("failure_rate"));
+    }
+
+    @Test
+    public void testHalfOpenTrialsCloseOrReopen() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false);
+        }
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // Only two trial calls are let through
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        call(breaker, true);
+        call(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2L, breaker.getStats().get("opened"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Allocation of GZIP compression and decompression of an upload, four at a time.
+ *
+ * {@code streams} is how GzipUtils worked before the codec: a GZIPOutputStream or
+ * GzipCompressorInputStream over a growing ByteArrayOutputStream, with a new deflater or inflater per
+ * call. {@code pooled} is {@link GzipCodec#encode} and {@link GzipCodec#decode}; {@code pooled-buffers}
+ * is {@link GzipCodec#encodeInto} and {@link GzipCodec#decodeInto} with a buffer per thread. Allocation
+ * per upload is reported by the GC profiler as gc.alloc.rate.norm (bytes/op).
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=GzipCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class GzipCodecBenchmark {
+
+    @Param({"streams", "pooled", "pooled-buffers"})
+    public String codec;
+
+    private final GzipCodec gzip = new GzipCodec();
+    private byte[] wav;
+    private byte[] gzipped;
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        byte[] compressed;
+        byte[] decompressed;
+
+        @Setup
+        public void setup(GzipCodecBenchmark benchmark) {
+            compressed = new byte[GzipCodec.maxEncodedLength(benchmark.wav.length)];
+            decompressed = new byte[benchmark.wav.length];
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            gzipped = in.readAllBytes();
+        }
+        wav = gzip.decode(gzipped);
+    }
+
+    @Benchmark
+    public int encode(Buffers buffers) throws IOException {
+        return switch (codec) {
+            case "streams" -> {
+                try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+                     GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(wav);
+                    gzipOut.finish();
+                    yield out.toByteArray().length;
+                }
+            }
+            case "pooled" -> gzip.encode(wav).length;
+            default -> gzip.encodeInto(wav, 0, wav.length, buffers.compressed, 0);
+        };
+    }
+
+    @Benchmark
+    public int decode(Buffers buffers) throws IOException {
+        return switch (codec) {
+            case "streams" -> {
+                try (GzipCompressorInputStream in = new GzipCompressorInputStream(new ByteArrayInputStream(gzipped));
+                     ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                    in.transferTo(out);
+                    yield out.toByteArray().length;
+                }
+            }
+            case "pooled" -> gzip.decode(gzipped).length;
+            default -> gzip.decodeInto(gzipped, 0, gzipped.length, buffers.decompressed, 0);
+        };
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void runBenchmark() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(GzipCodecBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,187 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+public class GzipCodecTest {
+
+    @Test
+    public void testInteroperatesWithJdkStreams() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        GzipCodec codec = new GzipCodec(6, 2);
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(codec.encode(wav)))) {
+            assertArrayEquals(wav, in.readAllBytes(), "GZIPInputStream should read what the codec writes");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(wav);
+        }
+        assertArrayEquals(wav, codec.decode(out.toByteArray()), "The codec should read what GZIPOutputStream writes");
+
+        out.reset();
+        try (OutputStream encoder = codec.encoder(out)) {
+            for (int offset = 0; offset < wav.length; offset += 4096) {
+                encoder.write(wav, offset, Math.min(4096, wav.length - offset));
+            }
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertArrayEquals(wav, in.readAllBytes(), "Streamed output should be standard GZIP");
+        }
+    }
+
+    @Test
+    public void testSkipsOptionalHeaderFields() throws IOException {
+        byte[] data = "preset".repeat(1000).getBytes();
+        GzipParameters parameters = new GzipParameters();
+        parameters.setFileName("training.wav");
+        parameters.setComment("uploaded");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GzipCompressorOutputStream(out, parameters)) {
+            gzip.write(data);
+        }
+
+        assertArrayEquals(data, new GzipCodec().decode(out.toByteArray()));
+    }
+
+    @Test
+    public void testDecodesEveryMemberOfConcatenatedStreams() throws IOException {
+        GzipCodec codec = new GzipCodec();
+        byte[] first = "first member ".repeat(5000).getBytes();
+        byte[] second = "second member ".repeat(7000).getBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(codec.encode(first));
+        out.write(codec.encode(second));
+        out.write(codec.encode(new byte[0]));
+
+        byte[] expected = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        // The trailer only gives the size of the last, empty member, so the output has to grow
+        assertArrayEquals(expected, codec.decode(out.toByteArray()));
+        assertArrayEquals(expected, GzipUtils.decompress(out.toByteArray()));
+    }
+
+    @Test
+    public void testLargeDataIsCompressedInParallelBlocks() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        GzipCodec codec = new GzipCodec(6, 4, 256 * 1024, 64 * 1024, ForkJoinPool.commonPool());
+        byte[] encoded = codec.encode(wav);
+
+        int members = 0;
+        for (int i = 0; i + 3 < encoded.length; i++) {
+            if ((encoded[i] & 0xFF) == 0x1f && (encoded[i + 1] & 0xFF) == 0x8b && encoded[i + 2] == 8 && encoded[i + 3] == 0) {
+                members++;
+            }
+        }
+        assertTrue(members >= (wav.length + 64 * 1024 - 1) / (64 * 1024), "Expected a member per block, found " + members);
+        assertArrayEquals(wav, codec.decode(encoded));
+        assertArrayEquals(wav, GzipUtils.decompress(encoded));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(wav, in.readAllBytes(), "GZIPInputStream should read every member");
+        }
+        // Below the threshold a single member is written
+        assertEquals(200 * 1024, GzipCodec.uncompressedSizeHint(codec.encode(Arrays.copyOf(wav, 200 * 1024))));
+    }
+
+    @Test
+    public void testStreamedDataIsCompressedInBlocksPastTheThreshold() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        GzipCodec codec = new GzipCodec(6, 4, 256 * 1024, 64 * 1024, ForkJoinPool.commonPool());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = codec.encoder(out)) {
+            for (int offset = 0; offset < wav.length; offset += 5000) {
+                encoder.write(wav, offset, Math.min(5000, wav.length - offset));
+            }
+        }
+        byte[] encoded = out.toByteArray();
+
+        int members = 0;
+        for (int i = 0; i + 3 < encoded.length; i++) {
+            if ((encoded[i] & 0xFF) == 0x1f && (encoded[i + 1] & 0xFF) == 0x8b && encoded[i + 2] == 8 && encoded[i + 3] == 0) {
+                members++;
+            }
+        }
+        // One member for the bytes up to the threshold, then one per block
+        assertTrue(members >= 1 + (wav.length - 256 * 1024) / (64 * 1024), "Expected a member per block, found " + members);
+        assertArrayEquals(wav, codec.decode(encoded));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(wav, in.readAllBytes(), "GZIPInputStream should read every member");
+        }
+
+        out.reset();
+        codec.encoder(out).close();
+        assertArrayEquals(new byte[0], codec.decode(out.toByteArray()), "An empty stream is one empty member");
+        assertThrows(IllegalArgumentException.class, () -> new GzipCodec(6, 4, 256 * 1024, 64 * 1024, null));
+    }
+
+    @Test
+    public void testCallerBuffersAreFilledExactly() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        GzipCodec codec = new GzipCodec(1, 1);
+        byte[] compressed = new byte[GzipCodec.maxEncodedLength(wav.length) + 3];
+        int compressedLength = codec.encodeInto(wav, 0, wav.length, compressed, 3);
+        byte[] encoded = Arrays.copyOfRange(compressed, 3, 3 + compressedLength);
+        assertEquals(wav.length, GzipCodec.uncompressedSizeHint(encoded));
+
+        byte[] decoded = new byte[wav.length];
+        assertEquals(wav.length, codec.decodeInto(encoded, 0, encoded.length, decoded, 0));
+        assertArrayEquals(wav, decoded);
+        assertThrows(IOException.class, () -> codec.decodeInto(encoded, 0, encoded.length, new byte[wav.length - 1], 0));
+        assertThrows(IOException.class, () -> codec.encodeInto(wav, 0, wav.length, new byte[1024], 0));
+        // The pooled deflater and inflater are reset after a failure and still work
+        assertArrayEquals(wav, codec.decode(codec.encode(wav)));
+    }
+
+    @Test
+    public void testRejectsCorruptAndTruncatedData() throws IOException {
+        GzipCodec codec = new GzipCodec();
+        byte[] encoded = codec.encode("some audio bytes".repeat(100).getBytes());
+
+        byte[] badCrc = encoded.clone();
+        badCrc[badCrc.length - 8] ^= 1;
+        assertThrows(ZipException.class, () -> codec.decode(badCrc));
+        assertThrows(EOFException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length - 4)));
+        assertThrows(EOFException.class, () -> codec.decode(Arrays.copyOf(encoded, 5)));
+        assertThrows(ZipException.class, () -> codec.decode("not gzip at all".getBytes()));
+    }
+
+    @Test
+    public void testForgedSizeTrailerDoesNotSizeTheOutput() throws IOException {
+        GzipCodec codec = new GzipCodec();
+        byte[] forged = codec.encode(new byte[0]);
+        // ISIZE of almost 2 GB on a 20-byte blob
+        forged[forged.length - 4] = (byte) 0xF0;
+        forged[forged.length - 3] = (byte) 0xFF;
+        forged[forged.length - 2] = (byte) 0xFF;
+        forged[forged.length - 1] = (byte) 0x7F;
+
+        assertEquals(forged.length * 1032, GzipCodec.uncompressedSizeHint(forged));
+        assertThrows(ZipException.class, () -> codec.decode(forged));
+
+        byte[] zeros = new byte[1 << 20];
+        byte[] encoded = codec.encode(zeros);
+        assertEquals(zeros.length, GzipCodec.uncompressedSizeHint(encoded), "Real trailers stay exact");
+        assertArrayEquals(zeros, codec.decode(encoded));
+    }
+
+    private static byte[] loadTrainingAudio() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to GZIP a long recording serially and in parallel blocks of {@code blockBytes} (0 is serial),
+ * which is what an upload of raw WAV waits for before it is answered. The recording is
+ * {@code training.wav.gz} repeated to {@code megabytes}; the ratio is printed once per block size
+ * during setup.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=ParallelGzipBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelGzipBenchmark {
+
+    @Param({"0", "131072", "524288", "1048576"})
+    public int blockBytes;
+
+    @Param({"16"})
+    public int megabytes;
+
+    private GzipCodec codec;
+    private byte[] wav;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] sample;
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            sample = GzipUtils.decompress(in.readAllBytes());
+        }
+        wav = new byte[megabytes * 1024 * 1024];
+        for (int offset = 0; offset < wav.length; offset += sample.length) {
+            System.arraycopy(sample, 0, wav, offset, Math.min(sample.length, wav.length - offset));
+        }
+        codec = new GzipCodec(6, GzipCodec.defaultPoolSize(), blockBytes > 0 ? 1 : 0, blockBytes, ForkJoinPool.commonPool());
+        System.out.printf("%n[%d, %d cores] %d -> %d bytes%n", blockBytes, Runtime.getRuntime().availableProcessors(),
+            wav.length, codec.encode(wav).length);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        return codec.encode(wav).length;
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void runBenchmark() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ParallelGzipBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
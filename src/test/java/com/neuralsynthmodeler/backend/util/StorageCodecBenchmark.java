@@ -0,0 +1,108 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compression ratio against CPU time of the storage codecs.
+ *
+ * The WAV sample is {@code training.wav.gz}; other WAVs put next to it in src/test/resources can be added
+ * to the {@code sample} parameter with {@code -Djmh.sample=name.wav.gz}. {@code presets} is 100 preset
+ * JSON documents compressed one by one, as they are stored, with {@code zstd-3-dict} using a dictionary
+ * trained on 300 others. The ratio (uncompressed / compressed) is printed once per codec and sample
+ * during setup; encode and decode time per sample is what JMH measures.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=StorageCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageCodecBenchmark {
+
+    @Param({"gzip-1", "gzip-6", "gzip-9", "zstd-1", "zstd-3", "zstd-9", "zstd-19", "zstd-3-dict"})
+    public String codec;
+
+    @Param({"training.wav.gz", "presets"})
+    public String sample;
+
+    private StorageCodec selected;
+    private List<byte[]> blobs;
+    private List<byte[]> encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        if ("presets".equals(sample)) {
+            List<byte[]> presets = StorageCodecTest.presets(400);
+            blobs = presets.subList(300, 400);
+            selected = codec(codec, ZstdCodec.trainDictionary(presets.subList(0, 300), 16 * 1024));
+        } else {
+            try (InputStream in = new ClassPathResource(sample).getInputStream()) {
+                blobs = List.of(GzipUtils.decompress(in.readAllBytes()));
+            }
+            selected = codec(codec, null);
+        }
+        encoded = blobs.stream().map(blob -> {
+            try {
+                return selected.encode(blob);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }).toList();
+        long uncompressed = blobs.stream().mapToLong(blob -> blob.length).sum();
+        long compressed = encoded.stream().mapToLong(blob -> blob.length).sum();
+        System.out.printf("%n[%s, %s] %d -> %d bytes, ratio %.2f%n", codec, sample, uncompressed, compressed,
+            (double) uncompressed / compressed);
+    }
+
+    private static StorageCodec codec(String name, byte[] dictionary) {
+        String[] parts = name.split("-");
+        int level = Integer.parseInt(parts[1]);
+        if (parts[0].equals(GzipCodec.NAME)) {
+            return new GzipCodec(level);
+        }
+        return new ZstdCodec(level, parts.length > 2 ? dictionary : null);
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        long size = 0;
+        for (byte[] blob : blobs) {
+            size += selected.encode(blob).length;
+        }
+        return size;
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        long size = 0;
+        for (byte[] blob : encoded) {
+            size += selected.decode(blob).length;
+        }
+        return size;
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void runBenchmark() throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(StorageCodecBenchmark.class.getSimpleName());
+        String extraSample = System.getProperty("jmh.sample");
+        if (extraSample != null) {
+            options.param("sample", "training.wav.gz", "presets", extraSample);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class StorageCodecTest {
+
+    @Test
+    public void testRoundTrips() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        for (StorageCodec codec : List.of(new GzipCodec(1), new GzipCodec(), new ZstdCodec(3), IdentityCodec.INSTANCE)) {
+            byte[] encoded = codec.encode(wav);
+            assertArrayEquals(wav, codec.decode(encoded), codec.name() + " should restore the WAV");
+        }
+        assertTrue(ZstdCodec.isZstdCompressed(new ZstdCodec(3).encode(wav)));
+        assertTrue(GzipUtils.isGzipCompressed(new GzipCodec().encode(wav)));
+    }
+
+    @Test
+    public void testStreamedZstdHasNoContentSizeAndStillDecodes() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        ZstdCodec codec = new ZstdCodec(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = codec.encoder(out)) {
+            for (int offset = 0; offset < wav.length; offset += 4096) {
+                encoder.write(wav, offset, Math.min(4096, wav.length - offset));
+            }
+        }
+
+        assertArrayEquals(wav, codec.decode(out.toByteArray()));
+    }
+
+    @Test
+    public void testDictionaryShrinksSmallPresetsAndIsRequiredToRead() throws IOException {
+        List<byte[]> presets = presets(400);
+        byte[] dictionary = ZstdCodec.trainDictionary(presets.subList(0, 300), 16 * 1024);
+        ZstdCodec plain = new ZstdCodec(3);
+        ZstdCodec withDictionary = new ZstdCodec(3, dictionary);
+        assertNotEquals(0, withDictionary.getDictionaryId());
+
+        long plainSize = 0;
+        long dictionarySize = 0;
+        for (byte[] preset : presets.subList(300, 400)) {
+            byte[] encoded = withDictionary.encode(preset);
+            assertArrayEquals(preset, withDictionary.decode(encoded));
+            plainSize += plain.encode(preset).length;
+            dictionarySize += encoded.length;
+        }
+        assertTrue(dictionarySize < plainSize, "Dictionary should help small presets: " + dictionarySize + " vs " + plainSize);
+
+        byte[] preset = presets.get(350);
+        // Frames without a dictionary stay readable by a codec holding one, not the other way around
+        assertArrayEquals(preset, withDictionary.decode(plain.encode(preset)));
+        assertThrows(IOException.class, () -> plain.decode(withDictionary.encode(preset)));
+    }
+
+    /**
+     * Preset JSON of the same shape with random parameter values
+     */
+    static List<byte[]> presets(int count) {
+        Random random = new Random(42);
+        List<byte[]> presets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder json = new StringBuilder("{\"preset_style\":\"Bass\",\"synth_version\":\"1.0.7\",\"settings\":{");
+            for (int param = 0; param < 40; param++) {
+                json.append(param > 0 ? "," : "").append("\"osc_").append(param % 3 + 1).append("_param_").append(param)
+                    .append("\":").append(random.nextInt(1000) / 1000.0);
+            }
+            presets.add(json.append("}}").toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return presets;
+    }
+
+    private static byte[] loadTrainingAudio() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class StreamingAudioIngestTest {
+
+    private static final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    public void testGzipUploadInSmallChunks() throws IOException {
+        byte[] gzipped = loadTrainingAudio();
+        byte[] wav = GzipUtils.decompress(gzipped);
+
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE);
+        feed(ingest, gzipped, 5);
+        AudioFormatUtils.AudioMetadata metadata = ingest.finish();
+
+        assertTrue(metadata.wasCompressed());
+        assertArrayEquals(gzipped, metadata.getCompressedData());
+        assertEquals(wav.length, metadata.getUncompressedSize());
+        assertNull(metadata.getDecompressedData(), "Streaming ingest should not keep decompressed audio");
+    }
+
+    @Test
+    public void testRawWavUploadIsCompressed() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE);
+        feed(ingest, wav, 4096);
+        AudioFormatUtils.AudioMetadata metadata = ingest.finish();
+
+        assertFalse(metadata.wasCompressed());
+        assertEquals(wav.length, metadata.getUncompressedSize());
+        assertArrayEquals(wav, GzipUtils.decompress(metadata.getCompressedData()), "Round trip should restore the WAV");
+    }
+
+    @Test
+    public void testLargeRawWavUploadIsCompressedInParallelBlocks() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        GzipCodec codec = new GzipCodec(6, 4, 64 * 1024, 32 * 1024, ForkJoinPool.commonPool());
+
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE, codec);
+        feed(ingest, wav, 4096);
+        AudioFormatUtils.AudioMetadata metadata = ingest.finish();
+
+        assertEquals(wav.length, metadata.getUncompressedSize());
+        assertTrue(GzipCodec.uncompressedSizeHint(metadata.getCompressedData()) < wav.length,
+            "The last member should hold only the last block");
+        assertArrayEquals(wav, codec.decode(metadata.getCompressedData()));
+        assertArrayEquals(wav, GzipUtils.decompress(metadata.getCompressedData()));
+    }
+
+    @Test
+    public void testCancelledUploadReturnsTheEncoder() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            GzipCodec codec = new GzipCodec(6, 4, 64 * 1024, 32 * 1024, forkJoinPool);
+
+            // Cancelled while the first member is written
+            StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE, codec);
+            Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable upload = upload(ingest, body);
+            emit(body, Arrays.copyOf(wav, 32 * 1024), 4096);
+            assertEquals(1, codec.deflatersInUse());
+            upload.dispose();
+            assertEquals(0, codec.deflatersInUse());
+            assertThrows(IOException.class, () -> ingest.accept(bufferFactory.wrap(new byte[16])));
+
+            // Cancelled with blocks waiting to be compressed
+            StreamingAudioIngest blockIngest = new StreamingAudioIngest(Long.MAX_VALUE, codec);
+            Sinks.Many<DataBuffer> blockBody = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable blockUpload = upload(blockIngest, blockBody);
+            emit(blockBody, Arrays.copyOf(wav, 256 * 1024), 4096);
+            blockUpload.dispose();
+            assertTrue(forkJoinPool.awaitQuiescence(5, TimeUnit.SECONDS));
+            assertEquals(0, codec.deflatersInUse());
+
+            // A finished upload is not affected
+            StreamingAudioIngest finished = new StreamingAudioIngest(Long.MAX_VALUE, codec);
+            feed(finished, wav, 4096);
+            AudioFormatUtils.AudioMetadata metadata = finished.finish();
+            finished.abort();
+            assertArrayEquals(wav, codec.decode(metadata.getCompressedData()));
+            assertEquals(0, codec.deflatersInUse());
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWavWithUnreadableFormatIsAcceptedWithoutIt() throws IOException {
+        // IMA ADPCM, which WavFormat does not read
+        ByteBuffer adpcm = ByteBuffer.allocate(44 + 256).order(ByteOrder.LITTLE_ENDIAN);
+        adpcm.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + 256).put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        adpcm.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+            .putShort((short) 0x11).putShort((short) 1).putInt(22050).putInt(11100).putShort((short) 256).putShort((short) 4);
+        adpcm.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(256);
+        byte[] wav = adpcm.array();
+
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE);
+        feed(ingest, wav, 7);
+        AudioFormatUtils.AudioMetadata raw = ingest.finish();
+
+        assertNull(raw.getWavFormat());
+        assertArrayEquals(wav, GzipUtils.decompress(raw.getCompressedData()));
+
+        StreamingAudioIngest gzipIngest = new StreamingAudioIngest(Long.MAX_VALUE);
+        feed(gzipIngest, GzipCodec.DEFAULT.encode(wav), 7);
+        AudioFormatUtils.AudioMetadata gzipped = gzipIngest.finish();
+
+        assertNull(gzipped.getWavFormat());
+        assertEquals(wav.length, gzipped.getUncompressedSize());
+        assertNull(AudioFormatUtils.processAudioData(wav).getWavFormat());
+    }
+
+    @Test
+    public void testInvalidFormatRejectedOnFirstChunk() throws IOException {
+        byte[] notAudio = "This is not an audio file at all".getBytes();
+
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class,
+            () -> ingest.accept(bufferFactory.wrap(Arrays.copyOf(notAudio, 16))));
+    }
+
+    @Test
+    public void testUploadSizeLimit() {
+        StreamingAudioIngest ingest = new StreamingAudioIngest(8);
+        assertThrows(IllegalArgumentException.class, () -> ingest.accept(bufferFactory.wrap(new byte[16])));
+    }
+
+    @Test
+    public void testDecompressedSizeLimit() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        byte[] bomb = Arrays.copyOf(wav, 16 * 1024 * 1024);
+
+        StreamingAudioIngest gzipIngest = new StreamingAudioIngest(Long.MAX_VALUE, 1024 * 1024, GzipCodec.DEFAULT);
+        feed(gzipIngest, GzipCodec.DEFAULT.encode(bomb), 4096);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, gzipIngest::finish);
+        assertTrue(error.getMessage().contains("decompressed audio exceeds"), error.getMessage());
+
+        StreamingAudioIngest wavIngest = new StreamingAudioIngest(Long.MAX_VALUE, 1024 * 1024, GzipCodec.DEFAULT);
+        assertThrows(IllegalArgumentException.class, () -> feed(wavIngest, bomb, 64 * 1024));
+    }
+
+    @Test
+    public void testEmptyUpload() {
+        StreamingAudioIngest ingest = new StreamingAudioIngest(Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, ingest::finish);
+    }
+
+    private static void feed(StreamingAudioIngest ingest, byte[] data, int chunkSize) throws IOException {
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            int end = Math.min(data.length, offset + chunkSize);
+            ingest.accept(bufferFactory.wrap(Arrays.copyOfRange(data, offset, end)));
+        }
+    }
+
+    /**
+     * The upload part of InferenceService.handleInference
+     */
+    private static Disposable upload(StreamingAudioIngest ingest, Sinks.Many<DataBuffer> body) {
+        return body.asFlux()
+            .<Void>handle((buffer, sink) -> {
+                try {
+                    ingest.accept(buffer);
+                } catch (IOException e) {
+                    sink.error(e);
+                }
+            })
+            .then(Mono.fromCallable(ingest::finish))
+            .doFinally(signal -> ingest.abort())
+            .subscribe();
+    }
+
+    private static void emit(Sinks.Many<DataBuffer> body, byte[] data, int chunkSize) {
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            int end = Math.min(data.length, offset + chunkSize);
+            body.tryEmitNext(bufferFactory.wrap(Arrays.copyOfRange(data, offset, end)));
+        }
+    }
+
+    private static byte[] loadTrainingAudio() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class WavConverterTest {
+
+    private final WavConverter converter = new WavConverter(16000, 1, 16);
+
+    @Test
+    public void testConvertsTrainingAudioToModelFormat() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        WavFormat source = WavFormat.parse(wav);
+
+        byte[] converted = converter.convert(wav);
+        WavFormat format = WavFormat.parse(converted);
+
+        assertTrue(format.hasSameSampleFormat(converter.getTarget()));
+        assertEquals(44, format.getDataOffset());
+        assertEquals(source.getFrames() * 16000 / 44100, format.getFrames());
+        assertEquals(source.getDurationMillis(), format.getDurationMillis(), 1);
+        // 44.1 kHz stereo 24-bit is 264600 bytes a second, 16 kHz mono 16-bit 32000
+        assertTrue(converted.length * 8 < wav.length,
+            "Expected over 8x fewer bytes, got " + wav.length + " -> " + converted.length);
+    }
+
+    @Test
+    public void testAudioAlreadyInModelFormatIsReturnedAsIs() {
+        byte[] wav = WavConverter.encode(new float[][] { tone(1000, 16000, 1600, 0.5) }, converter.getTarget());
+
+        assertSame(wav, converter.convert(wav));
+    }
+
+    @Test
+    public void testDownsamplingKeepsPassbandAndRemovesAliases() {
+        WavFormat source = WavFormat.pcm(48000, 1, 16);
+
+        float[] passband = convertedSamples(WavConverter.encode(new float[][] { tone(1000, 48000, 48000, 0.5) }, source));
+        float[] alias = convertedSamples(WavConverter.encode(new float[][] { tone(12000, 48000, 48000, 0.5) }, source));
+
+        assertEquals(16000, passband.length);
+        assertEquals(0.5, peak(passband), 0.01);
+        // 12 kHz is above the new 8 kHz Nyquist frequency and would fold to 4 kHz
+        assertTrue(peak(alias) < 0.005, "Aliased tone left at " + peak(alias));
+    }
+
+    @Test
+    public void testStereoIsAveragedToMono() {
+        float[] left = tone(440, 16000, 1600, 0.5);
+        float[] right = new float[left.length];
+        for (int i = 0; i < left.length; i++) {
+            right[i] = -left[i];
+        }
+        byte[] wav = WavConverter.encode(new float[][] { left, right }, WavFormat.pcm(16000, 2, 24));
+
+        float[] mono = convertedSamples(wav);
+
+        assertEquals(1600, mono.length);
+        assertTrue(peak(mono) < 0.001, "Opposite channels should cancel, got " + peak(mono));
+    }
+
+    @Test
+    public void testReadsEverySampleFormat() {
+        float[] samples = tone(440, 16000, 160, 0.25);
+        for (int bits : new int[] { 8, 16, 24, 32 }) {
+            byte[] wav = WavConverter.encode(new float[][] { samples }, WavFormat.pcm(16000, 1, bits));
+            float[] read = WavConverter.mix(wav, WavFormat.parse(wav), 1)[0];
+            for (int i = 0; i < samples.length; i++) {
+                assertEquals(samples[i], read[i], 1.0 / 128, bits + " bits, sample " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsNonWavInput() {
+        assertThrows(IllegalArgumentException.class, () -> converter.convert(new byte[64]));
+    }
+
+    private float[] convertedSamples(byte[] wav) {
+        byte[] converted = converter.convert(wav);
+        return WavConverter.mix(converted, WavFormat.parse(converted), 1)[0];
+    }
+
+    private static float[] tone(double frequency, int sampleRate, int length, double amplitude) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) (amplitude * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+
+    /**
+     * Largest magnitude away from the edges, where the filter sees silence past the ends
+     */
+    private static double peak(float[] samples) {
+        double peak = 0;
+        for (int i = samples.length / 10; i < samples.length - samples.length / 10; i++) {
+            peak = Math.max(peak, Math.abs(samples[i]));
+        }
+        return peak;
+    }
+
+    private static byte[] loadTrainingAudio() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
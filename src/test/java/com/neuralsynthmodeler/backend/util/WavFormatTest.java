@@ -0,0 +1,126 @@
+package com.neuralsynthmodeler.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class WavFormatTest {
+
+    @Test
+    public void testReadsTrainingAudioPastItsBextChunk() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+
+        WavFormat format = WavFormat.parse(wav);
+
+        assertEquals(WavFormat.PCM, format.getEncoding());
+        assertEquals(44100, format.getSampleRate());
+        assertEquals(2, format.getChannels());
+        assertEquals(24, format.getBitsPerSample());
+        assertEquals(wav.length - format.getDataOffset(), format.getDataLength());
+        assertEquals(format.getFrames() * 1000 / 44100, format.getDurationMillis());
+        assertTrue(format.getDataOffset() > 44, "The bext chunk should be skipped");
+    }
+
+    @Test
+    public void testHeaderReadInPiecesMatchesWholeFile() throws IOException {
+        byte[] wav = GzipUtils.decompress(loadTrainingAudio());
+        WavFormat whole = WavFormat.parse(wav);
+
+        WavFormat.HeaderReader reader = new WavFormat.HeaderReader();
+        int offset = 0;
+        while (!reader.accept(wav, offset, 3)) {
+            offset += 3;
+        }
+        WavFormat pieces = reader.finish(wav.length);
+
+        assertTrue(whole.hasSameSampleFormat(pieces));
+        assertEquals(whole.getDataOffset(), pieces.getDataOffset());
+        assertEquals(whole.getDataLength(), pieces.getDataLength());
+    }
+
+    @Test
+    public void testSkipsOddChunksAndReadsExtensibleFloat() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "RIFF", 0);
+        out.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+        // Odd-sized chunk, followed by its pad byte
+        write(out, "LIST", 3);
+        out.writeBytes(new byte[] {1, 2, 3, 0});
+        write(out, "fmt ", 40);
+        out.writeBytes(shorts(0xFFFE, 2));
+        out.writeBytes(ints(48000, 48000 * 8));
+        out.writeBytes(shorts(8, 32, 22, 32));
+        out.writeBytes(ints(3));
+        // IEEE float sub-format GUID
+        out.writeBytes(shorts(3, 0, 0, 0x10, 0x80, 0xAA00, 0x3800, 0x719B));
+        // Never patched by the recorder, and a trailing half frame
+        write(out, "data", -1);
+        out.writeBytes(new byte[8 * 100 + 5]);
+
+        WavFormat format = WavFormat.parse(out.toByteArray());
+
+        assertEquals(WavFormat.IEEE_FLOAT, format.getEncoding());
+        assertEquals(48000, format.getSampleRate());
+        assertEquals(2, format.getChannels());
+        assertEquals(32, format.getBitsPerSample());
+        assertEquals(100, format.getFrames());
+    }
+
+    @Test
+    public void testRejectsFilesItCannotRead() {
+        ByteArrayOutputStream dataFirst = new ByteArrayOutputStream();
+        write(dataFirst, "RIFF", 0);
+        dataFirst.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+        write(dataFirst, "data", 4);
+        dataFirst.writeBytes(new byte[4]);
+        assertThrows(IllegalArgumentException.class, () -> WavFormat.parse(dataFirst.toByteArray()));
+
+        ByteArrayOutputStream adpcm = new ByteArrayOutputStream();
+        write(adpcm, "RIFF", 0);
+        adpcm.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+        write(adpcm, "fmt ", 16);
+        adpcm.writeBytes(shorts(2, 1));
+        adpcm.writeBytes(ints(44100, 22050));
+        adpcm.writeBytes(shorts(1, 4));
+        assertThrows(IllegalArgumentException.class, () -> WavFormat.parse(adpcm.toByteArray()));
+
+        byte[] headerOnly = "RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class, () -> WavFormat.parse(headerOnly));
+        assertThrows(IllegalArgumentException.class, () -> WavFormat.parse("RIFF\0\0\0\0AVI LIST".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static void write(ByteArrayOutputStream out, String id, int size) {
+        out.writeBytes(id.getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(ints(size));
+    }
+
+    private static byte[] shorts(int... values) {
+        byte[] bytes = new byte[values.length * 2];
+        for (int i = 0; i < values.length; i++) {
+            bytes[2 * i] = (byte) values[i];
+            bytes[2 * i + 1] = (byte) (values[i] >> 8);
+        }
+        return bytes;
+    }
+
+    private static byte[] ints(int... values) {
+        byte[] bytes = new byte[values.length * 4];
+        for (int i = 0; i < values.length; i++) {
+            for (int b = 0; b < 4; b++) {
+                bytes[4 * i + b] = (byte) (values[i] >> (8 * b));
+            }
+        }
+        return bytes;
+    }
+
+    private static byte[] loadTrainingAudio() throws IOException {
+        try (InputStream in = new ClassPathResource("training.wav.gz").getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}